@@ -0,0 +1,114 @@
+package com.toronto.opendata.core.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.roaringbitmap.RoaringBitmap;
+
+import com.toronto.opendata.core.model.CulturalHotSpotModel;
+import com.toronto.opendata.core.model.HotSpotColumnStore;
+import com.toronto.opendata.core.model.HotSpotColumnStore.Facet;
+import com.toronto.opendata.core.model.MultiPointModel;
+
+/**
+ * Full scans of the in-memory hotspots: a bounding-box count over the read models (one
+ * object graph per row) against the column store's coordinate arrays, and neighbourhood and
+ * interest filters on the dictionary-encoded columns against the facet bitmaps.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ColumnStoreBenchmark {
+
+    private static final double MIN_LAT = 43.63;
+    private static final double MAX_LAT = 43.67;
+    private static final double MIN_LON = -79.42;
+    private static final double MAX_LON = -79.36;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private List<CulturalHotSpotModel> spots;
+    private HotSpotColumnStore store;
+
+    @Setup
+    public void setUp() {
+        spots = SyntheticData.hotSpots(size, 42);
+        store = SyntheticData.store(spots);
+    }
+
+    @Benchmark
+    public int boundsScanModels() {
+        int count = 0;
+        for (CulturalHotSpotModel spot : spots) {
+            MultiPointModel location = spot.getLocation();
+            if (location != null && location.getY() >= MIN_LAT && location.getY() <= MAX_LAT
+                    && location.getX() >= MIN_LON && location.getX() <= MAX_LON) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int boundsScanColumns() {
+        int count = 0;
+        for (int row = 0; row < store.size(); row++) {
+            double lat = store.latitude(row);
+            double lon = store.longitude(row);
+            if (lat >= MIN_LAT && lat <= MAX_LAT && lon >= MIN_LON && lon <= MAX_LON) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int[] neighbourhoodFilterColumns() {
+        return store.rowsInNeighbourhood("Neighbourhood 42");
+    }
+
+    @Benchmark
+    public int[] neighbourhoodFilterBitmap() {
+        return store.facet(Facet.NEIGHBOURHOOD).rows("Neighbourhood 42").toArray();
+    }
+
+    @Benchmark
+    public int interestAndNeighbourhoodColumns() {
+        int[] interest = store.rowsWithInterest("History");
+        int[] neighbourhood = store.rowsInNeighbourhood("Neighbourhood 42");
+        int count = 0;
+        for (int i = 0, j = 0; i < interest.length && j < neighbourhood.length; ) {
+            if (interest[i] < neighbourhood[j]) {
+                i++;
+            } else if (interest[i] > neighbourhood[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int interestAndNeighbourhoodBitmap() {
+        return RoaringBitmap.andCardinality(store.facet(Facet.INTEREST).rows("History"),
+                store.facet(Facet.NEIGHBOURHOOD).rows("Neighbourhood 42"));
+    }
+}
@@ -0,0 +1,72 @@
+package com.toronto.opendata.core.benchmark;
+
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.toronto.opendata.core.service.CSVReaderService;
+
+/**
+ * Reading the CSV files bundled in src/main/resources/data: {@link CSVReaderService#readCSV}
+ * (one map per record) against the memory-mapped {@link CSVReaderService#forEachRow} decoding
+ * every field, sequentially and split across the common pool.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CsvReadBenchmark {
+
+    @Param({"data/points-of-interest-05-11-2025.csv", "data/Places of Worship - 4326.csv"})
+    public String file;
+
+    private final CSVReaderService csvReaderService = new CSVReaderService();
+    private String filePath;
+
+    @Setup
+    public void setUp() throws URISyntaxException {
+        filePath = Path.of(getClass().getClassLoader().getResource(file).toURI()).toString();
+    }
+
+    @Benchmark
+    public List<Map<String, String>> readCSV() throws IOException {
+        return csvReaderService.readCSV(file);
+    }
+
+    @Benchmark
+    public long forEachRowMapped(Blackhole blackhole) throws IOException {
+        return csvReaderService.forEachRow(filePath, row -> {
+            for (int i = 0; i < row.size(); i++) {
+                blackhole.consume(row.get(i));
+            }
+        });
+    }
+
+    @Benchmark
+    public long forEachChunkParallel(Blackhole blackhole) throws IOException {
+        return csvReaderService.forEachChunkParallel(filePath, row -> {
+            for (int i = 0; i < row.size(); i++) {
+                blackhole.consume(row.get(i));
+            }
+            return null;
+        }, blackhole::consume);
+    }
+}
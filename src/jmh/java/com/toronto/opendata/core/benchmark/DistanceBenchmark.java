@@ -0,0 +1,44 @@
+package com.toronto.opendata.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.toronto.opendata.core.util.GeoUtils;
+
+/**
+ * Haversine distance, the per-point cost of every radius filter
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceBenchmark {
+
+    private double[] lats;
+    private double[] lons;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        lats = SyntheticData.latitudes(1024, 42);
+        lons = SyntheticData.longitudes(1024, 43);
+    }
+
+    @Benchmark
+    public double haversineKm() {
+        int i = next++ & 1023;
+        return GeoUtils.haversineKm(43.6532, -79.3832, lats[i], lons[i]);
+    }
+}
@@ -0,0 +1,101 @@
+package com.toronto.opendata.core.benchmark;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.toronto.opendata.core.dto.GeoJsonFeatureCollectionDTO;
+import com.toronto.opendata.core.dto.GeoJsonFeatureDTO;
+import com.toronto.opendata.core.model.CulturalHotSpotModel;
+import com.toronto.opendata.core.model.HotSpotColumnStore;
+import com.toronto.opendata.core.util.GeoJsonWriter;
+
+/**
+ * Rendering the FeatureCollection: streaming {@link GeoJsonWriter} (used for the snapshot),
+ * from read models or straight from the column store, against building the feature DTO tree
+ * and serializing it with an ObjectMapper.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeoJsonBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private List<CulturalHotSpotModel> spots;
+    private HotSpotColumnStore store;
+    private int[] rows;
+
+    @Setup
+    public void setUp() {
+        spots = SyntheticData.hotSpots(size, 42);
+        store = SyntheticData.store(spots);
+        rows = store.locatedRows();
+    }
+
+    @Benchmark
+    public void streamingWriter() throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            GeoJsonWriter.writeFeatureCollection(gen, spots);
+        }
+    }
+
+    @Benchmark
+    public void streamingWriterColumnStore() throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(OutputStream.nullOutputStream())) {
+            GeoJsonWriter.writeFeatureCollection(gen, store, rows);
+        }
+    }
+
+    @Benchmark
+    public void dtoTree() throws IOException {
+        List<GeoJsonFeatureDTO> features = spots.stream()
+                .map(spot -> {
+                    Map<String, Object> properties = new LinkedHashMap<>();
+                    properties.put("id", spot.getId());
+                    properties.put("name", spot.getName());
+                    properties.put("description", spot.getDescription());
+                    properties.put("address", spot.getAddress());
+                    properties.put("type", spot.getType());
+                    properties.put("imageUrl", spot.getPictureURL());
+                    return GeoJsonFeatureDTO.builder()
+                            .type("Feature")
+                            .geometry(GeoJsonFeatureDTO.GeometryDTO.builder()
+                                    .type("Point")
+                                    .coordinates(new double[] {spot.getLocation().getX(), spot.getLocation().getY()})
+                                    .build())
+                            .properties(properties)
+                            .build();
+                })
+                .collect(Collectors.toList());
+        GeoJsonFeatureCollectionDTO collection = GeoJsonFeatureCollectionDTO.builder()
+                .type("FeatureCollection")
+                .features(features)
+                .build();
+        objectMapper.writeValue(OutputStream.nullOutputStream(), collection);
+    }
+}
@@ -0,0 +1,64 @@
+package com.toronto.opendata.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.toronto.opendata.core.model.MultiPointModel;
+import com.toronto.opendata.core.util.GeometryParser;
+
+/**
+ * Parsing the CSV "geometry" column with {@link GeometryParser}, which backs ingest and the
+ * request-path fallback, against the Jackson tree-model parse it replaced.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GeometryParseBenchmark {
+
+    private static final String MULTI_POINT = "{\"coordinates\": [[-79.48576, 43.685]], \"type\": \"MultiPoint\"}";
+    private static final String POINT = "{\"type\": \"Point\", \"coordinates\": [-79.3832, 43.6532]}";
+    private static final String MALFORMED = "{\"coordinates\": [[-79.48576, 43.6";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Benchmark
+    public MultiPointModel multiPoint() {
+        return GeometryParser.parseGeometrySafe(MULTI_POINT);
+    }
+
+    @Benchmark
+    public MultiPointModel point() {
+        return GeometryParser.parseGeometrySafe(POINT);
+    }
+
+    @Benchmark
+    public MultiPointModel malformed() {
+        return GeometryParser.parseGeometrySafe(MALFORMED);
+    }
+
+    @Benchmark
+    public MultiPointModel multiPointJacksonTree() throws Exception {
+        JsonNode root = objectMapper.readTree(MULTI_POINT);
+        JsonNode firstPoint = root.get("coordinates").get(0);
+        return MultiPointModel.builder()
+                .x(firstPoint.get(0).asDouble())
+                .y(firstPoint.get(1).asDouble())
+                .type(root.get("type").asText())
+                .build();
+    }
+}
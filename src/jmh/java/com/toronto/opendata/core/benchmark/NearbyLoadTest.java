@@ -0,0 +1,143 @@
+package com.toronto.opendata.core.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Closed-loop load test of {@code /api/map/points/nearby} against a running instance: for each
+ * concurrency level, that many clients send requests back to back (random centres in Toronto)
+ * for a fixed time; throughput, latency percentiles and errors are printed per level.
+ *
+ * Start the application once per thread mode (see README, "Load testing") and run, with only
+ * the JDK on the class path:
+ * <pre>
+ * java src/jmh/java/com/toronto/opendata/core/benchmark/NearbyLoadTest.java \
+ *     http://localhost:8081 1,8,32,128,512 10s
+ * </pre>
+ */
+public final class NearbyLoadTest {
+
+    private static final double MIN_LAT = 43.58;
+    private static final double MAX_LAT = 43.85;
+    private static final double MIN_LON = -79.64;
+    private static final double MAX_LON = -79.12;
+    private static final double RADIUS_KM = 2.0;
+
+    private NearbyLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8081";
+        int[] levels = Arrays.stream((args.length > 1 ? args[1] : "1,8,32,128,512").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        Duration duration = Duration.parse("PT" + (args.length > 2 ? args[2] : "10s").toUpperCase(Locale.ROOT));
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        // Warm-up: JIT, connection set-up and the map snapshot
+        run(client, baseUrl, 8, Duration.ofSeconds(3));
+
+        System.out.printf("%-12s %10s %12s %10s %10s %10s %8s%n",
+                "concurrency", "requests", "req/s", "p50 ms", "p99 ms", "max ms", "errors");
+        for (int concurrency : levels) {
+            Result result = run(client, baseUrl, concurrency, duration);
+            System.out.printf(Locale.ROOT, "%-12d %10d %12.1f %10.2f %10.2f %10.2f %8d%n",
+                    concurrency, result.requests(), result.requests() / (duration.toNanos() / 1e9),
+                    result.percentileMillis(0.50), result.percentileMillis(0.99),
+                    result.percentileMillis(1.0), result.errors());
+        }
+    }
+
+    private static Result run(HttpClient client, String baseUrl, int concurrency, Duration duration)
+            throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<Result>> futures = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                futures.add(clients.submit(() -> loop(client, baseUrl, deadline)));
+            }
+            Result total = new Result(new long[0], 0);
+            for (Future<Result> future : futures) {
+                total = total.plus(future.get());
+            }
+            return total;
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static Result loop(HttpClient client, String baseUrl, long deadline) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long[] latencies = new long[1024];
+        int count = 0;
+        long errors = 0;
+        while (System.nanoTime() < deadline) {
+            double lat = random.nextDouble(MIN_LAT, MAX_LAT);
+            double lon = random.nextDouble(MIN_LON, MAX_LON);
+            HttpRequest request = HttpRequest.newBuilder(URI.create(String.format(Locale.ROOT,
+                            "%s/api/map/points/nearby?lat=%.5f&lon=%.5f&radiusKm=%.1f", baseUrl, lat, lon, RADIUS_KM)))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    errors++;
+                    continue;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                errors++;
+                continue;
+            }
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return new Result(Arrays.copyOf(latencies, count), errors);
+    }
+
+    /**
+     * Latencies (nanoseconds) of successful requests, plus the failed request count
+     */
+    private record Result(long[] latencies, long errors) {
+
+        long requests() {
+            return latencies.length;
+        }
+
+        Result plus(Result other) {
+            long[] merged = Arrays.copyOf(latencies, latencies.length + other.latencies.length);
+            System.arraycopy(other.latencies, 0, merged, latencies.length, other.latencies.length);
+            return new Result(merged, errors + other.errors);
+        }
+
+        double percentileMillis(double percentile) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            long[] sorted = latencies.clone();
+            Arrays.sort(sorted);
+            int index = (int) Math.ceil(percentile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.toronto.opendata.core.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.toronto.opendata.core.util.GeoUtils;
+import com.toronto.opendata.core.util.KdTree;
+import com.toronto.opendata.core.util.SpatialGridIndex;
+
+/**
+ * The bounds and nearby filters behind /api/map/points/bounds and /points/nearby: the grid
+ * index MapService uses against a full scan of the points, which is what the endpoints did
+ * before the index existed. /points/nearest: the KD-tree's best-first search against
+ * computing and sorting every distance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SpatialQueryBenchmark {
+
+    // A downtown viewport and a 2 km walk around City Hall
+    private static final double BOX_MIN_LAT = 43.63;
+    private static final double BOX_MAX_LAT = 43.67;
+    private static final double BOX_MIN_LON = -79.42;
+    private static final double BOX_MAX_LON = -79.36;
+    private static final double CENTER_LAT = 43.6532;
+    private static final double CENTER_LON = -79.3832;
+    private static final double RADIUS_KM = 2.0;
+    private static final int NEAREST_K = 10;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    private double[] lats;
+    private double[] lons;
+    private SpatialGridIndex index;
+    private KdTree tree;
+
+    @Setup
+    public void setUp() {
+        lats = SyntheticData.latitudes(size, 42);
+        lons = SyntheticData.longitudes(size, 43);
+        index = SpatialGridIndex.build(lats, lons);
+        tree = KdTree.build(lons, lats);
+    }
+
+    @Benchmark
+    public int[] boundsGridIndex() {
+        return index.queryBounds(BOX_MIN_LAT, BOX_MAX_LAT, BOX_MIN_LON, BOX_MAX_LON);
+    }
+
+    @Benchmark
+    public void boundsFullScan(Blackhole blackhole) {
+        for (int i = 0; i < lats.length; i++) {
+            if (lats[i] >= BOX_MIN_LAT && lats[i] <= BOX_MAX_LAT && lons[i] >= BOX_MIN_LON && lons[i] <= BOX_MAX_LON) {
+                blackhole.consume(i);
+            }
+        }
+    }
+
+    @Benchmark
+    public int[] nearbyGridIndex() {
+        return index.queryRadius(CENTER_LAT, CENTER_LON, RADIUS_KM);
+    }
+
+    @Benchmark
+    public void nearbyFullScan(Blackhole blackhole) {
+        for (int i = 0; i < lats.length; i++) {
+            if (GeoUtils.haversineKm(CENTER_LAT, CENTER_LON, lats[i], lons[i]) <= RADIUS_KM) {
+                blackhole.consume(i);
+            }
+        }
+    }
+
+    @Benchmark
+    public void nearestKdTree(Blackhole blackhole) {
+        tree.nearest(CENTER_LON, CENTER_LAT, NEAREST_K, Double.POSITIVE_INFINITY,
+                (position, distanceKm) -> blackhole.consume(position));
+    }
+
+    @Benchmark
+    public void nearestFullScanSort(Blackhole blackhole) {
+        double[] distances = new double[lats.length];
+        for (int i = 0; i < lats.length; i++) {
+            distances[i] = GeoUtils.haversineKm(CENTER_LAT, CENTER_LON, lats[i], lons[i]);
+        }
+        Arrays.sort(distances);
+        for (int i = 0; i < Math.min(NEAREST_K, distances.length); i++) {
+            blackhole.consume(distances[i]);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.toronto.opendata.core.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import com.toronto.opendata.core.model.CulturalHotSpotModel;
+import com.toronto.opendata.core.model.HotSpotColumnStore;
+import com.toronto.opendata.core.model.HotSpotColumns;
+import com.toronto.opendata.core.model.MultiPointModel;
+
+/**
+ * Reproducible synthetic hotspots spread over the City of Toronto bounding box
+ */
+final class SyntheticData {
+
+    static final double MIN_LAT = 43.58;
+    static final double MAX_LAT = 43.86;
+    static final double MIN_LON = -79.64;
+    static final double MAX_LON = -79.12;
+
+    private SyntheticData() {
+    }
+
+    static double[] latitudes(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble(MIN_LAT, MAX_LAT);
+        }
+        return values;
+    }
+
+    static double[] longitudes(int size, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        double[] values = new double[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = random.nextDouble(MIN_LON, MAX_LON);
+        }
+        return values;
+    }
+
+    static List<CulturalHotSpotModel> hotSpots(int size, long seed) {
+        double[] lats = latitudes(size, seed);
+        double[] lons = longitudes(size, seed + 1);
+        List<CulturalHotSpotModel> spots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            CulturalHotSpotModel spot = new CulturalHotSpotModel();
+            spot.setId(Integer.toString(i + 1));
+            spot.setName("Synthetic site " + i);
+            spot.setAddress(i + " Queen St. W.");
+            spot.setType("Self-guided");
+            spot.setDescription("A public artwork installed in " + (1950 + i % 70) + " near the waterfront.");
+            spot.setPictureURL("https://example.org/images/" + i + ".jpg");
+            spot.setLocation(MultiPointModel.builder().x(lons[i]).y(lats[i]).type("MultiPoint").build());
+            spots.add(spot);
+        }
+        return spots;
+    }
+
+    /**
+     * The same hotspots in the column store, with a handful of neighbourhoods and interests
+     */
+    static HotSpotColumnStore store(List<CulturalHotSpotModel> spots) {
+        int size = spots.size();
+        String[] ids = new String[size];
+        String[] names = new String[size];
+        String[] addresses = new String[size];
+        String[] types = new String[size];
+        String[] descriptions = new String[size];
+        String[] pictureUrls = new String[size];
+        String[] interests = new String[size];
+        String[] neighbourhoods = new String[size];
+        String[] locationTypes = new String[size];
+        double[] xs = new double[size];
+        double[] ys = new double[size];
+        for (int i = 0; i < size; i++) {
+            CulturalHotSpotModel spot = spots.get(i);
+            ids[i] = spot.getId();
+            names[i] = spot.getName();
+            addresses[i] = spot.getAddress();
+            types[i] = spot.getType();
+            descriptions[i] = spot.getDescription();
+            pictureUrls[i] = spot.getPictureURL();
+            interests[i] = i % 2 == 0 ? "Art, History" : "Architecture";
+            neighbourhoods[i] = "Neighbourhood " + i % 158;
+            locationTypes[i] = spot.getLocation().getType();
+            xs[i] = spot.getLocation().getX();
+            ys[i] = spot.getLocation().getY();
+        }
+        return HotSpotColumnStore.of(new HotSpotColumns(ids, names, addresses, types, descriptions, pictureUrls,
+                interests, neighbourhoods, ys, xs, locationTypes, xs, ys));
+    }
+}
@@ -0,0 +1,72 @@
+package com.toronto.opendata.core.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * CKAN endpoint and the HTTP client settings used to reach it ({@code opendata.ckan.*})
+ */
+@Data
+@ConfigurationProperties(prefix = "opendata.ckan")
+public class CkanClientProperties {
+    
+    private String baseUrl = "https://ckan0.cf.opendata.inter.prod-toronto.ca";
+    
+    private Duration connectTimeout = Duration.ofSeconds(5);
+    
+    /**
+     * Longest wait for a response, and between two reads of a response body
+     */
+    private Duration readTimeout = Duration.ofSeconds(30);
+    
+    /**
+     * Longest wait for a free pooled connection
+     */
+    private Duration poolTimeout = Duration.ofSeconds(5);
+    
+    private int maxConnections = 20;
+    
+    /**
+     * Pooled connections idle this long are closed
+     */
+    private Duration idleTimeout = Duration.ofMinutes(1);
+    
+    /**
+     * Responses kept for conditional requests (ETag / Last-Modified)
+     */
+    private int cacheEntries = 256;
+    
+    /**
+     * Larger responses are streamed through and not cached
+     */
+    private DataSize cacheMaxEntrySize = DataSize.ofMegabytes(1);
+    
+    private Retry retry = new Retry();
+    
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+    
+    /**
+     * Retries of transient failures (I/O errors, timeouts, 5xx, 429) with exponential backoff
+     */
+    @Data
+    public static class Retry {
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(500);
+        private double multiplier = 2.0;
+    }
+    
+    /**
+     * Fails calls fast while CKAN keeps failing; every attempt counts, retries included
+     */
+    @Data
+    public static class CircuitBreaker {
+        private float failureRateThreshold = 50;
+        private int slidingWindowSize = 20;
+        private int minimumCalls = 10;
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,37 @@
+package com.toronto.opendata.core.config;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * CKAN sources of the refreshable datasets ({@code opendata.refresh.*})
+ */
+@Data
+@ConfigurationProperties(prefix = "opendata.refresh")
+public class DatasetRefreshProperties {
+    
+    /**
+     * Run the scheduled refresh; the admin endpoint works either way
+     */
+    private boolean enabled;
+    
+    /**
+     * CKAN resource of each dataset to refresh, keyed by dataset name
+     */
+    private Map<String, CkanSource> sources = new LinkedHashMap<>();
+    
+    /**
+     * A resource is found by id, or else by name (or, without one, by format) among the
+     * resources of the package
+     */
+    @Data
+    public static class CkanSource {
+        private String packageId;
+        private String resourceId;
+        private String resourceName;
+    }
+}
@@ -0,0 +1,60 @@
+package com.toronto.opendata.core.config;
+
+import java.util.function.ToDoubleFunction;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.toronto.opendata.core.dto.CacheStatsDTO;
+import com.toronto.opendata.core.service.CulturalHotSpotService;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+@Configuration
+public class MetricsConfig {
+    
+    /**
+     * Hotspot read caches under Micrometer's cache meter names (cache.gets, cache.evictions,
+     * cache.size), plus their hit ratio. Read from the service's accumulated counters, so they
+     * keep counting across the cache generations swapped in by data reloads.
+     */
+    @Bean
+    public MeterBinder hotSpotCacheMetrics(CulturalHotSpotService service) {
+        return registry -> service.getCacheStats().forEach(cache -> {
+            String name = cache.getName();
+            FunctionCounter.builder("cache.gets", service, stat(name, CacheStatsDTO::getHitCount))
+                    .tags("cache", name, "result", "hit")
+                    .description("Cache lookups answered from the cache")
+                    .register(registry);
+            FunctionCounter.builder("cache.gets", service, stat(name, CacheStatsDTO::getMissCount))
+                    .tags("cache", name, "result", "miss")
+                    .description("Cache lookups that loaded the value")
+                    .register(registry);
+            FunctionCounter.builder("cache.evictions", service, stat(name, CacheStatsDTO::getEvictionCount))
+                    .tags("cache", name)
+                    .register(registry);
+            Gauge.builder("cache.size", service, stat(name, CacheStatsDTO::getSize))
+                    .tags("cache", name)
+                    .register(registry);
+            Gauge.builder("opendata.cache.hit.ratio", service, stat(name, MetricsConfig::hitRatio))
+                    .tags("cache", name)
+                    .description("Hits over lookups since startup; NaN before the first lookup")
+                    .register(registry);
+        });
+    }
+    
+    private static double hitRatio(CacheStatsDTO stats) {
+        long lookups = stats.getHitCount() + stats.getMissCount();
+        return lookups == 0 ? Double.NaN : (double) stats.getHitCount() / lookups;
+    }
+    
+    private static ToDoubleFunction<CulturalHotSpotService> stat(String cache, ToDoubleFunction<CacheStatsDTO> value) {
+        return service -> service.getCacheStats().stream()
+                .filter(stats -> stats.getName().equals(cache))
+                .mapToDouble(value)
+                .findFirst()
+                .orElse(0);
+    }
+}
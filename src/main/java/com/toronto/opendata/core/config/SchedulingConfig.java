@@ -0,0 +1,14 @@
+package com.toronto.opendata.core.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Background jobs (dataset refresh)
+ */
+@Configuration
+@EnableScheduling
+@EnableConfigurationProperties(DatasetRefreshProperties.class)
+public class SchedulingConfig {
+}
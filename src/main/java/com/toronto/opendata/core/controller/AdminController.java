@@ -0,0 +1,68 @@
+package com.toronto.opendata.core.controller;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import com.toronto.opendata.core.dto.ApiResponse;
+import com.toronto.opendata.core.dto.CacheStatsDTO;
+import com.toronto.opendata.core.dto.DatasetRefreshDTO;
+import com.toronto.opendata.core.dto.DatasetStatusDTO;
+import com.toronto.opendata.core.service.CulturalHotSpotService;
+import com.toronto.opendata.core.service.DatasetRefreshService;
+import com.toronto.opendata.core.service.dataset.DatasetIngestionService;
+
+/**
+ * Operational endpoints (cache statistics, dataset loads)
+ */
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+    
+    private final CulturalHotSpotService culturalHotSpotService;
+    private final DatasetIngestionService datasetIngestionService;
+    private final DatasetRefreshService datasetRefreshService;
+    
+    public AdminController(CulturalHotSpotService culturalHotSpotService,
+                           DatasetIngestionService datasetIngestionService,
+                           DatasetRefreshService datasetRefreshService) {
+        this.culturalHotSpotService = culturalHotSpotService;
+        this.datasetIngestionService = datasetIngestionService;
+        this.datasetRefreshService = datasetRefreshService;
+    }
+    
+    @GetMapping("/caches")
+    public ResponseEntity<ApiResponse<List<CacheStatsDTO>>> getCacheStats() {
+        return ResponseEntity.ok(ApiResponse.success(culturalHotSpotService.getCacheStats()));
+    }
+    
+    /**
+     * Load progress and current version of every registered dataset
+     */
+    @GetMapping("/datasets")
+    public ResponseEntity<ApiResponse<List<DatasetStatusDTO>>> getDatasets() {
+        return ResponseEntity.ok(ApiResponse.success(datasetIngestionService.getStatus()));
+    }
+    
+    /**
+     * Refresh a dataset from its CKAN resource now, applying only the rows that changed.
+     * Runs off the request thread; the response is sent when the refresh completes.
+     */
+    @PostMapping("/datasets/{name}/refresh")
+    public CompletableFuture<ResponseEntity<ApiResponse<DatasetRefreshDTO>>> refreshDataset(@PathVariable String name) {
+        return datasetRefreshService.refreshAsync(name)
+                .thenApply(result -> ResponseEntity.ok(ApiResponse.success(result)));
+    }
+    
+    /**
+     * Rebuild a dataset from its bundled source. Readers see the old rows until the new
+     * ones are committed, never an empty table.
+     */
+    @PostMapping("/datasets/{name}/reload")
+    public CompletableFuture<ResponseEntity<ApiResponse<DatasetRefreshDTO>>> reloadDataset(@PathVariable String name) {
+        return datasetRefreshService.reloadAsync(name)
+                .thenApply(result -> ResponseEntity.ok(ApiResponse.success(result)));
+    }
+}
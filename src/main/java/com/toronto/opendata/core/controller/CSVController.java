@@ -1,13 +1,18 @@
 package com.toronto.opendata.core.controller;
 
 import com.toronto.opendata.core.service.CSVReaderService;
+import com.toronto.opendata.core.util.HttpHeaderUtils;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 
@@ -15,6 +20,8 @@ import java.util.Map;
 @RequestMapping("/api/csv")
 public class CSVController {
 
+    private static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
     private final CSVReaderService csvReaderService;
 
     public CSVController(CSVReaderService csvReaderService) {
@@ -45,19 +52,98 @@ public class CSVController {
         }
     }
 
-    @GetMapping(value = "/stream", produces = MediaType.TEXT_PLAIN_VALUE)
+    /**
+     * Downloads a CSV file as an attachment. The response is gzip-compressed on the fly when
+     * the client accepts it; otherwise its length is known up front and a single
+     * {@code Range} (optionally guarded by {@code If-Range} with the ETag) resumes an
+     * interrupted download with 206 Partial Content.
+     */
+    @GetMapping("/stream")
     public ResponseEntity<StreamingResponseBody> streamCSV(
             @RequestParam String filePath,
-            @RequestParam(required = false) String downloadFilename) {
+            @RequestParam(required = false) String downloadFilename,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            WebRequest webRequest) {
         
         if (!csvReaderService.isValidCSVFile(filePath)) {
             return ResponseEntity.badRequest().build();
         }
+        
+        CSVReaderService.CsvExport export;
+        try {
+            export = csvReaderService.describeCSVExport(filePath);
+        } catch (IOException e) {
+            return ResponseEntity.internalServerError().build();
+        }
 
         String filename = downloadFilename != null ? downloadFilename : "download.csv";
+        long total = export.length();
+        
+        HttpRange requested = singleRange(range, ifRange, export.etag());
+        if (requested != null) {
+            long start;
+            long end;
+            try {
+                start = requested.getRangeStart(total);
+                end = requested.getRangeEnd(total);
+            } catch (IllegalArgumentException e) {
+                start = total;
+                end = total - 1;
+            }
+            if (start >= total || end < start) {
+                return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes */" + total)
+                        .build();
+            }
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                    .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                    .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + total)
+                    .contentType(TEXT_CSV)
+                    .contentLength(end - start + 1)
+                    .eTag(export.etag())
+                    .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                    .body(csvReaderService.streamCSVToResponse(filePath, start, end - start + 1, false));
+        }
+        
+        // Streaming bodies bypass the ETag check done for other ResponseEntity bodies; this
+        // also sets the ETag response header
+        boolean gzip = HttpHeaderUtils.acceptsGzip(acceptEncoding);
+        if (webRequest.checkNotModified(gzip ? export.gzipEtag() : export.etag())) {
+            return null;
+        }
         
-        return ResponseEntity.ok()
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(TEXT_CSV);
+        
+        if (gzip) {
+            return response
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(csvReaderService.streamCSVToResponse(filePath, 0, Long.MAX_VALUE, true));
+        }
+        return response
+                .contentLength(total)
                 .body(csvReaderService.streamCSVToResponse(filePath));
     }
+    
+    /**
+     * The requested range if there is exactly one and If-Range (when sent) still matches;
+     * anything else is answered with the full representation
+     */
+    private static HttpRange singleRange(String range, String ifRange, String etag) {
+        if (range == null || (ifRange != null && !ifRange.equals(etag))) {
+            return null;
+        }
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
 }
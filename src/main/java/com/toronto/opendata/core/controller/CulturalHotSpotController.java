@@ -1,26 +1,121 @@
 package com.toronto.opendata.core.controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.toronto.opendata.core.dto.ApiResponse;
+import com.toronto.opendata.core.dto.FacetedHotSpotsDTO;
+import com.toronto.opendata.core.dto.SearchHitDTO;
 import com.toronto.opendata.core.model.CulturalHotSpotModel;
+import com.toronto.opendata.core.model.HotSpotColumnStore.Facet;
 import com.toronto.opendata.core.service.CulturalHotSpotService;
+import com.toronto.opendata.core.service.HotSpotSearchService;
+import com.toronto.opendata.core.util.JsonStreamWriter;
+
+import io.micrometer.core.instrument.MeterRegistry;
 
 @RestController
 @RequestMapping("/api/cultural-hotspots")
 public class CulturalHotSpotController {
     
     private final CulturalHotSpotService service;
+    private final HotSpotSearchService searchService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
     
-    public CulturalHotSpotController(CulturalHotSpotService service) {
+    public CulturalHotSpotController(CulturalHotSpotService service, HotSpotSearchService searchService,
+                                     ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.service = service;
+        this.searchService = searchService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
     }
     
+    /**
+     * Keyset-paginated hotspot listing. Pass the previous page's {@code metadata.nextCursor}
+     * as {@code cursor}; {@code fields} (e.g. {@code id,name,lat,lon}) limits the columns returned.
+     */
     @GetMapping
-    public ResponseEntity<List<CulturalHotSpotModel>> getAllHotSpots() {
-        return ResponseEntity.ok(service.getAllCulturalHotSpots());
+    public ResponseEntity<ApiResponse<List<?>>> getAllHotSpots(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CulturalHotSpotService.DEFAULT_PAGE_SIZE) int limit,
+            @RequestParam(required = false) List<String> fields) {
+        return ResponseEntity.ok(service.getHotSpotPage(cursor, limit, fields));
+    }
+    
+    /**
+     * Every hotspot, read through a database cursor and streamed as it is mapped.
+     * {@code format=ndjson} writes one object per line instead of a JSON array.
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportHotSpots(@RequestParam(required = false) String format) {
+        JsonStreamWriter.Format streamFormat = JsonStreamWriter.Format.of(format);
+        return ResponseEntity.ok()
+                .contentType(streamFormat.mediaType())
+                .body(JsonStreamWriter.body(objectMapper, streamFormat,
+                        meterRegistry.timer("opendata.json.serialization", "payload", "hotspots-export"),
+                        writer -> service.streamAllCulturalHotSpots(model -> {
+                            try {
+                                writer.write(model);
+                            } catch (IOException e) {
+                                throw new UncheckedIOException(e);
+                            }
+                        })));
+    }
+    
+    /**
+     * Ranked full-text search over name, interests, neighbourhood and description.
+     * {@code prefix=true} matches the last word as a prefix; {@code lat}, {@code lon} and
+     * {@code radiusKm} together restrict results to a circle.
+     */
+    @GetMapping("/search")
+    public ResponseEntity<ApiResponse<List<SearchHitDTO>>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "false") boolean prefix,
+            @RequestParam(required = false) Double lat,
+            @RequestParam(required = false) Double lon,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(defaultValue = "" + HotSpotSearchService.DEFAULT_LIMIT) int limit) {
+        return ResponseEntity.ok(ApiResponse.success(searchService.search(q, prefix, lat, lon, radiusKm, limit)));
+    }
+    
+    /**
+     * Autocomplete: indexed words starting with the last word of {@code prefix}
+     */
+    @GetMapping("/suggest")
+    public ResponseEntity<ApiResponse<List<String>>> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(ApiResponse.success(searchService.suggest(prefix, limit)));
+    }
+    
+    /**
+     * Facet filter: hotspots with the given interest, neighbourhood and tour type terms (each
+     * repeatable), plus per-term counts. {@code match=all} requires every term of a facet
+     * instead of any one; the facets themselves are always combined. Terms are read from the raw
+     * parameters, as some neighbourhood names contain commas.
+     */
+    @GetMapping("/filter")
+    public ResponseEntity<ApiResponse<FacetedHotSpotsDTO>> filter(
+            @RequestParam MultiValueMap<String, String> params,
+            @RequestParam(defaultValue = "any") String match,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "" + CulturalHotSpotService.DEFAULT_PAGE_SIZE) int limit) {
+        Map<Facet, List<String>> selected = new EnumMap<>(Facet.class);
+        for (Facet facet : Facet.values()) {
+            selected.put(facet, params.get(facet.parameter()));
+        }
+        return ResponseEntity.ok(service.filterByFacets(selected, match, cursor, limit));
     }
     
     @GetMapping("/{id}")
@@ -1,39 +1,119 @@
 package com.toronto.opendata.core.controller;
 
-import com.toronto.opendata.core.dto.GeoJsonFeatureCollectionDTO;
+import java.util.List;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
 import com.toronto.opendata.core.dto.MapPointDTO;
 import com.toronto.opendata.core.service.MapService;
-import org.springframework.web.bind.annotation.*;
+import com.toronto.opendata.core.util.HttpHeaderUtils;
+import com.toronto.opendata.core.util.JsonStreamWriter;
 
-import java.util.List;
+import io.micrometer.core.instrument.MeterRegistry;
 
 @RestController
 @RequestMapping("/api/map")
 public class MapController {
     
     private final MapService mapService;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
     
-    public MapController(MapService mapService) {
+    public MapController(MapService mapService, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
         this.mapService = mapService;
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
     }
     
+    /**
+     * All map points, streamed as a JSON array or, with {@code format=ndjson}, one object per line
+     */
     @GetMapping("/points")
-    public List<MapPointDTO> getAllMapPoints() {
-        return mapService.getMapPoints();
+    public ResponseEntity<StreamingResponseBody> getAllMapPoints(
+            @RequestParam(required = false) String format
+    ) {
+        JsonStreamWriter.Format streamFormat = JsonStreamWriter.Format.of(format);
+        return ResponseEntity.ok()
+                .contentType(streamFormat.mediaType())
+                .body(JsonStreamWriter.body(objectMapper, streamFormat,
+                        meterRegistry.timer("opendata.json.serialization", "payload", "map-points"),
+                        mapService::writeMapPoints));
     }
     
-    @GetMapping("/geojson")
-    public GeoJsonFeatureCollectionDTO getGeoJson() {
-        return mapService.getGeoJsonFeatureCollection();
+    /**
+     * Serves the pre-rendered GeoJSON snapshot. Clients revalidate with If-None-Match and
+     * get a 304 until the hotspot data changes; gzip is used when the client accepts it.
+     */
+    @GetMapping(value = "/geojson", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getGeoJson(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding
+    ) {
+        MapService.GeoJsonSnapshot geoJson = mapService.getGeoJsonSnapshot();
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        
+        if (HttpHeaderUtils.acceptsGzip(acceptEncoding)) {
+            return response
+                    .eTag(geoJson.gzipEtag())
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(geoJson.gzip());
+        }
+        return response
+                .eTag(geoJson.etag())
+                .body(geoJson.json());
     }
     
+    /**
+     * GeoJSON features streamed one per line (newline-delimited GeoJSON)
+     */
+    @GetMapping(value = "/geojson", params = "format=ndjson")
+    public ResponseEntity<StreamingResponseBody> getGeoJsonFeatureStream() {
+        return ResponseEntity.ok()
+                .contentType(JsonStreamWriter.APPLICATION_NDJSON)
+                .body(JsonStreamWriter.body(objectMapper, JsonStreamWriter.Format.NDJSON,
+                        meterRegistry.timer("opendata.json.serialization", "payload", "geojson-features"),
+                        mapService::writeGeoJsonFeatures));
+    }
+    
+    /**
+     * Mapbox Vector Tile of the hotspots for tile z/x/y (XYZ scheme); clustered at low zoom.
+     */
+    @GetMapping(value = "/tiles/{z}/{x}/{y}.mvt", produces = "application/vnd.mapbox-vector-tile")
+    public ResponseEntity<byte[]> getVectorTile(
+            @PathVariable int z,
+            @PathVariable int x,
+            @PathVariable int y
+    ) {
+        MapService.VectorTile tile = mapService.getVectorTile(z, x, y);
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .eTag(tile.etag())
+                .body(tile.bytes());
+    }
+    
+    /**
+     * Points inside the box. With {@code zoom}, low-zoom requests get cluster centroids
+     * (type "cluster", {@code pointCount}) instead of every individual point.
+     */
     @GetMapping("/points/bounds")
     public List<MapPointDTO> getMapPointsInBounds(
             @RequestParam Double minLat,
             @RequestParam Double maxLat,
             @RequestParam Double minLon,
-            @RequestParam Double maxLon
+            @RequestParam Double maxLon,
+            @RequestParam(required = false) Integer zoom
     ) {
+        if (zoom != null) {
+            return mapService.getMapPointsInBounds(minLat, maxLat, minLon, maxLon, zoom);
+        }
         return mapService.getMapPointsInBounds(minLat, maxLat, minLon, maxLon);
     }
     
@@ -45,4 +125,16 @@ public class MapController {
     ) {
         return mapService.getMapPointsNearby(lat, lon, radiusKm);
     }
+    
+    /**
+     * The {@code k} closest points, nearest first, each with its {@code distanceKm}
+     */
+    @GetMapping("/points/nearest")
+    public List<MapPointDTO> getNearestMapPoints(
+            @RequestParam Double lat,
+            @RequestParam Double lon,
+            @RequestParam(defaultValue = "10") int k
+    ) {
+        return mapService.getNearestMapPoints(lat, lon, k);
+    }
 }
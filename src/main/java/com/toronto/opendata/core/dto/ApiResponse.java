@@ -1,5 +1,7 @@
 package com.toronto.opendata.core.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Data;
 import lombok.Builder;
 
@@ -16,8 +18,12 @@ public class ApiResponse<T> {
     public static class Metadata {
         private int totalCount;
         private int pageSize;
-        private int pageNumber;
+        // Only set where it is cheap to know (not for keyset pages of the listing)
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Integer pageNumber;
         private int totalPages;
+        // Opaque keyset cursor for the next page; null on the last page
+        private String nextCursor;
     }
 
     public static <T> ApiResponse<T> success(T data) {
@@ -0,0 +1,22 @@
+package com.toronto.opendata.core.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Hit/miss/eviction counters of one in-process cache, accumulated across data reloads
+ */
+@Data
+@Builder
+public class CacheStatsDTO {
+    private String name;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRate;
+    private long loadCount;
+    private long evictionCount;
+    // Times the cache was dropped because the hotspot data changed
+    private long invalidationCount;
+    private long dataVersion;
+}
@@ -0,0 +1,40 @@
+package com.toronto.opendata.core.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import lombok.Getter;
+
+/**
+ * List-view projection of a hotspot. Populated directly by a JPQL constructor expression,
+ * so the long text columns (description, directions) are never read.
+ */
+@Getter
+public class CulturalHotSpotSummaryDTO {
+    // Database key, used as the pagination cursor only
+    @JsonIgnore
+    private final Long key;
+    private final String id;
+    private final String name;
+    private final String neighbourhood;
+    private final String type;
+    private final String address;
+    @JsonProperty("lat")
+    private final Double latitude;
+    @JsonProperty("lon")
+    private final Double longitude;
+    private final String thumbnailURL;
+
+    public CulturalHotSpotSummaryDTO(Long key, String id, String name, String neighbourhood, String type,
+                                     String address, Double latitude, Double longitude, String thumbnailURL) {
+        this.key = key;
+        this.id = id;
+        this.name = name;
+        this.neighbourhood = neighbourhood;
+        this.type = type;
+        this.address = address;
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.thumbnailURL = thumbnailURL;
+    }
+}
@@ -0,0 +1,31 @@
+package com.toronto.opendata.core.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Outcome of refreshing one dataset from its CKAN resource, or of reloading it
+ */
+@Data
+@Builder
+public class DatasetRefreshDTO {
+    private String name;
+    // UNCHANGED (source not modified, nothing downloaded or applied), REFRESHED or RELOADED
+    private String status;
+    private long version;
+    private String sourceModified;
+    private long recordsRead;
+    private long inserted;
+    private long updated;
+    private long deleted;
+    private long unchanged;
+    private long errorCount;
+    private long elapsedMillis;
+    private LocalDateTime checkedAt;
+    
+    public boolean isChanged() {
+        return inserted + updated + deleted > 0;
+    }
+}
@@ -0,0 +1,29 @@
+package com.toronto.opendata.core.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Load progress of one dataset (live while loading) and its last completed version
+ */
+@Data
+@Builder
+public class DatasetStatusDTO {
+    private String name;
+    private String format;
+    private String source;
+    // NOT_LOADED, LOADING, LOADED or FAILED
+    private String state;
+    private long recordsRead;
+    private long rowsWritten;
+    private long errorCount;
+    private long elapsedMillis;
+    private String lastError;
+    private long version;
+    private String contentHash;
+    private LocalDateTime loadedAt;
+    private String sourceModified;
+    private LocalDateTime checkedAt;
+}
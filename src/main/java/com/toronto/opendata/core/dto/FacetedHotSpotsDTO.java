@@ -0,0 +1,20 @@
+package com.toronto.opendata.core.dto;
+
+import java.util.List;
+import java.util.Map;
+
+import com.toronto.opendata.core.model.CulturalHotSpotModel;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One page of a facet filter, with the number of hotspots per term of each facet
+ * (e.g. {@code facets.interest.Art}), most frequent first
+ */
+@Data
+@Builder
+public class FacetedHotSpotsDTO {
+    private List<CulturalHotSpotModel> hotSpots;
+    private Map<String, Map<String, Integer>> facets;
+}
@@ -1,10 +1,14 @@
 package com.toronto.opendata.core.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.Builder;
 import lombok.Data;
 
 /**
- * DTO for map point data with coordinates
+ * DTO for map point data with coordinates.
+ * Cluster centroids use type "cluster" and carry the number of sites in {@code pointCount}.
+ * Nearest-neighbour results carry their great-circle distance from the query point.
  */
 @Data
 @Builder
@@ -17,4 +21,8 @@ public class MapPointDTO {
     private Double latitude;
     private Double longitude;
     private String imageUrl;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Integer pointCount;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceKm;
 }
@@ -0,0 +1,24 @@
+package com.toronto.opendata.core.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One ranked full-text search result. {@code distanceKm} is set when the search was geo-filtered.
+ */
+@Data
+@Builder
+public class SearchHitDTO {
+    private String id;
+    private String name;
+    private String neighbourhood;
+    private String address;
+    private String type;
+    private Double latitude;
+    private Double longitude;
+    private float score;
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double distanceKm;
+}
@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.locationtech.jts.geom.Point;
 
 import java.time.LocalDateTime;
 
@@ -12,10 +13,12 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-public class CulturalHotSpotEntity {
+public class CulturalHotSpotEntity implements SourceKeyed {
     
+    // Sequence ids (allocated in blocks) let Hibernate batch inserts; IDENTITY forces one INSERT per row
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "cultural_hotspots_seq")
+    @SequenceGenerator(name = "cultural_hotspots_seq", sequenceName = "cultural_hotspots_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "csv_id")
@@ -105,7 +108,7 @@ public class CulturalHotSpotEntity {
     @Column(name = "object_id")
     private String objectId;
     
-    // Geometry stored as JSON text for now (can be upgraded to PostGIS later)
+    // Source geometry JSON, kept as published
     @Column(name = "geometry", columnDefinition = "TEXT")
     private String geometry;
     
@@ -116,12 +119,26 @@ public class CulturalHotSpotEntity {
     @Column(name = "longitude")
     private Double longitude;
     
-    @Column(name = "created_at")
+    // The same coordinates as a WGS84 point, set at ingest; GiST-indexed for database-side map queries
+    @Column(name = "location", columnDefinition = "geometry(Point,4326)")
+    private Point location;
+    
+    // SHA-256 of the source record, compared on refresh to skip unchanged rows
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    // Refreshes merge detached copies; the original creation time must survive them
+    @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
     
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
     
+    @Override
+    public String getSourceKey() {
+        return csvId;
+    }
+    
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -0,0 +1,67 @@
+package com.toronto.opendata.core.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Load history of one dataset: bumped every time the dataset is (re)loaded or a refresh
+ * changes it
+ */
+@Entity
+@Table(name = "dataset_versions")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetVersionEntity {
+    
+    @Id
+    @Column(name = "name")
+    private String name;
+    
+    @Column(name = "version")
+    private long version;
+    
+    @Column(name = "source", length = 500)
+    private String source;
+    
+    // SHA-256 of the source file
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    @Column(name = "record_count")
+    private long recordCount;
+    
+    @Column(name = "row_count")
+    private long rowCount;
+    
+    @Column(name = "error_count")
+    private long errorCount;
+    
+    @Column(name = "duration_millis")
+    private long durationMillis;
+    
+    @Column(name = "loaded_at")
+    private LocalDateTime loadedAt;
+    
+    // CKAN last_modified of the resource this version came from; null for bundled files
+    @Column(name = "source_modified")
+    private String sourceModified;
+    
+    // Rows changed by the last refresh
+    @Column(name = "inserted_count")
+    private long insertedCount;
+    
+    @Column(name = "updated_count")
+    private long updatedCount;
+    
+    @Column(name = "deleted_count")
+    private long deletedCount;
+    
+    // Last time the source was compared, whether or not it had changed
+    @Column(name = "checked_at")
+    private LocalDateTime checkedAt;
+}
@@ -0,0 +1,87 @@
+package com.toronto.opendata.core.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Toronto Public Library branch from the TPL branch general information dataset
+ */
+@Entity
+@Table(name = "library_branches")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LibraryBranchEntity implements SourceKeyed {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "library_branches_seq")
+    @SequenceGenerator(name = "library_branches_seq", sequenceName = "library_branches_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "source_id")
+    private String sourceId;
+    
+    @Column(name = "branch_code")
+    private String branchCode;
+    
+    @Column(name = "branch_name")
+    private String branchName;
+    
+    @Column(name = "physical_branch")
+    private Boolean physicalBranch;
+    
+    @Column(name = "address")
+    private String address;
+    
+    @Column(name = "postal_code")
+    private String postalCode;
+    
+    @Column(name = "website", length = 500)
+    private String website;
+    
+    @Column(name = "telephone")
+    private String telephone;
+    
+    @Column(name = "square_footage")
+    private Integer squareFootage;
+    
+    @Column(name = "public_parking")
+    private String publicParking;
+    
+    @Column(name = "workstations")
+    private Integer workstations;
+    
+    @Column(name = "service_tier")
+    private String serviceTier;
+    
+    @Column(name = "neighbourhood_number")
+    private Integer neighbourhoodNumber;
+    
+    @Column(name = "neighbourhood")
+    private String neighbourhood;
+    
+    @Column(name = "ward_number")
+    private Integer wardNumber;
+    
+    @Column(name = "ward_name")
+    private String wardName;
+    
+    @Column(name = "present_site_year")
+    private Integer presentSiteYear;
+    
+    @Column(name = "latitude")
+    private Double latitude;
+    
+    @Column(name = "longitude")
+    private Double longitude;
+    
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    @Override
+    public String getSourceKey() {
+        return sourceId;
+    }
+}
@@ -0,0 +1,34 @@
+package com.toronto.opendata.core.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One of the 158 City of Toronto neighbourhoods (neighbourhood profiles metadata sheet)
+ */
+@Entity
+@Table(name = "neighbourhoods")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NeighbourhoodEntity {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "neighbourhoods_seq")
+    @SequenceGenerator(name = "neighbourhoods_seq", sequenceName = "neighbourhoods_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "neighbourhood_number")
+    private Integer number;
+    
+    @Column(name = "name")
+    private String name;
+    
+    @Column(name = "census_profile_name", length = 500)
+    private String censusProfileName;
+    
+    @Column(name = "designation")
+    private String designation;
+}
@@ -0,0 +1,41 @@
+package com.toronto.opendata.core.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One census characteristic of one neighbourhood (2021 neighbourhood profiles).
+ * The source sheet is wide, a column per neighbourhood; it is stored long, a row per cell.
+ */
+@Entity
+@Table(name = "neighbourhood_profiles", indexes = {
+    @Index(name = "idx_neighbourhood_profiles_neighbourhood", columnList = "neighbourhood")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NeighbourhoodProfileEntity {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "neighbourhood_profiles_seq")
+    @SequenceGenerator(name = "neighbourhood_profiles_seq", sequenceName = "neighbourhood_profiles_seq", allocationSize = 500)
+    private Long id;
+    
+    @Column(name = "neighbourhood")
+    private String neighbourhood;
+    
+    // Sheet row of the characteristic; keeps the census ordering
+    @Column(name = "sheet_row")
+    private Integer rowNumber;
+    
+    @Column(name = "characteristic", length = 500)
+    private String characteristic;
+    
+    @Column(name = "characteristic_value")
+    private String value;
+    
+    @Column(name = "numeric_value")
+    private Double numericValue;
+}
@@ -0,0 +1,78 @@
+package com.toronto.opendata.core.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Place of worship from the "Places of Worship - 4326" dataset
+ */
+@Entity
+@Table(name = "places_of_worship")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlaceOfWorshipEntity implements SourceKeyed {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "places_of_worship_seq")
+    @SequenceGenerator(name = "places_of_worship_seq", sequenceName = "places_of_worship_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "csv_id")
+    private String csvId;
+    
+    @Column(name = "address_point_id")
+    private String addressPointId;
+    
+    @Column(name = "address")
+    private String address;
+    
+    @Column(name = "postal_code")
+    private String postalCode;
+    
+    @Column(name = "municipality")
+    private String municipality;
+    
+    @Column(name = "place_name")
+    private String placeName;
+    
+    @Column(name = "organization")
+    private String organization;
+    
+    @Column(name = "faith")
+    private String faith;
+    
+    @Column(name = "denomination")
+    private String denomination;
+    
+    @Column(name = "faith_grouping")
+    private String grouping;
+    
+    @Column(name = "phone")
+    private String phone;
+    
+    @Column(name = "website", length = 500)
+    private String website;
+    
+    @Column(name = "ward_name")
+    private String wardName;
+    
+    @Column(name = "neighbourhood")
+    private String neighbourhood;
+    
+    @Column(name = "latitude")
+    private Double latitude;
+    
+    @Column(name = "longitude")
+    private Double longitude;
+    
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+    
+    @Override
+    public String getSourceKey() {
+        return csvId;
+    }
+}
@@ -0,0 +1,24 @@
+package com.toronto.opendata.core.entity;
+
+/**
+ * Entity that keeps the key of the source record it was mapped from and a hash of that
+ * record, so a new copy of the source can be diffed against the table row by row
+ */
+public interface SourceKeyed {
+    
+    Long getId();
+    
+    void setId(Long id);
+    
+    /**
+     * Key of the source record, stable across source versions (e.g. the CKAN {@code _id})
+     */
+    String getSourceKey();
+    
+    /**
+     * SHA-256 of the source record's values, hex encoded
+     */
+    String getContentHash();
+    
+    void setContentHash(String contentHash);
+}
@@ -0,0 +1,11 @@
+package com.toronto.opendata.core.event;
+
+/**
+ * Published whenever the cultural hotspot table is reloaded or cleared.
+ * Listeners holding derived in-memory structures (indexes, snapshots, caches)
+ * rebuild or drop them when they receive it.
+ *
+ * @param version monotonically increasing data version, bumped on every change
+ */
+public record HotSpotDataChangedEvent(long version) {
+}
@@ -0,0 +1,48 @@
+package com.toronto.opendata.core.health;
+
+import java.time.LocalDateTime;
+
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Readiness of the hotspot data: OUT_OF_SERVICE until the caches, map and search indexes
+ * have been warmed up, UP from then on. Part of the readiness group, so a pod only takes
+ * traffic once it can answer from memory.
+ */
+@Component
+public class HotSpotDataHealthIndicator implements HealthIndicator {
+
+    private volatile Warm warm;
+
+    /**
+     * Record that the hotspot data is being served
+     *
+     * @param source where it was warmed up from ("snapshot" or "database")
+     */
+    public void markServing(String source, int rows, long warmUpMillis) {
+        warm = new Warm(source, rows, warmUpMillis, LocalDateTime.now());
+    }
+
+    public boolean isServing() {
+        return warm != null;
+    }
+
+    @Override
+    public Health health() {
+        Warm current = warm;
+        if (current == null) {
+            return Health.outOfService().withDetail("reason", "warming up").build();
+        }
+        return Health.up()
+                .withDetail("source", current.source())
+                .withDetail("rows", current.rows())
+                .withDetail("warmUpMillis", current.warmUpMillis())
+                .withDetail("servingSince", current.since().toString())
+                .build();
+    }
+
+    private record Warm(String source, int rows, long warmUpMillis, LocalDateTime since) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.toronto.opendata.core.model;
 
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.Data;
 import java.util.List;
 
@@ -26,5 +27,12 @@ public class CkanPackageResponse {
         private String url;
         private boolean datastore_active;
         private String format;
+        // Change markers: last_modified moves when the file is replaced, hash is often empty
+        @JsonProperty("last_modified")
+        private String lastModified;
+        @JsonProperty("metadata_modified")
+        private String metadataModified;
+        private String hash;
+        private Long size;
     }
 }
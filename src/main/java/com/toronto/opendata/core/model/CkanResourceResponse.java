@@ -0,0 +1,14 @@
+package com.toronto.opendata.core.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * Response of the CKAN resource_show action
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class CkanResourceResponse {
+    private boolean success;
+    private CkanPackageResponse.CkanResource result;
+}
@@ -0,0 +1,260 @@
+package com.toronto.opendata.core.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.stream.IntStream;
+
+import com.toronto.opendata.core.util.DictionaryColumn;
+import com.toronto.opendata.core.util.FacetIndex;
+import com.toronto.opendata.core.util.PackedStrings;
+
+/**
+ * Immutable in-memory form of every hotspot of one data version, held as columns rather than
+ * one object graph per row: location coordinates in {@code double[]}s, the low-cardinality
+ * fields (type, neighbourhood, interests, location type) dictionary-encoded, and free text in
+ * packed UTF-8 blobs. Rows are in database id order.
+ *
+ * Filters scan the primitive columns and return row numbers; {@link CulturalHotSpotModel}s are
+ * only created when a row is read through {@link #toModel} or one of the list views. Interests,
+ * neighbourhood and tour type are also indexed as {@link Facet}s, a row bitmap per term.
+ */
+public final class HotSpotColumnStore {
+
+    private final PackedStrings ids;
+    private final PackedStrings names;
+    private final PackedStrings addresses;
+    private final PackedStrings descriptions;
+    private final PackedStrings pictureUrls;
+    private final DictionaryColumn types;
+    private final DictionaryColumn neighbourhoods;
+    private final DictionaryColumn interests;
+    private final DictionaryColumn locationTypes;
+    // Coordinates of each row's location; NaN when it has none
+    private final double[] latitudes;
+    private final double[] longitudes;
+    // Rows with an id, sorted by id, for lookups
+    private final int[] idOrder;
+    private final int[] located;
+    private final Map<Facet, FacetIndex> facets = new EnumMap<>(Facet.class);
+
+    /**
+     * Fields that can be filtered and counted by term. Interests and tour type hold
+     * comma-separated lists ("Art, History", "Walk, Bike"); each item is a term.
+     */
+    public enum Facet {
+        INTEREST("interest"),
+        NEIGHBOURHOOD("neighbourhood"),
+        TOUR_TYPE("tourType");
+
+        private final String parameter;
+
+        Facet(String parameter) {
+            this.parameter = parameter;
+        }
+
+        /**
+         * Name of the facet in requests and responses
+         */
+        public String parameter() {
+            return parameter;
+        }
+    }
+
+    private HotSpotColumnStore(HotSpotColumns columns) {
+        this.ids = PackedStrings.of(columns.ids());
+        this.names = PackedStrings.of(columns.names());
+        this.addresses = PackedStrings.of(columns.addresses());
+        this.descriptions = PackedStrings.of(columns.descriptions());
+        this.pictureUrls = PackedStrings.of(columns.pictureUrls());
+        this.types = DictionaryColumn.of(columns.types());
+        this.neighbourhoods = DictionaryColumn.of(columns.neighbourhoods());
+        this.interests = DictionaryColumn.of(columns.interests());
+        this.locationTypes = DictionaryColumn.of(columns.locationTypes());
+        this.latitudes = columns.locationYs().clone();
+        this.longitudes = columns.locationXs().clone();
+
+        String[] idValues = columns.ids();
+        this.idOrder = IntStream.range(0, idValues.length)
+                .filter(row -> idValues[row] != null)
+                .boxed()
+                .sorted((a, b) -> Arrays.compareUnsigned(
+                        idValues[a].getBytes(StandardCharsets.UTF_8), idValues[b].getBytes(StandardCharsets.UTF_8)))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        this.located = IntStream.range(0, columns.size())
+                .filter(row -> columns.locationTypes()[row] != null)
+                .toArray();
+        facets.put(Facet.INTEREST, FacetIndex.of(interests, ","));
+        facets.put(Facet.NEIGHBOURHOOD, FacetIndex.of(neighbourhoods));
+        facets.put(Facet.TOUR_TYPE, FacetIndex.of(types, ","));
+    }
+
+    public static HotSpotColumnStore of(HotSpotColumns columns) {
+        return new HotSpotColumnStore(columns);
+    }
+
+    public int size() {
+        return latitudes.length;
+    }
+
+    public String id(int row) {
+        return ids.get(row);
+    }
+
+    public String name(int row) {
+        return names.get(row);
+    }
+
+    public String address(int row) {
+        return addresses.get(row);
+    }
+
+    public String type(int row) {
+        return types.get(row);
+    }
+
+    public String description(int row) {
+        return descriptions.get(row);
+    }
+
+    public String pictureUrl(int row) {
+        return pictureUrls.get(row);
+    }
+
+    public String neighbourhood(int row) {
+        return neighbourhoods.get(row);
+    }
+
+    public String interests(int row) {
+        return interests.get(row);
+    }
+
+    public boolean isLocated(int row) {
+        return locationTypes.code(row) >= 0;
+    }
+
+    public double latitude(int row) {
+        return latitudes[row];
+    }
+
+    public double longitude(int row) {
+        return longitudes[row];
+    }
+
+    /**
+     * Rows that have a location, ascending (a copy)
+     */
+    public int[] locatedRows() {
+        return located.clone();
+    }
+
+    /**
+     * Row of the hotspot with the given source id, or -1
+     */
+    public int rowOf(String id) {
+        if (id == null) {
+            return -1;
+        }
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = idOrder.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = ids.compare(idOrder[mid], key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return idOrder[mid];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Rows in exactly this neighbourhood, ascending
+     */
+    public int[] rowsInNeighbourhood(String neighbourhood) {
+        return neighbourhoods.rowsEqualTo(neighbourhood);
+    }
+
+    /**
+     * Rows whose interests contain {@code fragment}, ignoring case, ascending
+     */
+    public int[] rowsWithInterest(String fragment) {
+        String needle = fragment.toLowerCase(Locale.ROOT);
+        return interests.rowsMatching(value -> value.toLowerCase(Locale.ROOT).contains(needle));
+    }
+
+    /**
+     * Term index of one facet
+     */
+    public FacetIndex facet(Facet facet) {
+        return facets.get(facet);
+    }
+
+    /**
+     * Materialize one row as a read model
+     */
+    public CulturalHotSpotModel toModel(int row) {
+        CulturalHotSpotModel model = new CulturalHotSpotModel();
+        model.setId(ids.get(row));
+        model.setName(names.get(row));
+        model.setAddress(addresses.get(row));
+        model.setType(types.get(row));
+        model.setDescription(descriptions.get(row));
+        model.setPictureURL(pictureUrls.get(row));
+        if (isLocated(row)) {
+            model.setLocation(new MultiPointModel(longitudes[row], latitudes[row], locationTypes.get(row)));
+        }
+        return model;
+    }
+
+    /**
+     * Every row as a read-only list that materializes models as they are read
+     */
+    public List<CulturalHotSpotModel> models() {
+        return new ModelView(null);
+    }
+
+    /**
+     * The given rows as a read-only list that materializes models as they are read
+     */
+    public List<CulturalHotSpotModel> models(int[] rows) {
+        return new ModelView(rows);
+    }
+
+    private final class ModelView extends AbstractList<CulturalHotSpotModel> implements RandomAccess {
+
+        // null means every row
+        private final int[] rows;
+
+        ModelView(int[] rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public CulturalHotSpotModel get(int index) {
+            return toModel(rows == null ? checkIndex(index) : rows[index]);
+        }
+
+        @Override
+        public int size() {
+            return rows == null ? HotSpotColumnStore.this.size() : rows.length;
+        }
+
+        private int checkIndex(int index) {
+            if (index < 0 || index >= size()) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return index;
+        }
+    }
+}
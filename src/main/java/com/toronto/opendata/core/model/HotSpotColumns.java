@@ -0,0 +1,94 @@
+package com.toronto.opendata.core.model;
+
+import java.util.Arrays;
+
+import com.toronto.opendata.core.entity.CulturalHotSpotEntity;
+
+/**
+ * Every hotspot as parallel column arrays, in database id order: the fields behind the read
+ * models plus the ones the search index needs. Missing coordinates are NaN; a null location
+ * type means the hotspot has no location. This is the plain transfer form (snapshot file,
+ * index builds); {@link HotSpotColumnStore} is the compact one kept in memory.
+ */
+public record HotSpotColumns(String[] ids, String[] names, String[] addresses, String[] types,
+                             String[] descriptions, String[] pictureUrls, String[] interests,
+                             String[] neighbourhoods, double[] latitudes, double[] longitudes,
+                             String[] locationTypes, double[] locationXs, double[] locationYs) {
+
+    public int size() {
+        return ids.length;
+    }
+
+    public static Builder builder(int expectedSize) {
+        return new Builder(expectedSize);
+    }
+
+    /**
+     * Appends rows, growing the arrays as needed
+     */
+    public static final class Builder {
+
+        private int size;
+        private String[] ids, names, addresses, types, descriptions, pictureUrls, interests,
+                neighbourhoods, locationTypes;
+        private double[] latitudes, longitudes, locationXs, locationYs;
+
+        private Builder(int expectedSize) {
+            allocate(Math.max(expectedSize, 16));
+        }
+
+        /**
+         * @param location the hotspot's resolved location, or null
+         */
+        public Builder add(CulturalHotSpotEntity entity, MultiPointModel location) {
+            if (size == ids.length) {
+                allocate(size * 2);
+            }
+            ids[size] = entity.getCsvId();
+            names[size] = entity.getSiteName();
+            addresses[size] = entity.getAddress();
+            types[size] = entity.getTourType();
+            descriptions[size] = entity.getDescription();
+            pictureUrls[size] = entity.getImageUrl();
+            interests[size] = entity.getInterests();
+            neighbourhoods[size] = entity.getNeighbourhood();
+            latitudes[size] = entity.getLatitude() != null ? entity.getLatitude() : Double.NaN;
+            longitudes[size] = entity.getLongitude() != null ? entity.getLongitude() : Double.NaN;
+            locationTypes[size] = location != null ? location.getType() : null;
+            locationXs[size] = location != null ? location.getX() : Double.NaN;
+            locationYs[size] = location != null ? location.getY() : Double.NaN;
+            size++;
+            return this;
+        }
+
+        public HotSpotColumns build() {
+            allocate(size);
+            return new HotSpotColumns(ids, names, addresses, types, descriptions, pictureUrls, interests,
+                    neighbourhoods, latitudes, longitudes, locationTypes, locationXs, locationYs);
+        }
+
+        private void allocate(int capacity) {
+            ids = resize(ids, capacity);
+            names = resize(names, capacity);
+            addresses = resize(addresses, capacity);
+            types = resize(types, capacity);
+            descriptions = resize(descriptions, capacity);
+            pictureUrls = resize(pictureUrls, capacity);
+            interests = resize(interests, capacity);
+            neighbourhoods = resize(neighbourhoods, capacity);
+            locationTypes = resize(locationTypes, capacity);
+            latitudes = resize(latitudes, capacity);
+            longitudes = resize(longitudes, capacity);
+            locationXs = resize(locationXs, capacity);
+            locationYs = resize(locationYs, capacity);
+        }
+
+        private static String[] resize(String[] array, int capacity) {
+            return array == null ? new String[capacity] : Arrays.copyOf(array, capacity);
+        }
+
+        private static double[] resize(double[] array, int capacity) {
+            return array == null ? new double[capacity] : Arrays.copyOf(array, capacity);
+        }
+    }
+}
@@ -1,16 +1,23 @@
 package com.toronto.opendata.core.repository;
 
+import com.toronto.opendata.core.dto.CulturalHotSpotSummaryDTO;
 import com.toronto.opendata.core.entity.CulturalHotSpotEntity;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
-public interface CulturalHotSpotRepository extends JpaRepository<CulturalHotSpotEntity, Long> {
+public interface CulturalHotSpotRepository extends JpaRepository<CulturalHotSpotEntity, Long>, CulturalHotSpotRepositoryCustom {
     
     /**
      * Find hotspot by CSV ID
@@ -54,4 +61,29 @@ public interface CulturalHotSpotRepository extends JpaRepository<CulturalHotSpot
      * Find all hotspots in a specific loop
      */
     List<CulturalHotSpotEntity> findByLoop(String loop);
+    
+    /**
+     * Keyset page of list-view summaries ordered by id, starting after the given id
+     */
+    @Query("SELECT new com.toronto.opendata.core.dto.CulturalHotSpotSummaryDTO(" +
+           "h.id, h.csvId, h.siteName, h.neighbourhood, h.tourType, h.address, h.latitude, h.longitude, h.thumbUrl) " +
+           "FROM CulturalHotSpotEntity h WHERE h.id > :afterId ORDER BY h.id")
+    List<CulturalHotSpotSummaryDTO> findSummariesAfter(@Param("afterId") Long afterId, Limit limit);
+    
+    /**
+     * Stream every hotspot in id order through a server-side cursor.
+     * Must be consumed inside a transaction and closed afterwards.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT h FROM CulturalHotSpotEntity h ORDER BY h.id")
+    Stream<CulturalHotSpotEntity> streamAllByOrderById();
+    
+    /**
+     * Key and content hash of every row, for diffing against a refreshed source
+     */
+    @Query("SELECT h.id AS id, h.csvId AS sourceKey, h.contentHash AS contentHash FROM CulturalHotSpotEntity h")
+    List<SourceRowVersion> findSourceRowVersions();
 }
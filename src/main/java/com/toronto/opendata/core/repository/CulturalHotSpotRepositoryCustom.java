@@ -0,0 +1,35 @@
+package com.toronto.opendata.core.repository;
+
+import java.util.List;
+
+import com.toronto.opendata.core.entity.CulturalHotSpotEntity;
+
+import jakarta.persistence.Tuple;
+
+/**
+ * Queries that need to be assembled at runtime, or written per database
+ */
+public interface CulturalHotSpotRepositoryCustom {
+    
+    /**
+     * Keyset page of hotspots selecting only the given entity attributes.
+     * Each tuple element is aliased with its attribute name; the primary key is always
+     * included under the alias "id".
+     */
+    List<Tuple> findProjectedPage(Long afterId, int limit, List<String> attributes);
+    
+    /**
+     * Hotspots whose location falls inside the bounding box, found through the spatial index
+     */
+    List<CulturalHotSpotEntity> findLocatedInBounds(double minLat, double maxLat, double minLon, double maxLon);
+    
+    /**
+     * Hotspots whose location is within a great-circle distance of a point
+     */
+    List<CulturalHotSpotEntity> findLocatedWithinRadius(double lat, double lon, double radiusKm);
+    
+    /**
+     * The k located hotspots closest to a point, nearest first
+     */
+    List<CulturalHotSpotEntity> findNearestLocated(double lat, double lon, int k);
+}
@@ -0,0 +1,183 @@
+package com.toronto.opendata.core.repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+import org.hibernate.Session;
+
+import com.toronto.opendata.core.entity.CulturalHotSpotEntity;
+import com.toronto.opendata.core.util.GeoUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+
+/**
+ * Spatial queries run natively: on PostgreSQL against PostGIS (GiST index on {@code location}
+ * and on {@code location::geography}), elsewhere against H2's built-in GEOMETRY type, whose
+ * spatial index serves {@code &&}. H2 has no geography type or KNN operator, so there the
+ * radius is refined with the same haversine distance the in-memory index uses, and the nearest
+ * hotspots are found by widening such a radius until it holds k of them.
+ */
+public class CulturalHotSpotRepositoryCustomImpl implements CulturalHotSpotRepositoryCustom {
+    
+    private static final String POSTGIS_IN_BOUNDS =
+            "SELECT * FROM cultural_hotspots WHERE location && ST_MakeEnvelope(:minLon, :minLat, :maxLon, :maxLat, 4326)";
+    
+    // Spherical distance (use_spheroid = false), matching GeoUtils.haversineKm
+    private static final String POSTGIS_WITHIN_RADIUS =
+            "SELECT * FROM cultural_hotspots WHERE ST_DWithin(CAST(location AS geography), " +
+            "CAST(ST_SetSRID(ST_MakePoint(:lon, :lat), 4326) AS geography), :meters, false)";
+    
+    private static final String POSTGIS_NEAREST =
+            "SELECT * FROM cultural_hotspots WHERE location IS NOT NULL " +
+            "ORDER BY CAST(location AS geography) <-> CAST(ST_SetSRID(ST_MakePoint(:lon, :lat), 4326) AS geography) " +
+            "LIMIT :k";
+    
+    private static final String H2_IN_BOUNDS =
+            "SELECT * FROM cultural_hotspots WHERE location && CAST(:envelope AS GEOMETRY)";
+    
+    // A circle crossing the antimeridian is boxed on both sides of it
+    private static final String H2_IN_TWO_BOUNDS =
+            "SELECT * FROM cultural_hotspots WHERE location && CAST(:envelope AS GEOMETRY) " +
+            "OR location && CAST(:otherEnvelope AS GEOMETRY)";
+    
+    private static final String H2_LOCATED =
+            "SELECT * FROM cultural_hotspots WHERE location IS NOT NULL";
+    
+    // First radius tried for nearest queries on H2; widened fourfold until it holds k hotspots
+    private static final double NEAREST_START_RADIUS_KM = 1.0;
+    // No two points are farther apart than half the circumference
+    private static final double MAX_DISTANCE_KM = Math.PI * GeoUtils.EARTH_RADIUS_KM;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    // Whether the connected database is PostgreSQL, from the JDBC metadata; null until first asked
+    private volatile Boolean postgis;
+    
+    @Override
+    public List<Tuple> findProjectedPage(Long afterId, int limit, List<String> attributes) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<CulturalHotSpotEntity> root = query.from(CulturalHotSpotEntity.class);
+        
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get("id").alias("id"));
+        for (String attribute : attributes) {
+            if (!attribute.equals("id")) {
+                selections.add(root.get(attribute).alias(attribute));
+            }
+        }
+        
+        query.multiselect(selections)
+                .orderBy(cb.asc(root.get("id")));
+        if (afterId != null) {
+            query.where(cb.greaterThan(root.get("id"), afterId));
+        }
+        
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+    
+    @Override
+    public List<CulturalHotSpotEntity> findLocatedInBounds(double minLat, double maxLat, double minLon, double maxLon) {
+        if (isPostgis()) {
+            return query(POSTGIS_IN_BOUNDS, Map.of("minLat", minLat, "maxLat", maxLat, "minLon", minLon, "maxLon", maxLon));
+        }
+        return query(H2_IN_BOUNDS, Map.of("envelope", ewkt(minLat, maxLat, minLon, maxLon)));
+    }
+    
+    @Override
+    public List<CulturalHotSpotEntity> findLocatedWithinRadius(double lat, double lon, double radiusKm) {
+        if (isPostgis()) {
+            return query(POSTGIS_WITHIN_RADIUS, Map.of("lat", lat, "lon", lon, "meters", radiusKm * 1000));
+        }
+        List<CulturalHotSpotEntity> candidates = queryEnclosing(lat, lon, radiusKm);
+        candidates.removeIf(entity -> distanceKm(entity, lat, lon) > radiusKm);
+        return candidates;
+    }
+    
+    /**
+     * Located hotspots in the bounding box(es) of a circle: one box, or one on each side of the
+     * antimeridian, or a full band of longitudes when the circle reaches a pole
+     */
+    private List<CulturalHotSpotEntity> queryEnclosing(double lat, double lon, double radiusKm) {
+        double latDelta = radiusKm / GeoUtils.KM_PER_DEGREE_LAT;
+        double minLat = Math.max(lat - latDelta, -90);
+        double maxLat = Math.min(lat + latDelta, 90);
+        double lonDelta = GeoUtils.lonDeltaDegrees(lat, radiusKm);
+        if (lonDelta >= 180) {
+            return query(H2_IN_BOUNDS, Map.of("envelope", ewkt(minLat, maxLat, -180, 180)));
+        }
+        double minLon = lon - lonDelta;
+        double maxLon = lon + lonDelta;
+        if (minLon < -180) {
+            return query(H2_IN_TWO_BOUNDS, Map.of("envelope", ewkt(minLat, maxLat, minLon + 360, 180),
+                    "otherEnvelope", ewkt(minLat, maxLat, -180, maxLon)));
+        }
+        if (maxLon > 180) {
+            return query(H2_IN_TWO_BOUNDS, Map.of("envelope", ewkt(minLat, maxLat, minLon, 180),
+                    "otherEnvelope", ewkt(minLat, maxLat, -180, maxLon - 360)));
+        }
+        return query(H2_IN_BOUNDS, Map.of("envelope", ewkt(minLat, maxLat, minLon, maxLon)));
+    }
+    
+    @Override
+    public List<CulturalHotSpotEntity> findNearestLocated(double lat, double lon, int k) {
+        if (isPostgis()) {
+            return query(POSTGIS_NEAREST, Map.of("lat", lat, "lon", lon, "k", k));
+        }
+        // Once a circle holds k hotspots, everything outside it is farther than all of them, so
+        // the k nearest inside are the k nearest overall (ties broken by id, as in memory)
+        for (double radiusKm = NEAREST_START_RADIUS_KM; ; radiusKm *= 4) {
+            boolean everywhere = radiusKm >= MAX_DISTANCE_KM;
+            List<CulturalHotSpotEntity> candidates = everywhere
+                    ? query(H2_LOCATED, Map.of())
+                    : findLocatedWithinRadius(lat, lon, radiusKm);
+            if (candidates.size() >= k || everywhere) {
+                candidates.sort(Comparator.<CulturalHotSpotEntity>comparingDouble(entity -> distanceKm(entity, lat, lon))
+                        .thenComparing(CulturalHotSpotEntity::getId));
+                return new ArrayList<>(candidates.subList(0, Math.min(k, candidates.size())));
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    private List<CulturalHotSpotEntity> query(String sql, Map<String, Object> parameters) {
+        Query query = entityManager.createNativeQuery(sql, CulturalHotSpotEntity.class);
+        parameters.forEach(query::setParameter);
+        return new ArrayList<>(query.getResultList());
+    }
+    
+    /**
+     * Decided by the database actually connected, not the configured dialect, which may be
+     * set to PostgreSQL for a local H2
+     */
+    private boolean isPostgis() {
+        Boolean current = postgis;
+        if (current == null) {
+            String product = entityManager.unwrap(Session.class)
+                    .doReturningWork(connection -> connection.getMetaData().getDatabaseProductName());
+            current = "PostgreSQL".equalsIgnoreCase(product);
+            postgis = current;
+        }
+        return current;
+    }
+    
+    private static String ewkt(double minLat, double maxLat, double minLon, double maxLon) {
+        return "SRID=" + GeoUtils.SRID_WGS84 + ";" + GeoUtils.envelope(minLat, maxLat, minLon, maxLon).toText();
+    }
+    
+    private static double distanceKm(CulturalHotSpotEntity entity, double lat, double lon) {
+        return GeoUtils.haversineKm(lat, lon, entity.getLocation().getY(), entity.getLocation().getX());
+    }
+}
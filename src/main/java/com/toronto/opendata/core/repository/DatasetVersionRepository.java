@@ -0,0 +1,9 @@
+package com.toronto.opendata.core.repository;
+
+import com.toronto.opendata.core.entity.DatasetVersionEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface DatasetVersionRepository extends JpaRepository<DatasetVersionEntity, String> {
+}
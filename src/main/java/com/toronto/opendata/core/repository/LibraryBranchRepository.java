@@ -0,0 +1,18 @@
+package com.toronto.opendata.core.repository;
+
+import com.toronto.opendata.core.entity.LibraryBranchEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LibraryBranchRepository extends JpaRepository<LibraryBranchEntity, Long> {
+    
+    /**
+     * Key and content hash of every row, for diffing against a refreshed source
+     */
+    @Query("SELECT b.id AS id, b.sourceId AS sourceKey, b.contentHash AS contentHash FROM LibraryBranchEntity b")
+    List<SourceRowVersion> findSourceRowVersions();
+}
@@ -0,0 +1,9 @@
+package com.toronto.opendata.core.repository;
+
+import com.toronto.opendata.core.entity.NeighbourhoodEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface NeighbourhoodRepository extends JpaRepository<NeighbourhoodEntity, Long> {
+}
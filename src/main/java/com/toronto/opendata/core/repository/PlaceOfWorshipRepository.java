@@ -0,0 +1,18 @@
+package com.toronto.opendata.core.repository;
+
+import com.toronto.opendata.core.entity.PlaceOfWorshipEntity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PlaceOfWorshipRepository extends JpaRepository<PlaceOfWorshipEntity, Long> {
+    
+    /**
+     * Key and content hash of every row, for diffing against a refreshed source
+     */
+    @Query("SELECT p.id AS id, p.csvId AS sourceKey, p.contentHash AS contentHash FROM PlaceOfWorshipEntity p")
+    List<SourceRowVersion> findSourceRowVersions();
+}
@@ -0,0 +1,13 @@
+package com.toronto.opendata.core.repository;
+
+/**
+ * Key and content hash of a stored row, all a refresh needs to diff a table against its source
+ */
+public interface SourceRowVersion {
+    
+    Long getId();
+    
+    String getSourceKey();
+    
+    String getContentHash();
+}
@@ -1,27 +1,39 @@
 package com.toronto.opendata.core.service;
 
-import java.io.BufferedWriter;
 import java.io.FileReader;
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
+import java.io.OutputStream;
 import java.io.Reader;
 import java.io.UncheckedIOException;
-import java.io.Writer;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Stream;
 import java.util.stream.StreamSupport;
+import java.util.zip.GZIPOutputStream;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import com.toronto.opendata.core.util.MappedCsvReader;
+import com.toronto.opendata.core.util.ParallelCsvReader;
+import com.toronto.opendata.core.util.ThresholdFlushingOutputStream;
+
 @Service
 public class CSVReaderService {
     
@@ -30,6 +42,14 @@ public class CSVReaderService {
             .setSkipHeaderRecord(true)
             .build();
     
+    @Value("${opendata.csv.stream.flush-bytes:65536}")
+    private int flushBytes = 64 * 1024;
+    
+    @Value("${opendata.csv.stream.flush-interval:1s}")
+    private Duration flushInterval = Duration.ofSeconds(1);
+    
+    private final Map<Path, CsvExport> exports = new ConcurrentHashMap<>();
+    
     /**
      * Reads a CSV file and returns its contents as a list of records
      * @param filePath Path to the CSV file (classpath resource path)
@@ -105,25 +125,170 @@ public class CSVReaderService {
     }
     
     /**
-     * Creates a StreamingResponseBody for a CSV file
+     * Visits every record of a large file through a memory-mapped, flyweight row view.
+     * Fields are decoded only when read, so garbage does not grow with the file size.
+     * The row passed to {@code action} is reused and must not be kept.
+     * @param filePath Path to the CSV file
+     * @param action Called once per data record
+     * @return Number of records visited
+     * @throws IOException if file cannot be read
+     */
+    public long forEachRow(String filePath, Consumer<MappedCsvReader.Row> action) throws IOException {
+        try (MappedCsvReader reader = MappedCsvReader.open(Path.of(filePath))) {
+            long count = 0;
+            MappedCsvReader.Row row;
+            while ((row = reader.next()) != null) {
+                action.accept(row);
+                count++;
+            }
+            return count;
+        }
+    }
+    
+    /**
+     * Parses a large file on the common ForkJoin pool: the file is split into byte ranges on
+     * record boundaries (quoted line breaks included), each range is parsed and mapped on its
+     * own thread, and the results are delivered in file order.
+     * @param filePath Path to the CSV file
+     * @param mapper Called concurrently, once per data record; null results are dropped
+     * @param sink Receives the mapped records of each range in file order, on the calling thread
+     * @return Number of records parsed
+     * @throws IOException if file cannot be read
+     */
+    public <T> long forEachChunkParallel(String filePath, Function<MappedCsvReader.Row, T> mapper,
+                                         Consumer<List<T>> sink) throws IOException {
+        return ParallelCsvReader.forEachChunk(Path.of(filePath), ForkJoinPool.commonPool(), mapper, sink);
+    }
+    
+    /**
+     * Size and validator of the {@link #streamCSVToResponse} output for a file, needed to
+     * answer range requests. Computed with one pass over the file and cached until the
+     * file's size or modification time changes.
+     * @param filePath Path to the CSV file
+     * @return Exported length in bytes and a strong entity tag
+     * @throws IOException if file cannot be read
+     */
+    public CsvExport describeCSVExport(String filePath) throws IOException {
+        Path path = Path.of(filePath).toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        
+        CsvExport cached = exports.get(path);
+        if (cached != null && cached.fileSize() == size && cached.fileModified() == modified) {
+            return cached;
+        }
+        
+        long length;
+        try (MappedCsvReader reader = MappedCsvReader.open(path)) {
+            length = reader.rawHeader().length;
+            MappedCsvReader.Row row;
+            while ((row = reader.next()) != null) {
+                length += row.rawLength();
+            }
+        }
+        String etag = "\"" + Long.toHexString(size) + "-" + Long.toHexString(modified) + "-" + Long.toHexString(length) + "\"";
+        CsvExport export = new CsvExport(size, modified, length, etag);
+        exports.put(path, export);
+        return export;
+    }
+    
+    /**
+     * Creates a StreamingResponseBody for a whole CSV file
      * @param filePath Path to the CSV file
      * @return StreamingResponseBody that can be used in a REST controller
      */
     public StreamingResponseBody streamCSVToResponse(String filePath) {
+        return streamCSVToResponse(filePath, 0, Long.MAX_VALUE, false);
+    }
+    
+    /**
+     * Creates a StreamingResponseBody for a byte range of the exported CSV.
+     * The header and records are copied as raw bytes from the mapped file (they are already
+     * RFC 4180, quoting and line endings preserved) and never decoded. Output is
+     * buffered and flushed once {@code opendata.csv.stream.flush-bytes} are pending or
+     * {@code opendata.csv.stream.flush-interval} has passed. Records wholly before the range
+     * are skipped by length alone and reading stops at its end.
+     * @param filePath Path to the CSV file
+     * @param offset First byte of the export to write
+     * @param length Number of bytes to write; Long.MAX_VALUE for the rest of the export
+     * @param gzip Compress the output
+     * @return StreamingResponseBody that can be used in a REST controller
+     */
+    public StreamingResponseBody streamCSVToResponse(String filePath, long offset, long length, boolean gzip) {
+        long end = length == Long.MAX_VALUE ? Long.MAX_VALUE : offset + length;
         return outputStream -> {
-            try (Reader reader = new FileReader(filePath);
-                 CSVParser parser = new CSVParser(reader, CSV_FORMAT);
-                 Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream))) {
+            OutputStream target = gzip ? new GZIPOutputStream(outputStream, flushBytes, true) : outputStream;
+            try (MappedCsvReader reader = MappedCsvReader.open(Path.of(filePath));
+                 RangeOutputStream out = new RangeOutputStream(
+                         new ThresholdFlushingOutputStream(target, flushBytes, flushInterval), offset, end)) {
                 
-                // Write headers
-                writer.write(String.join(",", parser.getHeaderNames()) + "\n");
+                byte[] header = reader.rawHeader();
+                out.write(header);
+                long position = header.length;
                 
-                // Stream each record
-                for (CSVRecord record : parser) {
-                    writer.write(String.join(",", record.values()) + "\n");
-                    writer.flush();
+                MappedCsvReader.Row row;
+                while (position < end && (row = reader.next()) != null) {
+                    int rowLength = row.rawLength();
+                    if (position + rowLength > offset) {
+                        row.writeTo(out);
+                    } else {
+                        out.skip(rowLength);
+                    }
+                    position += rowLength;
                 }
             }
         };
     }
+    
+    /**
+     * Exported length and entity tag of a CSV file, tied to the file's size and modification time
+     */
+    public record CsvExport(long fileSize, long fileModified, long length, String etag) {
+        
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+    }
+    
+    /**
+     * Passes through only the bytes in [start, end) of everything written to it
+     */
+    private static final class RangeOutputStream extends FilterOutputStream {
+        
+        private final long start;
+        private final long end;
+        private long position;
+        
+        RangeOutputStream(OutputStream out, long start, long end) {
+            super(out);
+            this.start = start;
+            this.end = end;
+        }
+        
+        /**
+         * Account for bytes that lie before the range without producing them
+         */
+        void skip(long count) {
+            position += count;
+        }
+        
+        @Override
+        public void write(int b) throws IOException {
+            if (position >= start && position < end) {
+                out.write(b);
+            }
+            position++;
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long from = Math.max(position, start);
+            long to = Math.min(position + len, end);
+            if (from < to) {
+                out.write(b, off + (int) (from - position), (int) (to - from));
+            }
+            position += len;
+        }
+    }
 }
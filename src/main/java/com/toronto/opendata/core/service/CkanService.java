@@ -1,42 +1,123 @@
 package com.toronto.opendata.core.service;
 
+import com.toronto.opendata.core.config.CkanClientProperties;
 import com.toronto.opendata.core.model.CkanPackageResponse;
+import com.toronto.opendata.core.model.CkanResourceResponse;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.core.IntervalFunction;
+import io.github.resilience4j.retry.Retry;
+import io.github.resilience4j.retry.RetryConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.function.Supplier;
+
+/**
+ * Client of the CKAN action API.
+ *
+ * Every call is retried with exponential backoff on transient failures (I/O errors,
+ * timeouts, 5xx and 429) and goes through a circuit breaker, so a failing CKAN is given a
+ * rest and callers fail fast with {@link io.github.resilience4j.circuitbreaker.CallNotPermittedException}
+ * instead of waiting on timeouts. Pooling, timeouts and conditional-GET caching live in the
+ * RestTemplate (see RestTemplateConfig).
+ */
+@Slf4j
 @Service
 public class CkanService {
-    private static final String BASE_URL = "https://ckan0.cf.opendata.inter.prod-toronto.ca";
     private final RestTemplate restTemplate;
+    // /api/3/action/{action}?id={id}, parsed once
+    private final UriComponents actionTemplate;
+    private final Retry retry;
+    private final CircuitBreaker circuitBreaker;
 
-    public CkanService(RestTemplate restTemplate) {
+    public CkanService(RestTemplate restTemplate, CkanClientProperties properties) {
         this.restTemplate = restTemplate;
+        this.actionTemplate = UriComponentsBuilder
+            .fromUriString(properties.getBaseUrl())
+            .path("/api/3/action/{action}")
+            .queryParam("id", "{id}")
+            .encode()
+            .build();
+
+        CkanClientProperties.Retry retrySettings = properties.getRetry();
+        this.retry = Retry.of("ckan", RetryConfig.custom()
+            .maxAttempts(retrySettings.getMaxAttempts())
+            .intervalFunction(IntervalFunction.ofExponentialBackoff(
+                retrySettings.getInitialBackoff(), retrySettings.getMultiplier()))
+            .retryOnException(CkanService::isTransient)
+            .build());
+        this.retry.getEventPublisher().onRetry(event -> log.warn("CKAN call failed ({}), retry {} in {} ms",
+            event.getLastThrowable().getMessage(), event.getNumberOfRetryAttempts(), event.getWaitInterval().toMillis()));
+
+        CkanClientProperties.CircuitBreaker breakerSettings = properties.getCircuitBreaker();
+        this.circuitBreaker = CircuitBreaker.of("ckan", CircuitBreakerConfig.custom()
+            .failureRateThreshold(breakerSettings.getFailureRateThreshold())
+            .slidingWindowSize(breakerSettings.getSlidingWindowSize())
+            .minimumNumberOfCalls(breakerSettings.getMinimumCalls())
+            .waitDurationInOpenState(breakerSettings.getOpenDuration())
+            .recordException(CkanService::isTransient)
+            .build());
+        this.circuitBreaker.getEventPublisher().onStateTransition(event ->
+            log.warn("CKAN circuit breaker {}", event.getStateTransition()));
     }
 
     public CkanPackageResponse getPackageInfo(String packageId) {
-        String url = UriComponentsBuilder
-            .newInstance()
-            .scheme("https")
-            .host(BASE_URL.replace("https://", ""))
-            .path("/api/3/action/package_show")
-            .queryParam("id", packageId)
-            .build()
-            .toUriString();
-
-        return restTemplate.getForObject(url, CkanPackageResponse.class);
+        URI url = actionUrl("package_show", packageId);
+        return call(() -> restTemplate.getForObject(url, CkanPackageResponse.class));
+    }
+
+    public CkanResourceResponse getResourceInfo(String resourceId) {
+        URI url = actionUrl("resource_show", resourceId);
+        return call(() -> restTemplate.getForObject(url, CkanResourceResponse.class));
+    }
+
+    /**
+     * Download a resource file to a temporary file, streaming it to disk; a retried
+     * download starts over. The caller deletes the file.
+     */
+    public Path downloadResource(String url) throws IOException {
+        Path file = Files.createTempFile("ckan-", ".download");
+        try {
+            call(() -> restTemplate.execute(URI.create(url), HttpMethod.GET, null, response -> {
+                Files.copy(response.getBody(), file, StandardCopyOption.REPLACE_EXISTING);
+                return file;
+            }));
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return file;
+    }
+
+    private URI actionUrl(String action, String id) {
+        return actionTemplate.expand(action, id).toUri();
+    }
+
+    private <T> T call(Supplier<T> request) {
+        return Retry.decorateSupplier(retry, CircuitBreaker.decorateSupplier(circuitBreaker, request)).get();
     }
 
-    public CkanPackageResponse getResourceInfo(String resourceId) {
-        String url = UriComponentsBuilder
-            .newInstance()
-            .scheme("https")
-            .host(BASE_URL.replace("https://", ""))
-            .path("/api/3/action/resource_show")
-            .queryParam("id", resourceId)
-            .build()
-            .toUriString();
-
-        return restTemplate.getForObject(url, CkanPackageResponse.class);
+    /**
+     * Failures worth retrying and counting against CKAN; other 4xx are the caller's fault
+     */
+    private static boolean isTransient(Throwable e) {
+        return e instanceof ResourceAccessException
+            || e instanceof HttpServerErrorException
+            || (e instanceof HttpClientErrorException clientError
+                && clientError.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS));
     }
 }
@@ -1,18 +1,58 @@
 package com.toronto.opendata.core.service;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
 
+import com.toronto.opendata.core.dto.ApiResponse;
+import com.toronto.opendata.core.dto.CacheStatsDTO;
+import com.toronto.opendata.core.dto.CulturalHotSpotSummaryDTO;
+import com.toronto.opendata.core.dto.FacetedHotSpotsDTO;
 import com.toronto.opendata.core.entity.CulturalHotSpotEntity;
+import com.toronto.opendata.core.event.HotSpotDataChangedEvent;
 import com.toronto.opendata.core.model.CulturalHotSpotModel;
+import com.toronto.opendata.core.model.HotSpotColumnStore;
+import com.toronto.opendata.core.model.HotSpotColumnStore.Facet;
+import com.toronto.opendata.core.model.HotSpotColumns;
 import com.toronto.opendata.core.model.MultiPointModel;
 import com.toronto.opendata.core.repository.CulturalHotSpotRepository;
+import com.toronto.opendata.core.repository.DatasetVersionRepository;
+import com.toronto.opendata.core.service.dataset.CulturalHotSpotDataset;
+import com.toronto.opendata.core.util.FacetIndex;
+import com.toronto.opendata.core.util.GeometryParser;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -21,54 +61,410 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class CulturalHotSpotService {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    
+    /**
+     * Fields that can be requested with {@code ?fields=}, mapped to entity attributes
+     */
+    private static final Map<String, String> PROJECTABLE_FIELDS = Map.ofEntries(
+            Map.entry("id", "csvId"),
+            Map.entry("name", "siteName"),
+            Map.entry("address", "address"),
+            Map.entry("type", "tourType"),
+            Map.entry("description", "description"),
+            Map.entry("pictureURL", "imageUrl"),
+            Map.entry("thumbnailURL", "thumbUrl"),
+            Map.entry("neighbourhood", "neighbourhood"),
+            Map.entry("interests", "interests"),
+            Map.entry("lat", "latitude"),
+            Map.entry("lon", "longitude"));
+    
     private final CulturalHotSpotRepository repository;
+    private final DatasetVersionRepository versionRepository;
+    private final EntityManager entityManager;
+    
+    @Value("${opendata.cache.maximum-size:10000}")
+    private long cacheMaximumSize = 10_000;
+    
+    @Value("${opendata.cache.ttl:1h}")
+    private Duration cacheTtl = Duration.ofHours(1);
+    
+    /**
+     * Read caches for the current data version. A data change swaps in a fresh generation, so
+     * a load that raced with the change can only ever populate the discarded one.
+     */
+    private final AtomicReference<CacheGeneration> caches = new AtomicReference<>();
+    
+    // Counters of generations already discarded, so reported stats survive reloads
+    private final Map<String, CacheStats> retiredStats = new LinkedHashMap<>();
+    private long invalidationCount;
+    
+    @PostConstruct
+    void initCaches() {
+        caches.set(new CacheGeneration(0, cacheMaximumSize, cacheTtl, null));
+    }
     
     /**
-     * Get all cultural hotspots from database
+     * Get all cultural hotspots, as a read-only view over the current column store that
+     * materializes each model as it is read
      */
     public List<CulturalHotSpotModel> getAllCulturalHotSpots() {
-        log.debug("Fetching all cultural hotspots from database");
-        List<CulturalHotSpotEntity> entities = repository.findAll();
-        return entities.stream()
-                .map(this::entityToModel)
-                .collect(Collectors.toList());
+        return getHotSpotStore().models();
+    }
+    
+    /**
+     * Every hotspot of the current data version in columnar form. Loaded once per data version
+     * and shared; filters and the map snapshot read it without creating per-row objects.
+     */
+    public HotSpotColumnStore getHotSpotStore() {
+        return caches.get().store(this::loadStore);
+    }
+    
+    /**
+     * Read the table, tagged with the data it was read at. Rows and tag are separate queries,
+     * so the read is repeated if a change committed in between.
+     */
+    private TaggedStore loadStore() {
+        log.debug("Loading all cultural hotspots from database");
+        String tag = currentDataTag();
+        while (true) {
+            List<CulturalHotSpotEntity> entities = repository.findAll(Sort.by("id"));
+            HotSpotColumns.Builder columns = HotSpotColumns.builder(entities.size());
+            for (CulturalHotSpotEntity entity : entities) {
+                columns.add(entity, locationOf(entity));
+            }
+            String after = currentDataTag();
+            if (after.equals(tag)) {
+                return new TaggedStore(HotSpotColumnStore.of(columns.build()), tag);
+            }
+            log.debug("Hotspot data changed while loading ({} -> {}), reading again", tag, after);
+            tag = after;
+        }
+    }
+    
+    /**
+     * Identifies the hotspot data in the database: the dataset version and content hash from
+     * {@code dataset_versions} (a reload or a refresh that changed rows bumps the version) and
+     * the row count, which catches deletes that do not. Unlike the data version of the caches
+     * it is the same after a restart and on every instance sharing the database.
+     */
+    public String currentDataTag() {
+        String version = versionRepository.findById(CulturalHotSpotDataset.NAME)
+                .map(v -> v.getVersion() + ":" + v.getContentHash())
+                .orElse("unversioned");
+        return version + ":" + repository.count();
+    }
+    
+    /**
+     * Data version the caches currently belong to
+     */
+    public long getDataVersion() {
+        return caches.get().version;
+    }
+    
+    /**
+     * Seed the column store of data version {@code dataVersion} (e.g. from a snapshot file), so
+     * the first request does not read the table. Ignored if the version has moved on or the
+     * store is already loaded.
+     *
+     * @param dataTag {@link #currentDataTag()} the store was read at
+     */
+    public void warmUp(long dataVersion, String dataTag, HotSpotColumnStore store) {
+        CacheGeneration current = caches.get();
+        if (current.version == dataVersion) {
+            current.load(() -> new TaggedStore(store, dataTag));
+        }
+    }
+    
+    /**
+     * Read every hotspot through a database cursor and hand each one to {@code consumer} as it
+     * is mapped. Entities are detached after use, so memory does not grow with the table.
+     */
+    @Transactional(readOnly = true)
+    public void streamAllCulturalHotSpots(Consumer<CulturalHotSpotModel> consumer) {
+        log.debug("Streaming all cultural hotspots from database");
+        try (Stream<CulturalHotSpotEntity> entities = repository.streamAllByOrderById()) {
+            entities.forEach(entity -> {
+                consumer.accept(entityToModel(entity));
+                entityManager.detach(entity);
+            });
+        }
+    }
+    
+    /**
+     * Get one keyset page of hotspots ordered by database id.
+     * Without {@code fields} the list-view summary projection is returned; otherwise only the
+     * requested columns are selected. One row past the page is read to tell whether another
+     * page follows; the total is counted once per data version, so a page costs one query
+     * however deep it is (and reports no page number).
+     *
+     * @param cursor  cursor returned as {@code nextCursor} by the previous page, null for the first page
+     * @param limit   page size, capped at {@link #MAX_PAGE_SIZE}
+     * @param fields  optional subset of {@link #PROJECTABLE_FIELDS}
+     */
+    public ApiResponse<List<?>> getHotSpotPage(String cursor, int limit, List<String> fields) {
+        long afterId = parseCursor(cursor);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        log.debug("Fetching hotspot page after id {} (size {}, fields {})", afterId, pageSize, fields);
+        
+        List<?> items;
+        Long lastKey;
+        boolean hasMore;
+        if (fields == null || fields.isEmpty()) {
+            List<CulturalHotSpotSummaryDTO> summaries = repository.findSummariesAfter(afterId, Limit.of(pageSize + 1));
+            hasMore = summaries.size() > pageSize;
+            summaries = hasMore ? summaries.subList(0, pageSize) : summaries;
+            items = summaries;
+            lastKey = summaries.isEmpty() ? null : summaries.get(summaries.size() - 1).getKey();
+        } else {
+            List<String> requested = fields.stream().map(String::trim).distinct().collect(Collectors.toList());
+            List<String> attributes = requested.stream()
+                    .map(field -> {
+                        String attribute = PROJECTABLE_FIELDS.get(field);
+                        if (attribute == null) {
+                            throw new IllegalArgumentException("Unknown field '" + field
+                                    + "'. Allowed fields: " + new TreeSet<>(PROJECTABLE_FIELDS.keySet()));
+                        }
+                        return attribute;
+                    })
+                    .collect(Collectors.toList());
+            
+            List<Tuple> rows = repository.findProjectedPage(afterId, pageSize + 1, attributes);
+            hasMore = rows.size() > pageSize;
+            rows = hasMore ? rows.subList(0, pageSize) : rows;
+            items = rows.stream()
+                    .map(row -> {
+                        Map<String, Object> item = new LinkedHashMap<>();
+                        for (int i = 0; i < requested.size(); i++) {
+                            item.put(requested.get(i), row.get(attributes.get(i)));
+                        }
+                        return item;
+                    })
+                    .collect(Collectors.toList());
+            lastKey = rows.isEmpty() ? null : rows.get(rows.size() - 1).get("id", Long.class);
+        }
+        
+        long totalCount = caches.get().rowCount(repository::count);
+        
+        ApiResponse.Metadata metadata = ApiResponse.Metadata.builder()
+                .totalCount((int) totalCount)
+                .pageSize(pageSize)
+                .totalPages((int) ((totalCount + pageSize - 1) / pageSize))
+                .nextCursor(hasMore ? Long.toString(lastKey) : null)
+                .build();
+        return ApiResponse.success(items, metadata);
+    }
+    
+    private static long parseCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            return Long.parseLong(cursor);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor '" + cursor + "'");
+        }
     }
     
     /**
      * Get cultural hotspot by ID
      */
     public CulturalHotSpotModel getCulturalHotSpotById(String id) {
-        log.debug("Fetching cultural hotspot with ID: {}", id);
-        return repository.findByCsvId(id)
-                .map(this::entityToModel)
-                .orElse(null);
+        CacheGeneration generation = caches.get();
+        HotSpotColumnStore store = generation.store(this::loadStore);
+        return generation.byId.get(id, key -> {
+            int row = store.rowOf(key);
+            return row < 0 ? Optional.<CulturalHotSpotModel>empty() : Optional.of(store.toModel(row));
+        }).orElse(null);
     }
     
     /**
      * Get hotspots by neighbourhood
      */
     public List<CulturalHotSpotModel> getHotSpotsByNeighbourhood(String neighbourhood) {
-        log.debug("Fetching hotspots in neighbourhood: {}", neighbourhood);
-        return repository.findByNeighbourhood(neighbourhood).stream()
-                .map(this::entityToModel)
-                .collect(Collectors.toList());
+        CacheGeneration generation = caches.get();
+        HotSpotColumnStore store = generation.store(this::loadStore);
+        return generation.byNeighbourhood.get(neighbourhood,
+                key -> store.models(store.rowsInNeighbourhood(key)));
     }
     
     /**
      * Search hotspots by interest
      */
     public List<CulturalHotSpotModel> searchByInterest(String interest) {
-        log.debug("Searching hotspots by interest: {}", interest);
-        return repository.findByInterestsContainingIgnoreCase(interest).stream()
-                .map(this::entityToModel)
-                .collect(Collectors.toList());
+        CacheGeneration generation = caches.get();
+        HotSpotColumnStore store = generation.store(this::loadStore);
+        return generation.byInterest.get(interest.toLowerCase(),
+                key -> store.models(store.rowsWithInterest(key)));
+    }
+    
+    /**
+     * Filter hotspots by facet terms, answered from the store's term bitmaps. Hotspots must
+     * match every facet given; within a facet, {@code match} {@code any} (default) keeps
+     * hotspots with at least one of its terms and {@code all} those with every one.
+     *
+     * Each facet's counts cover the hotspots matching the other facets, so a selected facet
+     * still lists its alternatives; with {@code all} they are narrowed by its own terms too.
+     *
+     * The cursor is the last row returned, tagged with the data it indexes (see
+     * {@link #currentDataTag()}), so it stays exact whatever the hotspots' source ids. It is
+     * valid on every instance serving the same data, across restarts, and rejected once the
+     * data has changed.
+     *
+     * @param selected  terms per facet; facets without terms do not filter
+     * @param cursor    {@code nextCursor} of the previous page, null for the first page
+     * @param limit     page size, capped at {@link #MAX_PAGE_SIZE}
+     */
+    public ApiResponse<FacetedHotSpotsDTO> filterByFacets(Map<Facet, List<String>> selected, String match,
+                                                          String cursor, int limit) {
+        boolean matchAll = parseMatch(match);
+        int pageSize = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        TaggedStore tagged = caches.get().load(this::loadStore);
+        HotSpotColumnStore store = tagged.store();
+    
+        Map<Facet, RoaringBitmap> filters = new EnumMap<>(Facet.class);
+        selected.forEach((facet, terms) -> {
+            if (terms != null && !terms.isEmpty()) {
+                FacetIndex index = store.facet(facet);
+                filters.put(facet, matchAll ? index.rowsWithAll(terms) : index.rowsWithAny(terms));
+            }
+        });
+        RoaringBitmap matches = RoaringBitmap.bitmapOfRange(0, store.size());
+        filters.values().forEach(matches::and);
+    
+        Map<String, Map<String, Integer>> counts = new LinkedHashMap<>();
+        for (Facet facet : Facet.values()) {
+            RoaringBitmap within = RoaringBitmap.bitmapOfRange(0, store.size());
+            filters.forEach((other, rows) -> {
+                if (other != facet || matchAll) {
+                    within.and(rows);
+                }
+            });
+            counts.put(facet.parameter(), store.facet(facet).counts(within));
+        }
+    
+        int[] page = new int[pageSize];
+        int pageLength = 0;
+        PeekableIntIterator rows = matches.getIntIterator();
+        rows.advanceIfNeeded(parseRowCursor(tagged.tag(), store, cursor));
+        while (pageLength < pageSize && rows.hasNext()) {
+            page[pageLength++] = rows.next();
+        }
+        page = Arrays.copyOf(page, pageLength);
+    
+        int totalCount = matches.getCardinality();
+        String nextCursor = rows.hasNext() ? tagged.tag() + ":" + page[pageLength - 1] : null;
+        int rowsBefore = pageLength == 0 ? totalCount : (int) matches.rank(page[0]) - 1;
+        ApiResponse.Metadata metadata = ApiResponse.Metadata.builder()
+                .totalCount(totalCount)
+                .pageSize(pageSize)
+                .pageNumber(rowsBefore / pageSize + 1)
+                .totalPages((totalCount + pageSize - 1) / pageSize)
+                .nextCursor(nextCursor)
+                .build();
+        FacetedHotSpotsDTO result = FacetedHotSpotsDTO.builder()
+                .hotSpots(store.models(page))
+                .facets(counts)
+                .build();
+        return ApiResponse.success(result, metadata);
+    }
+    
+    private static boolean parseMatch(String match) {
+        if (match == null || match.isBlank() || match.equalsIgnoreCase("any")) {
+            return false;
+        }
+        if (match.equalsIgnoreCase("all")) {
+            return true;
+        }
+        throw new IllegalArgumentException("Invalid match '" + match + "'. Allowed values: any, all");
+    }
+    
+    /**
+     * First store row after the one a facet cursor ({@code tag:row}) names
+     */
+    private static int parseRowCursor(String tag, HotSpotColumnStore store, String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        int separator = cursor.lastIndexOf(':');
+        int row;
+        try {
+            row = Integer.parseInt(cursor.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor '" + cursor + "'");
+        }
+        if (separator < 0 || !cursor.substring(0, separator).equals(tag)) {
+            throw new IllegalArgumentException("Cursor '" + cursor
+                    + "' belongs to data that has since changed; start again from the first page");
+        }
+        if (row < 0 || row >= store.size()) {
+            throw new IllegalArgumentException("Invalid cursor '" + cursor + "'");
+        }
+        return row + 1;
+    }
+    
+    /**
+     * Drop every cached result once a data change has been committed. The new column store is
+     * read on this thread first and published with the new generation, so requests keep being
+     * answered from the old data meanwhile instead of queueing behind the load. Runs before
+     * other listeners (the map snapshot rebuild reads through this cache).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onHotSpotDataChanged(HotSpotDataChangedEvent event) {
+        if (caches.get().version >= event.version()) {
+            return;
+        }
+        TaggedStore store;
+        try {
+            store = loadStore();
+        } catch (RuntimeException e) {
+            // Still drop the stale data; the first request loads the store instead
+            log.warn("Could not load hotspots for data version {}, loading on first use", event.version(), e);
+            store = null;
+        }
+        CacheGeneration fresh = new CacheGeneration(event.version(), cacheMaximumSize, cacheTtl, store);
+        CacheGeneration previous = caches.getAndUpdate(current ->
+                current.version < event.version() ? fresh : current);
+        if (previous.version < event.version()) {
+            synchronized (retiredStats) {
+                previous.stats().forEach((name, stats) -> retiredStats.merge(name, stats, CacheStats::plus));
+                invalidationCount++;
+            }
+            log.debug("Hotspot caches invalidated (data version {})", event.version());
+        }
+    }
+    
+    /**
+     * Hit/miss/eviction counters of the read caches, accumulated over all data versions
+     */
+    public List<CacheStatsDTO> getCacheStats() {
+        CacheGeneration current = caches.get();
+        List<CacheStatsDTO> result = new ArrayList<>();
+        synchronized (retiredStats) {
+            current.stats().forEach((name, stats) -> {
+                CacheStats total = stats.plus(retiredStats.getOrDefault(name, CacheStats.empty()));
+                result.add(CacheStatsDTO.builder()
+                        .name(name)
+                        .size(current.size(name))
+                        .hitCount(total.hitCount())
+                        .missCount(total.missCount())
+                        .hitRate(total.hitRate())
+                        .loadCount(total.loadCount())
+                        .evictionCount(total.evictionCount())
+                        .invalidationCount(invalidationCount)
+                        .dataVersion(current.version)
+                        .build());
+            });
+        }
+        return result;
     }
     
     /**
      * Convert entity to model
      */
-    private CulturalHotSpotModel entityToModel(CulturalHotSpotEntity entity) {
+    CulturalHotSpotModel entityToModel(CulturalHotSpotEntity entity) {
         CulturalHotSpotModel model = new CulturalHotSpotModel();
         model.setId(entity.getCsvId());
         model.setName(entity.getSiteName());
@@ -76,44 +472,129 @@ public class CulturalHotSpotService {
         model.setType(entity.getTourType());
         model.setDescription(entity.getDescription());
         model.setPictureURL(entity.getImageUrl());
-        
-        // Parse geometry from JSON or use lat/lon directly
+        model.setLocation(locationOf(entity));
+        return model;
+    }
+    
+    /**
+     * Location of a hotspot: its lat/lon, else its parsed geometry, else null
+     */
+    static MultiPointModel locationOf(CulturalHotSpotEntity entity) {
         if (entity.getLatitude() != null && entity.getLongitude() != null) {
-            model.setLocation(MultiPointModel.builder()
+            return MultiPointModel.builder()
                     .x(entity.getLongitude())
                     .y(entity.getLatitude())
                     .type("MultiPoint")
-                    .build());
-        } else if (entity.getGeometry() != null) {
-            model.setLocation(parseGeometry(entity.getGeometry()));
+                    .build();
         }
-        
-        return model;
+        if (entity.getGeometry() != null) {
+            return GeometryParser.parseGeometrySafe(entity.getGeometry());
+        }
+        return null;
     }
     
     /**
-     * Parse geometry JSON (fallback for records without parsed lat/lon)
+     * A column store and the {@link #currentDataTag()} it was read at
      */
-    private MultiPointModel parseGeometry(String geometryJson) {
-        try {
-            JsonNode root = objectMapper.readTree(geometryJson);
-            String type = root.has("type") ? root.get("type").asText() : "Unknown";
-            JsonNode coordinates = root.get("coordinates");
-            
-            if (coordinates != null && coordinates.isArray() && coordinates.size() > 0) {
-                JsonNode firstPoint = coordinates.get(0);
-                if (firstPoint.isArray() && firstPoint.size() >= 2) {
-                    return MultiPointModel.builder()
-                            .x(firstPoint.get(0).asDouble())
-                            .y(firstPoint.get(1).asDouble())
-                            .type(type)
-                            .build();
+    private record TaggedStore(HotSpotColumnStore store, String tag) {
+    }
+    
+    /**
+     * The caches belonging to one data version
+     */
+    private static final class CacheGeneration {
+        
+        private final long version;
+        private final Cache<String, Optional<CulturalHotSpotModel>> byId;
+        private final Cache<String, List<CulturalHotSpotModel>> byNeighbourhood;
+        private final Cache<String, List<CulturalHotSpotModel>> byInterest;
+        private volatile TaggedStore loaded;
+        // Row count of this version; -1 until first counted
+        private volatile long rowCount = -1;
+        // A lock rather than a monitor: the load reads the database, and virtual threads
+        // waiting on it must not pin their carrier threads
+        private final ReentrantLock storeLock = new ReentrantLock();
+        private final LongAdder allHits = new LongAdder();
+        private final LongAdder allMisses = new LongAdder();
+        
+        /**
+         * @param loaded the store of this version if already read, else null to load it on first use
+         */
+        CacheGeneration(long version, long maximumSize, Duration ttl, TaggedStore loaded) {
+            this.version = version;
+            this.loaded = loaded;
+            if (loaded != null) {
+                allMisses.increment();
+            }
+            this.byId = newCache(maximumSize, ttl);
+            this.byNeighbourhood = newCache(maximumSize, ttl);
+            this.byInterest = newCache(maximumSize, ttl);
+        }
+        
+        private static <V> Cache<String, V> newCache(long maximumSize, Duration ttl) {
+            return Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+        }
+        
+        HotSpotColumnStore store(Supplier<TaggedStore> loader) {
+            return load(loader).store();
+        }
+        
+        /**
+         * The store is never evicted within a generation; it only changes with the data
+         */
+        TaggedStore load(Supplier<TaggedStore> loader) {
+            TaggedStore current = loaded;
+            if (current == null) {
+                storeLock.lock();
+                try {
+                    current = loaded;
+                    if (current == null) {
+                        current = loader.get();
+                        loaded = current;
+                        allMisses.increment();
+                        return current;
+                    }
+                } finally {
+                    storeLock.unlock();
                 }
             }
-        } catch (Exception e) {
-            log.warn("Error parsing geometry: {}", e.getMessage());
+            allHits.increment();
+            return current;
+        }
+        
+        /**
+         * Counted at most a few times (racing first callers), then served from memory
+         */
+        long rowCount(LongSupplier counter) {
+            long count = rowCount;
+            if (count < 0) {
+                count = counter.getAsLong();
+                rowCount = count;
+            }
+            return count;
         }
         
-        return MultiPointModel.builder().x(0.0).y(0.0).type("Unknown").build();
+        long size(String name) {
+            return switch (name) {
+                case "hotspotsById" -> byId.estimatedSize();
+                case "hotspotsByNeighbourhood" -> byNeighbourhood.estimatedSize();
+                case "hotspotsByInterest" -> byInterest.estimatedSize();
+                default -> loaded == null ? 0 : 1;
+            };
+        }
+        
+        Map<String, CacheStats> stats() {
+            Map<String, CacheStats> stats = new LinkedHashMap<>();
+            long misses = allMisses.sum();
+            stats.put("allHotspots", CacheStats.of(allHits.sum(), misses, misses, 0, 0, 0, 0));
+            stats.put("hotspotsById", byId.stats());
+            stats.put("hotspotsByNeighbourhood", byNeighbourhood.stats());
+            stats.put("hotspotsByInterest", byInterest.stats());
+            return stats;
+        }
     }
 }
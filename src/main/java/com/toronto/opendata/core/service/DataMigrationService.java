@@ -1,178 +1,168 @@
 package com.toronto.opendata.core.service;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.toronto.opendata.core.entity.CulturalHotSpotEntity;
+import com.toronto.opendata.core.dto.DatasetRefreshDTO;
+import com.toronto.opendata.core.event.HotSpotDataChangedEvent;
 import com.toronto.opendata.core.repository.CulturalHotSpotRepository;
-import lombok.RequiredArgsConstructor;
+import com.toronto.opendata.core.service.dataset.CulturalHotSpotDataset;
+import com.toronto.opendata.core.service.dataset.DatasetDefinition;
+import com.toronto.opendata.core.service.dataset.DatasetIngestionService;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVRecord;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class DataMigrationService {
     
     private final CulturalHotSpotRepository repository;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DatasetIngestionService ingestionService;
+    private final CulturalHotSpotDataset hotSpotDataset;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transaction;
+    private final HotSpotSnapshotService snapshotService;
+    private final Executor executor;
+    private final AtomicLong dataVersion = new AtomicLong();
     
-    private static final String CSV_FILE_PATH = "data/points-of-interest-05-11-2025.csv";
+    /**
+     * Wait before retrying a failed hotspot warm-up; doubled after every failure up to
+     * {@code opendata.warmup.max-retry-backoff}
+     */
+    @Value("${opendata.warmup.retry-backoff:5s}")
+    private Duration retryBackoff = Duration.ofSeconds(5);
+    
+    @Value("${opendata.warmup.max-retry-backoff:5m}")
+    private Duration maxRetryBackoff = Duration.ofMinutes(5);
+    
+    public DataMigrationService(CulturalHotSpotRepository repository, DatasetIngestionService ingestionService,
+                                CulturalHotSpotDataset hotSpotDataset, ApplicationEventPublisher eventPublisher,
+                                PlatformTransactionManager transactionManager, HotSpotSnapshotService snapshotService,
+                                @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor) {
+        this.repository = repository;
+        this.ingestionService = ingestionService;
+        this.hotSpotDataset = hotSpotDataset;
+        this.eventPublisher = eventPublisher;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.snapshotService = snapshotService;
+        this.executor = executor;
+    }
     
     /**
-     * Automatically migrate CSV data to PostgreSQL on application startup
-     * Only runs if database is empty
+     * Start up in the background, so the application accepts requests (and reports not
+     * ready, see HotSpotDataHealthIndicator) while data is loaded. The hotspot data comes
+     * first: from the snapshot file when it is current, otherwise loaded if need be and
+     * warmed up from the database. The other datasets are loaded after that.
+     *
+     * A failed warm-up would leave the application not ready for good, so it is retried with
+     * backoff (after the other datasets have been loaded) until it succeeds.
      */
     @EventListener(ApplicationReadyEvent.class)
-    @Transactional
-    public void migrateDataOnStartup() {
+    public void startUp() {
+        executor.execute(() -> {
+            boolean warm = warmUpHotSpots();
+            migrateDataOnStartup();
+            Duration backoff = retryBackoff;
+            while (!warm) {
+                log.warn("Hotspot data is not warmed up; retrying in {}", backoff);
+                try {
+                    Thread.sleep(backoff.toMillis());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                Duration doubled = backoff.multipliedBy(2);
+                backoff = doubled.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : doubled;
+                warm = warmUpHotSpots();
+            }
+        });
+    }
+    
+    /**
+     * Warm up from the snapshot file, or else (loading the hotspots if the table is empty)
+     * from the database
+     *
+     * @return false if both failed
+     */
+    private boolean warmUpHotSpots() {
         try {
-            long count = repository.count();
-            if (count == 0) {
-                log.info("Database is empty. Starting automatic CSV migration...");
-                migrateCsvToDatabase();
-            } else {
-                log.info("Database already contains {} records. Skipping migration.", count);
+            if (snapshotService.warmUpFromFile()) {
+                return true;
             }
         } catch (Exception e) {
-            log.error("Error during startup migration check", e);
+            log.warn("Error warming up hotspot data from the snapshot, falling back to the database", e);
+        }
+        migrateIfEmpty(hotSpotDataset);
+        try {
+            snapshotService.warmUpFromDatabase();
+            return true;
+        } catch (Exception e) {
+            log.error("Error warming up hotspot data", e);
+            return false;
         }
     }
     
     /**
-     * Migrate all CSV data to PostgreSQL database
+     * Load every registered dataset whose table is empty. Each loads in its own transaction,
+     * so one failing does not keep the others out.
      */
-    @Transactional
-    public void migrateCsvToDatabase() {
+    public void migrateDataOnStartup() {
+        for (DatasetDefinition<?> dataset : ingestionService.getDefinitions()) {
+            migrateIfEmpty(dataset);
+        }
+    }
+    
+    private void migrateIfEmpty(DatasetDefinition<?> dataset) {
         try {
-            log.info("Starting CSV to PostgreSQL migration...");
-            
-            ClassPathResource resource = new ClassPathResource(CSV_FILE_PATH);
-            BufferedReader reader = new BufferedReader(
-                new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)
-            );
-            
-            CSVParser csvParser = CSVFormat.DEFAULT
-                .builder()
-                .setHeader()
-                .setSkipHeaderRecord(true)
-                .build()
-                .parse(reader);
-            
-            int recordCount = 0;
-            int successCount = 0;
-            int errorCount = 0;
-            
-            for (CSVRecord record : csvParser) {
-                recordCount++;
-                try {
-                    CulturalHotSpotEntity entity = mapCsvRecordToEntity(record);
-                    repository.save(entity);
-                    successCount++;
-                    
-                    if (successCount % 50 == 0) {
-                        log.info("Migrated {} records...", successCount);
-                    }
-                } catch (Exception e) {
-                    errorCount++;
-                    log.error("Error migrating record {}: {}", recordCount, e.getMessage());
-                }
+            long count = dataset.repository().count();
+            if (count > 0) {
+                log.info("Dataset {} already contains {} records. Skipping migration.", dataset.name(), count);
+                return;
+            }
+            log.info("Dataset {} is empty. Starting automatic migration...", dataset.name());
+            if (dataset == hotSpotDataset) {
+                transaction.executeWithoutResult(status -> migrateCsvToDatabase());
+            } else {
+                transaction.executeWithoutResult(status -> ingestionService.load(dataset));
             }
-            
-            log.info("Migration completed! Total: {}, Success: {}, Errors: {}", 
-                     recordCount, successCount, errorCount);
-            
-            csvParser.close();
-            reader.close();
-            
         } catch (Exception e) {
-            log.error("Fatal error during CSV migration", e);
-            throw new RuntimeException("CSV migration failed", e);
+            log.error("Error during startup migration of dataset {}", dataset.name(), e);
         }
     }
     
     /**
-     * Map a CSV record to a database entity
+     * Migrate the cultural hotspot CSV to the database and notify listeners holding derived data
      */
-    private CulturalHotSpotEntity mapCsvRecordToEntity(CSVRecord record) throws Exception {
-        CulturalHotSpotEntity entity = new CulturalHotSpotEntity();
-        
-        entity.setCsvId(getField(record, "_id"));
-        entity.setLoopsGuide(getField(record, "LoopsGuide"));
-        entity.setLoop(getField(record, "Loop"));
-        entity.setTourNum(getField(record, "TourNum"));
-        entity.setOrderNum(getField(record, "OrderNum"));
-        entity.setLoopTourName(getField(record, "LoopTourName"));
-        entity.setLoopTourUrl(getField(record, "LoopTourURL"));
-        entity.setTourLabel(getField(record, "TourLabel"));
-        entity.setSiteName(getField(record, "SiteName"));
-        entity.setNeighbourhood(getField(record, "Neighbourhood"));
-        entity.setTourType(getField(record, "TourType"));
-        entity.setDuration(getField(record, "Duration"));
-        entity.setEntryType(getField(record, "EntryType"));
-        entity.setInterests(getField(record, "Interests"));
-        entity.setDirectionsTransit(getField(record, "DirectionsTransit"));
-        entity.setDirectionsCar(getField(record, "DirectionsCar"));
-        entity.setDescription(getField(record, "Description"));
-        entity.setAddress(getField(record, "Address"));
-        entity.setExternalLink(getField(record, "ExternalLink"));
-        entity.setImageCredit(getField(record, "ImageCredit"));
-        entity.setImageCreditExternalLink(getField(record, "ImageCreditExternalLink"));
-        entity.setImageAltText(getField(record, "ImageAltText"));
-        entity.setImageUrl(getField(record, "ImageURL"));
-        entity.setThumbUrl(getField(record, "ThumbURL"));
-        entity.setImageOrientation(getField(record, "ImageOrientation"));
-        entity.setTest1(getField(record, "test1"));
-        entity.setTest2(getField(record, "test2"));
-        entity.setTest3(getField(record, "test3"));
-        entity.setObjectId(getField(record, "ObjectId"));
-        
-        // Parse geometry
-        String geometryJson = getField(record, "geometry");
-        entity.setGeometry(geometryJson);
-        
-        // Extract coordinates from geometry JSON
-        if (geometryJson != null && !geometryJson.equals("None")) {
-            try {
-                JsonNode geometryNode = objectMapper.readTree(geometryJson);
-                JsonNode coordinates = geometryNode.get("coordinates");
-                if (coordinates != null && coordinates.isArray() && coordinates.size() > 0) {
-                    JsonNode firstPoint = coordinates.get(0);
-                    if (firstPoint.isArray() && firstPoint.size() >= 2) {
-                        entity.setLongitude(firstPoint.get(0).asDouble());
-                        entity.setLatitude(firstPoint.get(1).asDouble());
-                    }
-                }
-            } catch (Exception e) {
-                log.warn("Could not parse geometry for record {}: {}", entity.getCsvId(), e.getMessage());
-            }
-        }
-        
-        return entity;
+    @Transactional
+    public void migrateCsvToDatabase() {
+        ingestionService.load(hotSpotDataset);
+        publishDataChanged();
     }
     
     /**
-     * Safely get a field from CSV record, returning null for "None" values
+     * Rebuild a dataset from its bundled source without downtime: the bulk delete and
+     * re-insert share one transaction, so readers switch from the old rows to the new ones
+     * at the commit, and in-memory snapshots are swapped once they are rebuilt
      */
-    private String getField(CSVRecord record, String fieldName) {
-        try {
-            String value = record.get(fieldName);
-            return (value == null || value.trim().isEmpty() || value.equalsIgnoreCase("None")) 
-                ? null 
-                : value.trim();
-        } catch (Exception e) {
-            return null;
+    @Transactional
+    public DatasetRefreshDTO reloadDataset(String name) {
+        DatasetDefinition<?> dataset = ingestionService.getDefinition(name);
+        log.info("Reloading dataset {}...", name);
+        DatasetRefreshDTO result = ingestionService.reload(dataset);
+        if (dataset == hotSpotDataset) {
+            publishDataChanged();
         }
+        return result;
     }
     
     /**
@@ -181,7 +171,17 @@ public class DataMigrationService {
     @Transactional
     public void clearDatabase() {
         log.info("Clearing all data from database...");
-        repository.deleteAll();
+        // One bulk DELETE instead of loading and removing every entity
+        repository.deleteAllInBatch();
         log.info("Database cleared successfully");
+        publishDataChanged();
+    }
+    
+    /**
+     * Notify listeners holding derived data; they act once the surrounding transaction
+     * commits, or at once outside one (e.g. after an incremental refresh)
+     */
+    public void publishDataChanged() {
+        eventPublisher.publishEvent(new HotSpotDataChangedEvent(dataVersion.incrementAndGet()));
     }
 }
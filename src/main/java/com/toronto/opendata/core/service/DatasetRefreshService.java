@@ -0,0 +1,184 @@
+package com.toronto.opendata.core.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.toronto.opendata.core.config.DatasetRefreshProperties;
+import com.toronto.opendata.core.dto.DatasetRefreshDTO;
+import com.toronto.opendata.core.entity.DatasetVersionEntity;
+import com.toronto.opendata.core.model.CkanPackageResponse;
+import com.toronto.opendata.core.model.CkanResourceResponse;
+import com.toronto.opendata.core.repository.DatasetVersionRepository;
+import com.toronto.opendata.core.service.dataset.CulturalHotSpotDataset;
+import com.toronto.opendata.core.service.dataset.DatasetIngestionService;
+import com.toronto.opendata.core.service.dataset.RefreshableDataset;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps datasets in step with their CKAN resources without reloading them.
+ *
+ * Each refresh asks CKAN for the resource metadata first and stops there when its
+ * last_modified matches the stored version. Otherwise the file is downloaded and handed to
+ * {@link DatasetIngestionService#refresh}, which skips it if its hash is unchanged and
+ * applies only the changed rows if not. Listeners of the hotspot data are notified only
+ * when rows actually changed.
+ */
+@Slf4j
+@Service
+public class DatasetRefreshService {
+    
+    private final CkanService ckanService;
+    private final DatasetIngestionService ingestionService;
+    private final DatasetVersionRepository versionRepository;
+    private final DataMigrationService dataMigrationService;
+    private final DatasetRefreshProperties properties;
+    private final Executor executor;
+    // Refreshes and reloads run one at a time. A lock rather than a monitor, so a virtual thread
+    // waiting on CKAN or the database meanwhile does not pin its carrier thread
+    private final ReentrantLock lock = new ReentrantLock();
+    
+    public DatasetRefreshService(CkanService ckanService, DatasetIngestionService ingestionService,
+                                 DatasetVersionRepository versionRepository, DataMigrationService dataMigrationService,
+                                 DatasetRefreshProperties properties,
+                                 @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor) {
+        this.ckanService = ckanService;
+        this.ingestionService = ingestionService;
+        this.versionRepository = versionRepository;
+        this.dataMigrationService = dataMigrationService;
+        this.properties = properties;
+        this.executor = executor;
+    }
+    
+    /**
+     * Refresh every dataset with a configured source, when enabled; one failing does not
+     * stop the others
+     */
+    @Scheduled(initialDelayString = "${opendata.refresh.initial-delay:10m}",
+               fixedDelayString = "${opendata.refresh.interval:6h}")
+    public void refreshAll() {
+        if (!properties.isEnabled()) {
+            return;
+        }
+        for (String name : properties.getSources().keySet()) {
+            try {
+                refresh(name);
+            } catch (Exception e) {
+                log.error("Scheduled refresh of dataset {} failed", name, e);
+            }
+        }
+    }
+    
+    /**
+     * {@link #refresh} on the application task executor, so a slow CKAN or a long diff does
+     * not hold a request thread
+     */
+    public CompletableFuture<DatasetRefreshDTO> refreshAsync(String name) {
+        return CompletableFuture.supplyAsync(() -> refresh(name), executor);
+    }
+    
+    /**
+     * {@link DataMigrationService#reloadDataset Full reload} of a dataset on the application
+     * task executor; reloads and refreshes run one at a time
+     */
+    public CompletableFuture<DatasetRefreshDTO> reloadAsync(String name) {
+        ingestionService.getDefinition(name); // unknown names fail here, as a 400
+        return CompletableFuture.supplyAsync(() -> {
+            lock.lock();
+            try {
+                return dataMigrationService.reloadDataset(name);
+            } finally {
+                lock.unlock();
+            }
+        }, executor);
+    }
+    
+    /**
+     * Refresh one dataset from its CKAN resource. Refreshes run one at a time.
+     *
+     * @throws IllegalArgumentException if the dataset is unknown, not refreshable or has no source
+     */
+    public DatasetRefreshDTO refresh(String name) {
+        lock.lock();
+        try {
+            return refreshLocked(name);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    private DatasetRefreshDTO refreshLocked(String name) {
+        RefreshableDataset<?> dataset = ingestionService.getRefreshable(name);
+        DatasetRefreshProperties.CkanSource source = properties.getSources().get(name);
+        if (source == null) {
+            throw new IllegalArgumentException("No CKAN source configured for dataset " + name);
+        }
+        
+        CkanPackageResponse.CkanResource resource = findResource(dataset, source);
+        String sourceModified = resource.getLastModified() != null
+                ? resource.getLastModified() : resource.getMetadataModified();
+        Optional<DatasetVersionEntity> current = versionRepository.findById(name);
+        if (sourceModified != null && current.isPresent() && sourceModified.equals(current.get().getSourceModified())) {
+            log.info("Dataset {} not modified in CKAN since {}", name, sourceModified);
+            return ingestionService.markChecked(name, sourceModified);
+        }
+        
+        Path file;
+        try {
+            file = ckanService.downloadResource(resource.getUrl());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Downloading " + resource.getUrl() + " failed", e);
+        }
+        try {
+            DatasetRefreshDTO result = ingestionService.refresh(dataset, file, resource.getUrl(), sourceModified);
+            if (result.isChanged() && CulturalHotSpotDataset.NAME.equals(name)) {
+                dataMigrationService.publishDataChanged();
+            }
+            return result;
+        } finally {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Could not delete downloaded file {}", file);
+            }
+        }
+    }
+    
+    private CkanPackageResponse.CkanResource findResource(RefreshableDataset<?> dataset,
+                                                          DatasetRefreshProperties.CkanSource source) {
+        if (source.getResourceId() != null) {
+            CkanResourceResponse response = ckanService.getResourceInfo(source.getResourceId());
+            if (response == null || !response.isSuccess() || response.getResult() == null) {
+                throw new IllegalStateException("CKAN resource " + source.getResourceId() + " not found");
+            }
+            return response.getResult();
+        }
+        if (source.getPackageId() == null) {
+            throw new IllegalArgumentException("CKAN source of dataset " + dataset.name() + " needs a package or resource id");
+        }
+        CkanPackageResponse response = ckanService.getPackageInfo(source.getPackageId());
+        if (response == null || !response.isSuccess() || response.getResult() == null
+                || response.getResult().getResources() == null) {
+            throw new IllegalStateException("CKAN package " + source.getPackageId() + " not found");
+        }
+        return response.getResult().getResources().stream()
+                .filter(resource -> source.getResourceName() != null
+                        ? source.getResourceName().equals(resource.getName())
+                        : dataset.format().name().equalsIgnoreCase(resource.getFormat()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("CKAN package " + source.getPackageId()
+                        + " has no resource " + (source.getResourceName() != null
+                        ? source.getResourceName() : "in " + dataset.format())));
+    }
+}
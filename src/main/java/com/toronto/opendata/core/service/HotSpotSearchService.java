@@ -0,0 +1,194 @@
+package com.toronto.opendata.core.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.toronto.opendata.core.dto.SearchHitDTO;
+import com.toronto.opendata.core.event.HotSpotDataChangedEvent;
+import com.toronto.opendata.core.model.HotSpotColumnStore;
+import com.toronto.opendata.core.util.GeoUtils;
+import com.toronto.opendata.core.util.TextIndex;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Ranked full-text search over hotspot name, interests, neighbourhood and description,
+ * served from an in-memory {@link TextIndex} instead of {@code LIKE '%x%'} scans. The index is
+ * built from the shared {@link HotSpotColumnStore}, whose rows are its documents, so it never
+ * reads the table itself.
+ */
+@Slf4j
+@Service
+public class HotSpotSearchService {
+    
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+    
+    // Field weights, in the order fields are passed to TextIndex.Builder#add
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float INTERESTS_WEIGHT = 2.0f;
+    private static final float NEIGHBOURHOOD_WEIGHT = 1.5f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+    
+    private final CulturalHotSpotService culturalHotSpotService;
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary searchResults;
+    
+    // Index plus the store it was built from, which renders hits; rebuilt when the data changes
+    private volatile SearchSnapshot snapshot;
+    // Data version of the last change the index was rebuilt for, guarded by buildLock
+    private long dataVersion;
+    // Serializes builds; a lock rather than a monitor, so virtual threads waiting on a build
+    // (which may load the store from the database) do not pin their carrier threads
+    private final ReentrantLock buildLock = new ReentrantLock();
+    
+    public HotSpotSearchService(CulturalHotSpotService culturalHotSpotService, MeterRegistry meterRegistry) {
+        this.culturalHotSpotService = culturalHotSpotService;
+        this.meterRegistry = meterRegistry;
+        this.searchResults = DistributionSummary.builder("opendata.search.results")
+                .description("Hits returned by full-text searches")
+                .register(meterRegistry);
+    }
+    
+    /**
+     * Rank hotspots against a free-text query, optionally restricted to a radius around a point.
+     *
+     * @param prefix treat the last query term as a prefix (search-as-you-type)
+     */
+    public List<SearchHitDTO> search(String query, boolean prefix,
+                                     Double lat, Double lon, Double radiusKm, int limit) {
+        boolean geo = lat != null || lon != null || radiusKm != null;
+        if (geo && (lat == null || lon == null || radiusKm == null)) {
+            throw new IllegalArgumentException("lat, lon and radiusKm must be given together");
+        }
+        
+        SearchSnapshot current = currentSnapshot();
+        IntPredicate filter = geo ? current.withinRadius(lat, lon, radiusKm) : null;
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+        
+        HotSpotColumnStore store = current.store();
+        List<SearchHitDTO> results = new ArrayList<>();
+        for (TextIndex.Hit hit : current.index().search(query, prefix, filter, pageSize)) {
+            int doc = hit.doc();
+            double docLat = store.latitude(doc);
+            double docLon = store.longitude(doc);
+            results.add(SearchHitDTO.builder()
+                    .id(store.id(doc))
+                    .name(store.name(doc))
+                    .neighbourhood(store.neighbourhood(doc))
+                    .address(store.address(doc))
+                    .type(store.type(doc))
+                    .latitude(Double.isNaN(docLat) ? null : docLat)
+                    .longitude(Double.isNaN(docLon) ? null : docLon)
+                    .score(hit.score())
+                    .distanceKm(geo ? GeoUtils.haversineKm(lat, lon, docLat, docLon) : null)
+                    .build());
+        }
+        searchResults.record(results.size());
+        return results;
+    }
+    
+    /**
+     * Indexed words completing the last word of {@code prefix}, most common first
+     */
+    public List<String> suggest(String prefix, int limit) {
+        return currentSnapshot().index().completions(prefix, Math.max(1, Math.min(limit, MAX_LIMIT)));
+    }
+    
+    /**
+     * Rebuild the index once a data change has been committed, from the store the hotspot
+     * service has already loaded for it (its listener runs first). Events older than the
+     * version already built are skipped. Holds the lock so that queries arriving before the
+     * first index exists wait for this build instead of starting their own.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotSpotDataChanged(HotSpotDataChangedEvent event) {
+        log.debug("Hotspot data changed (version {}), rebuilding search index", event.version());
+        buildLock.lock();
+        try {
+            if (event.version() < dataVersion) {
+                return;
+            }
+            dataVersion = event.version();
+            snapshot = buildSnapshot();
+        } finally {
+            buildLock.unlock();
+        }
+    }
+    
+    /**
+     * Build the index now rather than on the first query. Does nothing if an index exists
+     * already, so it never replaces one built after a data change.
+     */
+    public void warmUp() {
+        currentSnapshot();
+    }
+    
+    private SearchSnapshot currentSnapshot() {
+        SearchSnapshot current = snapshot;
+        if (current == null) {
+            buildLock.lock();
+            try {
+                current = snapshot;
+                if (current == null) {
+                    current = buildSnapshot();
+                    snapshot = current;
+                }
+            } finally {
+                buildLock.unlock();
+            }
+        }
+        return current;
+    }
+    
+    /**
+     * Index every row of the current column store, one document per row
+     */
+    private SearchSnapshot buildSnapshot() {
+        HotSpotColumnStore store = culturalHotSpotService.getHotSpotStore();
+        long startNanos = System.nanoTime();
+        TextIndex.Builder builder = TextIndex.builder(NAME_WEIGHT, INTERESTS_WEIGHT, NEIGHBOURHOOD_WEIGHT, DESCRIPTION_WEIGHT);
+        for (int row = 0; row < store.size(); row++) {
+            builder.add(store.name(row), store.interests(row), store.neighbourhood(row), store.description(row));
+        }
+        TextIndex index = builder.build();
+        meterRegistry.timer("opendata.index.build", "index", "search").record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        log.info("Built search index over {} hotspots ({} terms) in {} ms", index.documentCount(),
+                index.termCount(), (System.nanoTime() - startNanos) / 1_000_000);
+        return new SearchSnapshot(index, store);
+    }
+    
+    /**
+     * Immutable index and the store whose rows are its documents (TextIndex document id = row)
+     */
+    private record SearchSnapshot(TextIndex index, HotSpotColumnStore store) {
+        
+        /**
+         * Documents within {@code radiusKm}, checked against the bounding box before Haversine
+         */
+        IntPredicate withinRadius(double lat, double lon, double radiusKm) {
+            double latDelta = radiusKm / GeoUtils.KM_PER_DEGREE_LAT;
+            double lonDelta = GeoUtils.lonDeltaDegrees(lat, radiusKm);
+            return doc -> {
+                double docLat = store.latitude(doc);
+                double docLon = store.longitude(doc);
+                if (Double.isNaN(docLat) || Math.abs(docLat - lat) > latDelta) {
+                    return false;
+                }
+                double dLon = Math.abs(docLon - lon);
+                if (Math.min(dLon, 360 - dLon) > lonDelta) {
+                    return false;
+                }
+                return GeoUtils.haversineKm(lat, lon, docLat, docLon) <= radiusKm;
+            };
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.toronto.opendata.core.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.toronto.opendata.core.entity.CulturalHotSpotEntity;
+import com.toronto.opendata.core.event.HotSpotDataChangedEvent;
+import com.toronto.opendata.core.health.HotSpotDataHealthIndicator;
+import com.toronto.opendata.core.model.HotSpotColumnStore;
+import com.toronto.opendata.core.model.HotSpotColumns;
+import com.toronto.opendata.core.repository.CulturalHotSpotRepository;
+import com.toronto.opendata.core.util.ColumnarFile;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Warms up the in-memory hotspot data (read cache, map and search indexes) and keeps a
+ * columnar snapshot of it on local disk.
+ *
+ * The snapshot ({@code opendata.snapshot.file}) is rewritten after every data change and
+ * tagged with the dataset version, content hash and row count it was read at. On startup a
+ * snapshot whose tag still matches the database is decoded column by column, in bulk, and
+ * fed to the indexes directly, which skips querying the table and mapping entities; a missing
+ * or stale one falls back to a single pass over the table. The decoded columns are held in
+ * memory like any other warm-up; the file is not read lazily.
+ */
+@Slf4j
+@Service
+public class HotSpotSnapshotService {
+    
+    private static final String IDS = "id";
+    private static final String NAMES = "name";
+    private static final String ADDRESSES = "address";
+    private static final String TYPES = "type";
+    private static final String DESCRIPTIONS = "description";
+    private static final String PICTURE_URLS = "pictureURL";
+    private static final String INTERESTS = "interests";
+    private static final String NEIGHBOURHOODS = "neighbourhood";
+    private static final String LATITUDES = "lat";
+    private static final String LONGITUDES = "lon";
+    private static final String LOCATION_TYPES = "locationType";
+    private static final String LOCATION_XS = "locationX";
+    private static final String LOCATION_YS = "locationY";
+    
+    private final CulturalHotSpotRepository repository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final CulturalHotSpotService culturalHotSpotService;
+    private final MapService mapService;
+    private final HotSpotSearchService searchService;
+    private final HotSpotDataHealthIndicator health;
+    private final MeterRegistry meterRegistry;
+    private final Executor executor;
+    // null when snapshots are disabled
+    private final Path file;
+    // tag of the snapshot last written, to skip rewriting identical data
+    private String writtenTag;
+    // guards writes (a lock, not a monitor, so a virtual thread writing does not pin its carrier)
+    private final ReentrantLock writeLock = new ReentrantLock();
+    
+    public HotSpotSnapshotService(CulturalHotSpotRepository repository, EntityManager entityManager,
+                                  PlatformTransactionManager transactionManager,
+                                  CulturalHotSpotService culturalHotSpotService, MapService mapService,
+                                  HotSpotSearchService searchService, HotSpotDataHealthIndicator health,
+                                  MeterRegistry meterRegistry,
+                                  @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) Executor executor,
+                                  @Value("${opendata.snapshot.file:}") String file) {
+        this.repository = repository;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.culturalHotSpotService = culturalHotSpotService;
+        this.mapService = mapService;
+        this.searchService = searchService;
+        this.health = health;
+        this.meterRegistry = meterRegistry;
+        this.executor = executor;
+        this.file = file == null || file.isBlank() ? null : Path.of(file);
+    }
+    
+    /**
+     * Warm up from the snapshot file if it matches the data in the database
+     *
+     * @return false if there is no usable snapshot, leaving the work to {@link #warmUpFromDatabase()}
+     */
+    public boolean warmUpFromFile() {
+        if (file == null || !Files.isRegularFile(file)) {
+            return false;
+        }
+        long startNanos = System.nanoTime();
+        long dataVersion = culturalHotSpotService.getDataVersion();
+        HotSpotColumns columns;
+        String tag;
+        try {
+            ColumnarFile snapshot = ColumnarFile.open(file);
+            tag = readOnlyTransaction.execute(status -> currentTag());
+            if (!snapshot.tag().equals(tag)) {
+                log.info("Hotspot snapshot {} is stale ({} vs {}), warming up from the database", file, snapshot.tag(), tag);
+                return false;
+            }
+            columns = read(snapshot);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("Hotspot snapshot {} is unreadable, warming up from the database: {}", file, e.getMessage());
+            return false;
+        }
+        warmUp(dataVersion, tag, columns, "snapshot", startNanos);
+        return true;
+    }
+    
+    /**
+     * Warm up with one pass over the table, and write the snapshot file from it
+     */
+    public void warmUpFromDatabase() {
+        long startNanos = System.nanoTime();
+        long dataVersion = culturalHotSpotService.getDataVersion();
+        Snapshot snapshot = readOnlyTransaction.execute(status -> new Snapshot(currentTag(), readColumns()));
+        warmUp(dataVersion, snapshot.tag(), snapshot.columns(), "database", startNanos);
+        write(snapshot);
+    }
+    
+    /**
+     * Rewrite the snapshot once a data change has been committed, off the publishing thread
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onHotSpotDataChanged(HotSpotDataChangedEvent event) {
+        if (file != null) {
+            executor.execute(() -> write(readOnlyTransaction.execute(status -> new Snapshot(currentTag(), readColumns()))));
+        }
+    }
+    
+    private void warmUp(long dataVersion, String tag, HotSpotColumns columns, String source, long startNanos) {
+        culturalHotSpotService.warmUp(dataVersion, tag, HotSpotColumnStore.of(columns));
+        mapService.warmUp();
+        searchService.warmUp();
+        long elapsedNanos = System.nanoTime() - startNanos;
+        meterRegistry.timer("opendata.warmup", "source", source).record(elapsedNanos, TimeUnit.NANOSECONDS);
+        long elapsedMillis = elapsedNanos / 1_000_000;
+        health.markServing(source, columns.size(), elapsedMillis);
+        log.info("Hotspot data warmed up from {} ({} rows) in {} ms", source, columns.size(), elapsedMillis);
+    }
+    
+    /**
+     * Identifies the data the snapshot was read at, see {@link CulturalHotSpotService#currentDataTag()}
+     */
+    private String currentTag() {
+        return culturalHotSpotService.currentDataTag();
+    }
+    
+    private HotSpotColumns readColumns() {
+        HotSpotColumns.Builder builder = HotSpotColumns.builder(1024);
+        try (Stream<CulturalHotSpotEntity> entities = repository.streamAllByOrderById()) {
+            entities.forEach(entity -> {
+                builder.add(entity, CulturalHotSpotService.locationOf(entity));
+                entityManager.detach(entity);
+            });
+        }
+        return builder.build();
+    }
+    
+    private void write(Snapshot snapshot) {
+        if (file == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            writeLocked(snapshot);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+    
+    private void writeLocked(Snapshot snapshot) {
+        if (snapshot.tag().equals(writtenTag) && Files.isRegularFile(file)) {
+            return;
+        }
+        HotSpotColumns columns = snapshot.columns();
+        try {
+            new ColumnarFile.Writer(snapshot.tag(), columns.size())
+                    .strings(IDS, columns.ids())
+                    .strings(NAMES, columns.names())
+                    .strings(ADDRESSES, columns.addresses())
+                    .strings(TYPES, columns.types())
+                    .strings(DESCRIPTIONS, columns.descriptions())
+                    .strings(PICTURE_URLS, columns.pictureUrls())
+                    .strings(INTERESTS, columns.interests())
+                    .strings(NEIGHBOURHOODS, columns.neighbourhoods())
+                    .doubles(LATITUDES, columns.latitudes())
+                    .doubles(LONGITUDES, columns.longitudes())
+                    .strings(LOCATION_TYPES, columns.locationTypes())
+                    .doubles(LOCATION_XS, columns.locationXs())
+                    .doubles(LOCATION_YS, columns.locationYs())
+                    .writeTo(file);
+            writtenTag = snapshot.tag();
+            log.info("Wrote hotspot snapshot {} ({} rows, tag {})", file, columns.size(), snapshot.tag());
+        } catch (IOException e) {
+            log.warn("Could not write hotspot snapshot {}: {}", file, e.getMessage());
+        }
+    }
+    
+    private static HotSpotColumns read(ColumnarFile snapshot) {
+        return new HotSpotColumns(snapshot.strings(IDS), snapshot.strings(NAMES), snapshot.strings(ADDRESSES),
+                snapshot.strings(TYPES), snapshot.strings(DESCRIPTIONS), snapshot.strings(PICTURE_URLS),
+                snapshot.strings(INTERESTS), snapshot.strings(NEIGHBOURHOODS), snapshot.doubles(LATITUDES),
+                snapshot.doubles(LONGITUDES), snapshot.strings(LOCATION_TYPES), snapshot.doubles(LOCATION_XS),
+                snapshot.doubles(LOCATION_YS));
+    }
+    
+    private record Snapshot(String tag, HotSpotColumns columns) {
+    }
+}
@@ -1,86 +1,425 @@
 package com.toronto.opendata.core.service;
 
-import com.toronto.opendata.core.dto.GeoJsonFeatureCollectionDTO;
-import com.toronto.opendata.core.dto.GeoJsonFeatureDTO;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.toronto.opendata.core.dto.MapPointDTO;
+import com.toronto.opendata.core.entity.CulturalHotSpotEntity;
+import com.toronto.opendata.core.event.HotSpotDataChangedEvent;
 import com.toronto.opendata.core.model.CulturalHotSpotModel;
+import com.toronto.opendata.core.model.HotSpotColumnStore;
 import com.toronto.opendata.core.model.MultiPointModel;
+import com.toronto.opendata.core.repository.CulturalHotSpotRepository;
+import com.toronto.opendata.core.util.ClusterIndex;
+import com.toronto.opendata.core.util.GeoJsonWriter;
+import com.toronto.opendata.core.util.GeoUtils;
+import com.toronto.opendata.core.util.JsonStreamWriter;
+import com.toronto.opendata.core.util.KdTree;
+import com.toronto.opendata.core.util.MvtEncoder;
+import com.toronto.opendata.core.util.SpatialGridIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
 
-import java.util.HashMap;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
 
+@Slf4j
 @Service
 public class MapService {
     
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    
+    public static final int MAX_TILE_ZOOM = 22;
+    public static final int MAX_NEAREST = 1000;
+    private static final String TILE_LAYER = "hotspots";
+    private static final int TILE_BUFFER = 64;
+    
+    // Supercluster defaults: 40px radius on 512px tiles
+    private static final int CLUSTER_RADIUS = 40;
+    private static final int CLUSTER_EXTENT = 512;
+    
     private final CulturalHotSpotService culturalHotSpotService;
+    private final CulturalHotSpotRepository repository;
+    private final SpatialBackend spatialBackend;
+    private final int tileCacheSize;
+    private final int clusterMaxZoom;
     
-    public MapService(CulturalHotSpotService culturalHotSpotService) {
+    private final MeterRegistry meterRegistry;
+    private final DistributionSummary boundsResults;
+    private final DistributionSummary clusterResults;
+    private final DistributionSummary nearbyResults;
+    private final DistributionSummary nearestResults;
+    private final Counter tileHits;
+    private final Counter tileMisses;
+    
+    // Located hotspots plus a spatial index and rendered GeoJSON; rebuilt when the data changes
+    private volatile MapSnapshot snapshot;
+    private volatile long dataVersion;
+    // Serializes builds, so a lazy build of old data cannot land after a rebuild; a lock rather
+    // than a monitor, so virtual threads waiting on the database read behind it do not pin
+    // their carrier threads
+    private final ReentrantLock buildLock = new ReentrantLock();
+    
+    public MapService(CulturalHotSpotService culturalHotSpotService,
+                      CulturalHotSpotRepository repository,
+                      @Value("${opendata.map.spatial-backend:memory}") SpatialBackend spatialBackend,
+                      @Value("${opendata.map.tile-cache-size:2048}") int tileCacheSize,
+                      @Value("${opendata.map.cluster-max-zoom:14}") int clusterMaxZoom,
+                      MeterRegistry meterRegistry) {
         this.culturalHotSpotService = culturalHotSpotService;
+        this.repository = repository;
+        this.spatialBackend = spatialBackend;
+        this.tileCacheSize = tileCacheSize;
+        this.clusterMaxZoom = clusterMaxZoom;
+        this.meterRegistry = meterRegistry;
+        this.boundsResults = resultSize(meterRegistry, "bounds");
+        this.clusterResults = resultSize(meterRegistry, "clusters");
+        this.nearbyResults = resultSize(meterRegistry, "nearby");
+        this.nearestResults = resultSize(meterRegistry, "nearest");
+        this.tileHits = meterRegistry.counter("cache.gets", "cache", "mapTiles", "result", "hit");
+        this.tileMisses = meterRegistry.counter("cache.gets", "cache", "mapTiles", "result", "miss");
+    }
+    
+    private static DistributionSummary resultSize(MeterRegistry registry, String query) {
+        return DistributionSummary.builder("opendata.map.query.results")
+                .description("Points returned by map queries")
+                .tag("query", query)
+                .register(registry);
     }
     
     /**
      * Get all cultural hotspots as simple map points
      */
     public List<MapPointDTO> getMapPoints() {
-        return culturalHotSpotService.getAllCulturalHotSpots().stream()
-                .filter(spot -> spot.getLocation() != null)
-                .map(this::toMapPoint)
-                .collect(Collectors.toList());
+        MapSnapshot current = currentSnapshot();
+        List<MapPointDTO> points = new ArrayList<>(current.size());
+        for (int position = 0; position < current.size(); position++) {
+            points.add(current.toMapPoint(position));
+        }
+        return points;
+    }
+    
+    /**
+     * Write all map points to a stream one by one, without materializing the list
+     */
+    public void writeMapPoints(JsonStreamWriter writer) throws IOException {
+        MapSnapshot current = currentSnapshot();
+        for (int position = 0; position < current.size(); position++) {
+            writer.write(current.toMapPoint(position));
+        }
+    }
+    
+    /**
+     * Write every located hotspot as a standalone GeoJSON Feature (one per value)
+     */
+    public void writeGeoJsonFeatures(JsonStreamWriter writer) throws IOException {
+        MapSnapshot current = currentSnapshot();
+        for (int row : current.located()) {
+            GeoJsonWriter.writeFeature(writer.generator(), current.store(), row);
+            writer.endValue();
+        }
     }
     
     /**
      * Get cultural hotspots within a bounding box
      */
     public List<MapPointDTO> getMapPointsInBounds(Double minLat, Double maxLat, Double minLon, Double maxLon) {
-        return culturalHotSpotService.getAllCulturalHotSpots().stream()
-                .filter(spot -> {
-                    if (spot.getLocation() == null) return false;
-                    double lat = spot.getLocation().getY();
-                    double lon = spot.getLocation().getX();
-                    return lat >= minLat && lat <= maxLat && lon >= minLon && lon <= maxLon;
-                })
-                .map(this::toMapPoint)
-                .collect(Collectors.toList());
+        if (spatialBackend == SpatialBackend.DATABASE) {
+            List<MapPointDTO> points = toMapPoints(repository.findLocatedInBounds(minLat, maxLat, minLon, maxLon));
+            boundsResults.record(points.size());
+            return points;
+        }
+        MapSnapshot current = currentSnapshot();
+        int[] positions = current.index().queryBounds(minLat, maxLat, minLon, maxLon);
+        boundsResults.record(positions.length);
+        return current.toMapPoints(positions);
+    }
+    
+    /**
+     * Get cultural hotspots within a bounding box as seen at a map zoom level.
+     * Below {@code clusterMaxZoom} nearby sites are returned as cluster centroids (type "cluster"
+     * with {@code pointCount}), so the response size depends on the viewport, not the data.
+     */
+    public List<MapPointDTO> getMapPointsInBounds(Double minLat, Double maxLat, Double minLon, Double maxLon, int zoom) {
+        if (zoom >= clusterMaxZoom) {
+            return getMapPointsInBounds(minLat, maxLat, minLon, maxLon);
+        }
+        MapSnapshot current = currentSnapshot();
+        List<MapPointDTO> points = new ArrayList<>();
+        current.clusters().getClusters(minLat, maxLat, minLon, maxLon, zoom, (x, y, count, ref) -> {
+            if (count == 1) {
+                points.add(current.toMapPoint(ref));
+            } else {
+                points.add(MapPointDTO.builder()
+                        .id("cluster-" + (-ref - 1))
+                        .type("cluster")
+                        .latitude(GeoUtils.tileYToLat(y, 0))
+                        .longitude(GeoUtils.tileXToLon(x, 0))
+                        .pointCount(count)
+                        .build());
+            }
+        });
+        clusterResults.record(points.size());
+        return points;
     }
     
     /**
-     * Get cultural hotspots as GeoJSON FeatureCollection
+     * Get cultural hotspots as a pre-rendered GeoJSON FeatureCollection
      * This format is compatible with Leaflet, Mapbox, and other mapping libraries
      */
-    public GeoJsonFeatureCollectionDTO getGeoJsonFeatureCollection() {
-        List<GeoJsonFeatureDTO> features = culturalHotSpotService.getAllCulturalHotSpots().stream()
-                .filter(spot -> spot.getLocation() != null)
-                .map(this::toGeoJsonFeature)
-                .collect(Collectors.toList());
-        
-        return GeoJsonFeatureCollectionDTO.builder()
-                .type("FeatureCollection")
-                .features(features)
-                .build();
+    public GeoJsonSnapshot getGeoJsonSnapshot() {
+        return currentSnapshot().geoJson();
     }
     
     /**
      * Get cultural hotspots within radius of a point
      */
     public List<MapPointDTO> getMapPointsNearby(Double centerLat, Double centerLon, Double radiusKm) {
-        return culturalHotSpotService.getAllCulturalHotSpots().stream()
-                .filter(spot -> {
-                    if (spot.getLocation() == null) return false;
-                    double distance = calculateDistance(
-                            centerLat, centerLon,
-                            spot.getLocation().getY(),
-                            spot.getLocation().getX()
-                    );
-                    return distance <= radiusKm;
-                })
-                .map(this::toMapPoint)
-                .collect(Collectors.toList());
-    }
-    
-    private MapPointDTO toMapPoint(CulturalHotSpotModel model) {
+        if (spatialBackend == SpatialBackend.DATABASE) {
+            List<MapPointDTO> points = toMapPoints(repository.findLocatedWithinRadius(centerLat, centerLon, radiusKm));
+            nearbyResults.record(points.size());
+            return points;
+        }
+        MapSnapshot current = currentSnapshot();
+        int[] positions = current.index().queryRadius(centerLat, centerLon, radiusKm);
+        nearbyResults.record(positions.length);
+        return current.toMapPoints(positions);
+    }
+    
+    /**
+     * The k hotspots closest to a point, nearest first, each with its great-circle distance
+     */
+    public List<MapPointDTO> getNearestMapPoints(Double lat, Double lon, int k) {
+        if (lat < -90 || lat > 90 || lon < -180 || lon > 180) {
+            throw new IllegalArgumentException("Invalid point " + lat + "," + lon);
+        }
+        if (k < 1 || k > MAX_NEAREST) {
+            throw new IllegalArgumentException("k must be between 1 and " + MAX_NEAREST);
+        }
+        List<MapPointDTO> points = new ArrayList<>(k);
+        if (spatialBackend == SpatialBackend.DATABASE) {
+            for (CulturalHotSpotEntity entity : repository.findNearestLocated(lat, lon, k)) {
+                MapPointDTO point = toMapPoint(culturalHotSpotService.entityToModel(entity));
+                point.setDistanceKm(GeoUtils.haversineKm(lat, lon, point.getLatitude(), point.getLongitude()));
+                points.add(point);
+            }
+        } else {
+            MapSnapshot current = currentSnapshot();
+            current.tree().nearest(lon, lat, k, Double.POSITIVE_INFINITY, (position, distanceKm) -> {
+                MapPointDTO point = current.toMapPoint(position);
+                point.setDistanceKm(distanceKm);
+                points.add(point);
+            });
+        }
+        nearestResults.record(points.size());
+        return points;
+    }
+    
+    /**
+     * Get a Mapbox Vector Tile with one "hotspots" point layer for tile z/x/y.
+     * Below {@code clusterMaxZoom} features come from the cluster index: clusters carry
+     * {@code cluster=true}, {@code cluster_id} and {@code point_count}. Tiles are cached per data version.
+     *
+     * @return encoded tile (empty when no hotspot falls in it) and the ETag of its snapshot
+     */
+    public VectorTile getVectorTile(int z, int x, int y) {
+        if (z < 0 || z > MAX_TILE_ZOOM || x < 0 || y < 0 || x >= (1 << z) || y >= (1 << z)) {
+            throw new IllegalArgumentException("Invalid tile " + z + "/" + x + "/" + y);
+        }
+        MapSnapshot current = currentSnapshot();
+        long key = ((long) z << 58) | ((long) x << 29) | y;
+        byte[] tile = current.tiles().get(key);
+        if (tile == null) {
+            tileMisses.increment();
+            tile = encodeTile(current, z, x, y);
+            current.tiles().put(key, tile);
+        } else {
+            tileHits.increment();
+        }
+        return new VectorTile(tile, current.geoJson().etag());
+    }
+    
+    /**
+     * Rebuild the spatial snapshot once a data change has been committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onHotSpotDataChanged(HotSpotDataChangedEvent event) {
+        log.debug("Hotspot data changed (version {}), rebuilding map index", event.version());
+        buildLock.lock();
+        try {
+            if (event.version() < dataVersion) {
+                return;
+            }
+            dataVersion = event.version();
+            snapshot = buildSnapshot();
+        } finally {
+            buildLock.unlock();
+        }
+    }
+    
+    /**
+     * Build the spatial snapshot now rather than on the first map request
+     */
+    public void warmUp() {
+        currentSnapshot();
+    }
+    
+    private MapSnapshot currentSnapshot() {
+        MapSnapshot current = snapshot;
+        if (current == null) {
+            buildLock.lock();
+            try {
+                current = snapshot;
+                if (current == null) {
+                    current = buildSnapshot();
+                    snapshot = current;
+                }
+            } finally {
+                buildLock.unlock();
+            }
+        }
+        return current;
+    }
+    
+    private MapSnapshot buildSnapshot() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        HotSpotColumnStore store = culturalHotSpotService.getHotSpotStore();
+        int[] located = store.locatedRows();
+        
+        double[] latitudes = new double[located.length];
+        double[] longitudes = new double[located.length];
+        for (int i = 0; i < located.length; i++) {
+            latitudes[i] = store.latitude(located[i]);
+            longitudes[i] = store.longitude(located[i]);
+        }
+        
+        log.debug("Built map and cluster indexes over {} located hotspots", located.length);
+        ClusterIndex clusters = ClusterIndex.build(latitudes, longitudes,
+                0, Math.max(0, clusterMaxZoom - 1), CLUSTER_RADIUS, CLUSTER_EXTENT);
+        MapSnapshot built = new MapSnapshot(store, located, SpatialGridIndex.build(latitudes, longitudes),
+                KdTree.build(longitudes, latitudes), clusters, renderGeoJson(store, located), new TileCache(tileCacheSize));
+        sample.stop(meterRegistry.timer("opendata.index.build", "index", "map"));
+        return built;
+    }
+    
+    /**
+     * Serialize the FeatureCollection once, plus a gzip variant, tagged with a content hash
+     */
+    private GeoJsonSnapshot renderGeoJson(HotSpotColumnStore store, int[] located) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            ByteArrayOutputStream json = new ByteArrayOutputStream(Math.max(1024, located.length * 512));
+            try (JsonGenerator gen = JSON_FACTORY.createGenerator(json)) {
+                GeoJsonWriter.writeFeatureCollection(gen, store, located);
+            }
+            byte[] body = json.toByteArray();
+            sample.stop(meterRegistry.timer("opendata.json.serialization", "payload", "geojson"));
+            
+            ByteArrayOutputStream gzip = new ByteArrayOutputStream(body.length / 4 + 64);
+            try (GZIPOutputStream out = new GZIPOutputStream(gzip) {{ def.setLevel(Deflater.BEST_COMPRESSION); }}) {
+                out.write(body);
+            }
+            
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            String hash = HexFormat.of().formatHex(digest, 0, 16);
+            return new GeoJsonSnapshot(body, gzip.toByteArray(), hash, dataVersion);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to render GeoJSON snapshot", e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    private byte[] encodeTile(MapSnapshot current, int z, int x, int y) {
+        int extent = MvtEncoder.DEFAULT_EXTENT;
+        double buffer = (double) TILE_BUFFER / extent;
+        MvtEncoder encoder = new MvtEncoder(TILE_LAYER, extent);
+        
+        if (z < clusterMaxZoom) {
+            double scale = 1 << z;
+            current.clusters().getClustersInMercator(
+                    (x - buffer) / scale, (y - buffer) / scale, (x + 1 + buffer) / scale, (y + 1 + buffer) / scale, z,
+                    (cx, cy, count, ref) -> {
+                        int px = (int) Math.round((cx * scale - x) * extent);
+                        int py = (int) Math.round((cy * scale - y) * extent);
+                        if (count == 1) {
+                            addPointFeature(encoder, current.store(), current.located()[ref], px, py);
+                        } else {
+                            encoder.addPoint(-1, px, py, "cluster", true, "cluster_id", -ref - 1, "point_count", count);
+                        }
+                    });
+            return encoder.encode();
+        }
+        
+        int[] positions = current.index().queryBounds(
+                GeoUtils.tileYToLat(y + 1 + buffer, z),
+                GeoUtils.tileYToLat(y - buffer, z),
+                GeoUtils.tileXToLon(x - buffer, z),
+                GeoUtils.tileXToLon(x + 1 + buffer, z));
+        HotSpotColumnStore store = current.store();
+        for (int position : positions) {
+            int row = current.located()[position];
+            int px = (int) Math.round((GeoUtils.lonToTileX(store.longitude(row), z) - x) * extent);
+            int py = (int) Math.round((GeoUtils.latToTileY(store.latitude(row), z) - y) * extent);
+            addPointFeature(encoder, store, row, px, py);
+        }
+        return encoder.encode();
+    }
+    
+    private static void addPointFeature(MvtEncoder encoder, HotSpotColumnStore store, int row, int px, int py) {
+        String id = store.id(row);
+        encoder.addPoint(featureId(id), px, py,
+                "id", id,
+                "name", store.name(row),
+                "type", store.type(row));
+    }
+    
+    private static long featureId(String id) {
+        try {
+            return id != null ? Long.parseLong(id) : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    private List<MapPointDTO> toMapPoints(List<CulturalHotSpotEntity> entities) {
+        List<MapPointDTO> points = new ArrayList<>(entities.size());
+        for (CulturalHotSpotEntity entity : entities) {
+            points.add(toMapPoint(culturalHotSpotService.entityToModel(entity)));
+        }
+        return points;
+    }
+    
+    private static MapPointDTO toMapPoint(HotSpotColumnStore store, int row) {
+        return MapPointDTO.builder()
+                .id(store.id(row))
+                .name(store.name(row))
+                .description(store.description(row))
+                .address(store.address(row))
+                .type(store.type(row))
+                .latitude(store.latitude(row))
+                .longitude(store.longitude(row))
+                .imageUrl(store.pictureUrl(row))
+                .build();
+    }
+    
+    private static MapPointDTO toMapPoint(CulturalHotSpotModel model) {
         MultiPointModel location = model.getLocation();
         return MapPointDTO.builder()
                 .id(model.getId())
@@ -94,48 +433,83 @@ public class MapService {
                 .build();
     }
     
-    private GeoJsonFeatureDTO toGeoJsonFeature(CulturalHotSpotModel model) {
-        MultiPointModel location = model.getLocation();
-        
-        // GeoJSON coordinates are [longitude, latitude] (x, y)
-        double[] coordinates = new double[]{location.getX(), location.getY()};
+    /**
+     * Where bounds, radius and nearest-neighbour queries are answered
+     */
+    public enum SpatialBackend {
+        /** The grid index and KD-tree of the in-memory snapshot (default; no database round trip) */
+        MEMORY,
+        /** Native spatial queries on the indexed {@code location} column (PostGIS, or H2 locally) */
+        DATABASE
+    }
+    
+    /**
+     * Immutable view of the located hotspots; index positions refer to {@code located}, which
+     * holds their rows in {@code store}. Encoded tiles are cached per snapshot, so replacing
+     * the snapshot invalidates them.
+     */
+    private record MapSnapshot(HotSpotColumnStore store, int[] located, SpatialGridIndex index, KdTree tree,
+                               ClusterIndex clusters, GeoJsonSnapshot geoJson, TileCache tiles) {
         
-        GeoJsonFeatureDTO.GeometryDTO geometry = GeoJsonFeatureDTO.GeometryDTO.builder()
-                .type("Point")
-                .coordinates(coordinates)
-                .build();
+        int size() {
+            return located.length;
+        }
         
-        Map<String, Object> properties = new HashMap<>();
-        properties.put("id", model.getId());
-        properties.put("name", model.getName());
-        properties.put("description", model.getDescription());
-        properties.put("address", model.getAddress());
-        properties.put("type", model.getType());
-        properties.put("imageUrl", model.getPictureURL());
+        MapPointDTO toMapPoint(int position) {
+            return MapService.toMapPoint(store, located[position]);
+        }
         
-        return GeoJsonFeatureDTO.builder()
-                .type("Feature")
-                .geometry(geometry)
-                .properties(properties)
-                .build();
+        List<MapPointDTO> toMapPoints(int[] positions) {
+            List<MapPointDTO> points = new ArrayList<>(positions.length);
+            for (int position : positions) {
+                points.add(toMapPoint(position));
+            }
+            return points;
+        }
     }
     
     /**
-     * Calculate distance between two points using Haversine formula
-     * Returns distance in kilometers
+     * Rendered GeoJSON body and its gzip variant for one data version.
+     * The hash is derived from the uncompressed body, so it is stable across restarts and replicas.
      */
-    private double calculateDistance(double lat1, double lon1, double lat2, double lon2) {
-        final int EARTH_RADIUS_KM = 6371;
+    public record GeoJsonSnapshot(byte[] json, byte[] gzip, String contentHash, long version) {
+        
+        public String etag() {
+            return "\"" + contentHash + "\"";
+        }
         
-        double dLat = Math.toRadians(lat2 - lat1);
-        double dLon = Math.toRadians(lon2 - lon1);
+        public String gzipEtag() {
+            return "\"" + contentHash + "-gzip\"";
+        }
+    }
+    
+    /**
+     * Encoded tile, with the ETag of the snapshot it was cut from
+     */
+    public record VectorTile(byte[] bytes, String etag) {
+    }
+    
+    /**
+     * Bounded LRU cache of encoded tiles keyed by packed z/x/y
+     */
+    private static final class TileCache {
+        private final Map<Long, byte[]> tiles;
         
-        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        TileCache(int maxSize) {
+            this.tiles = new LinkedHashMap<>(256, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
         
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        synchronized byte[] get(long key) {
+            return tiles.get(key);
+        }
         
-        return EARTH_RADIUS_KM * c;
+        synchronized void put(long key, byte[] tile) {
+            tiles.put(key, tile);
+        }
     }
 }
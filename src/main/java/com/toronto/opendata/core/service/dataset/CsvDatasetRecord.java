@@ -0,0 +1,44 @@
+package com.toronto.opendata.core.service.dataset;
+
+import java.util.List;
+
+import com.toronto.opendata.core.util.MappedCsvReader;
+
+/**
+ * Record view over a memory-mapped CSV row; fields are decoded only when read
+ */
+final class CsvDatasetRecord implements DatasetRecord {
+    
+    private final MappedCsvReader.Row row;
+    private final List<String> columns;
+    
+    CsvDatasetRecord(MappedCsvReader.Row row, List<String> columns) {
+        this.row = row;
+        this.columns = columns;
+    }
+    
+    @Override
+    public List<String> columns() {
+        return columns;
+    }
+    
+    @Override
+    public String get(int index) {
+        return row.get(index);
+    }
+    
+    @Override
+    public String get(String column) {
+        return row.get(column);
+    }
+    
+    @Override
+    public long position() {
+        return row.offset();
+    }
+    
+    @Override
+    public String location() {
+        return "byte " + row.offset();
+    }
+}
@@ -0,0 +1,106 @@
+package com.toronto.opendata.core.service.dataset;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.toronto.opendata.core.entity.CulturalHotSpotEntity;
+import com.toronto.opendata.core.repository.CulturalHotSpotRepository;
+import com.toronto.opendata.core.repository.SourceRowVersion;
+import com.toronto.opendata.core.util.GeoUtils;
+import com.toronto.opendata.core.util.GeometryParser;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Cultural hotspots (points of interest); the service's primary dataset, loaded first
+ */
+@Slf4j
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class CulturalHotSpotDataset implements RefreshableDataset<CulturalHotSpotEntity> {
+    
+    public static final String NAME = "cultural-hotspots";
+    
+    private final CulturalHotSpotRepository repository;
+    
+    @Override
+    public String name() {
+        return NAME;
+    }
+    
+    @Override
+    public String resource() {
+        return "data/points-of-interest-05-11-2025.csv";
+    }
+    
+    @Override
+    public DatasetFormat format() {
+        return DatasetFormat.CSV;
+    }
+    
+    @Override
+    public CulturalHotSpotRepository repository() {
+        return repository;
+    }
+    
+    @Override
+    public List<SourceRowVersion> storedRows() {
+        return repository.findSourceRowVersions();
+    }
+    
+    @Override
+    public void map(DatasetRecord record, Consumer<CulturalHotSpotEntity> entities) {
+        CulturalHotSpotEntity entity = new CulturalHotSpotEntity();
+        
+        entity.setCsvId(record.value("_id"));
+        entity.setLoopsGuide(record.value("LoopsGuide"));
+        entity.setLoop(record.value("Loop"));
+        entity.setTourNum(record.value("TourNum"));
+        entity.setOrderNum(record.value("OrderNum"));
+        entity.setLoopTourName(record.value("LoopTourName"));
+        entity.setLoopTourUrl(record.value("LoopTourURL"));
+        entity.setTourLabel(record.value("TourLabel"));
+        entity.setSiteName(record.value("SiteName"));
+        entity.setNeighbourhood(record.value("Neighbourhood"));
+        entity.setTourType(record.value("TourType"));
+        entity.setDuration(record.value("Duration"));
+        entity.setEntryType(record.value("EntryType"));
+        entity.setInterests(record.value("Interests"));
+        entity.setDirectionsTransit(record.value("DirectionsTransit"));
+        entity.setDirectionsCar(record.value("DirectionsCar"));
+        entity.setDescription(record.value("Description"));
+        entity.setAddress(record.value("Address"));
+        entity.setExternalLink(record.value("ExternalLink"));
+        entity.setImageCredit(record.value("ImageCredit"));
+        entity.setImageCreditExternalLink(record.value("ImageCreditExternalLink"));
+        entity.setImageAltText(record.value("ImageAltText"));
+        entity.setImageUrl(record.value("ImageURL"));
+        entity.setThumbUrl(record.value("ThumbURL"));
+        entity.setImageOrientation(record.value("ImageOrientation"));
+        entity.setTest1(record.value("test1"));
+        entity.setTest2(record.value("test2"));
+        entity.setTest3(record.value("test3"));
+        entity.setObjectId(record.value("ObjectId"));
+        
+        // Keep the geometry JSON and extract coordinates from it
+        String geometryJson = record.value("geometry");
+        entity.setGeometry(geometryJson);
+        if (geometryJson != null) {
+            double[] position = new double[2];
+            if (GeometryParser.readFirstPosition(geometryJson, position)) {
+                entity.setLongitude(position[0]);
+                entity.setLatitude(position[1]);
+                entity.setLocation(GeoUtils.point(position[1], position[0]));
+            } else {
+                log.warn("Could not parse geometry for record {}", entity.getCsvId());
+            }
+        }
+        
+        entities.accept(entity);
+    }
+}
@@ -0,0 +1,45 @@
+package com.toronto.opendata.core.service.dataset;
+
+import java.util.function.Consumer;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+/**
+ * A dataset the service loads: where it comes from, how it is read and how each source
+ * record maps to entities. Register one as a Spring bean and {@link DatasetIngestionService}
+ * streams, maps and batch-inserts it; parsing, batching, progress and versioning are shared.
+ *
+ * @param <E> entity the records map to
+ */
+public interface DatasetDefinition<E> {
+    
+    /**
+     * Stable identifier, e.g. {@code places-of-worship}; the key of the dataset version
+     */
+    String name();
+    
+    /**
+     * Classpath location of the source file
+     */
+    String resource();
+    
+    DatasetFormat format();
+    
+    /**
+     * Worksheet to read for {@link DatasetFormat#XLSX}; null for the first sheet
+     */
+    default String sheet() {
+        return null;
+    }
+    
+    /**
+     * Repository of the target table; a dataset is loaded at startup when it is empty
+     */
+    JpaRepository<E, ?> repository();
+    
+    /**
+     * Map one source record to zero or more entities. Called concurrently for CSV sources,
+     * so implementations must be stateless. Throwing skips the record and counts an error.
+     */
+    void map(DatasetRecord record, Consumer<E> entities);
+}
@@ -0,0 +1,13 @@
+package com.toronto.opendata.core.service.dataset;
+
+/**
+ * Source file formats the ingestion engine can stream
+ */
+public enum DatasetFormat {
+    /** RFC 4180 CSV with a header row; parsed in parallel */
+    CSV,
+    /** A JSON array of flat objects; keys are the columns */
+    JSON,
+    /** One worksheet of an .xlsx workbook with a header row */
+    XLSX
+}
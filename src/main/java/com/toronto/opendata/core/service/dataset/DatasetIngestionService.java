@@ -0,0 +1,733 @@
+package com.toronto.opendata.core.service.dataset;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.toronto.opendata.core.dto.DatasetRefreshDTO;
+import com.toronto.opendata.core.dto.DatasetStatusDTO;
+import com.toronto.opendata.core.entity.DatasetVersionEntity;
+import com.toronto.opendata.core.entity.SourceKeyed;
+import com.toronto.opendata.core.repository.DatasetVersionRepository;
+import com.toronto.opendata.core.repository.SourceRowVersion;
+import com.toronto.opendata.core.util.MappedCsvReader;
+import com.toronto.opendata.core.util.ParallelCsvReader;
+import com.toronto.opendata.core.util.XlsxSheetReader;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads {@link DatasetDefinition datasets} into their tables.
+ *
+ * Every format is streamed: CSV through record-aligned chunks parsed and mapped in parallel,
+ * JSON through the Jackson token stream one array element at a time, XLSX through a StAX
+ * pull over the worksheet. Entities are inserted in JDBC batches of {@code chunkSize} and the
+ * persistence context is cleared after each, so memory stays flat whatever the source size.
+ * Progress is tracked per dataset while it loads, and each completed load bumps the
+ * dataset's row in {@code dataset_versions} with the source hash and counts.
+ *
+ * {@link RefreshableDataset Refreshable} datasets can also be refreshed from a new copy of
+ * their source: the copy goes through the same readers, but each entity is matched to the
+ * stored row with its source key and only written when it is new or its content hash
+ * changed; rows whose key is gone are deleted. Inserts, updates and deletes are all batched.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DatasetIngestionService {
+    
+    private static final TypeReference<LinkedHashMap<String, Object>> JSON_OBJECT = new TypeReference<>() {
+    };
+    
+    private final List<DatasetDefinition<?>> definitions;
+    private final DatasetVersionRepository versionRepository;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    
+    private final Map<String, LoadProgress> progress = new ConcurrentHashMap<>();
+    
+    /**
+     * Rows inserted per JDBC batch; the persistence context is flushed and cleared after each chunk.
+     * Keep in step with hibernate.jdbc.batch_size.
+     */
+    @Value("${opendata.migration.chunk-size:500}")
+    private int chunkSize;
+    
+    /**
+     * Threads parsing and mapping CSV records; 0 uses every available processor.
+     * Inserts stay on the loading thread, in source order.
+     */
+    @Value("${opendata.migration.parallelism:0}")
+    private int parallelism;
+    
+    /**
+     * Registered datasets, in load order
+     */
+    public List<DatasetDefinition<?>> getDefinitions() {
+        return definitions;
+    }
+    
+    /**
+     * Stream a dataset into its table and record a new version of it.
+     * The table is expected to be empty; rows are appended.
+     *
+     * @return the new version record
+     */
+    @Transactional
+    public <E> DatasetVersionEntity load(DatasetDefinition<E> definition) {
+        LoadProgress run = start(definition, "load");
+        log.info("Loading dataset {} from {} ({}, chunk size {})...",
+                 definition.name(), definition.resource(), definition.format(), chunkSize);
+        
+        try (SourceFile source = SourceFile.of(definition.resource())) {
+            BatchWriter<E> writer = new BatchWriter<>(definition, run);
+            long records = read(definition, source.path(), writer, run);
+            writer.flush();
+            
+            long elapsedMillis = Math.max(1, run.elapsedMillis());
+            DatasetVersionEntity version = findVersion(definition.name());
+            version.setVersion(version.getVersion() + 1);
+            version.setSource(definition.resource());
+            version.setContentHash(source.sha256());
+            version.setSourceModified(null);
+            version.setRecordCount(records);
+            version.setRowCount(run.rows.sum());
+            version.setErrorCount(run.errors.sum());
+            version.setDurationMillis(elapsedMillis);
+            version.setLoadedAt(LocalDateTime.now());
+            version.setCheckedAt(version.getLoadedAt());
+            version = versionRepository.save(version);
+            run.finish(Files.size(source.path()));
+            
+            log.info("Dataset {} v{} loaded! Records: {}, Rows: {}, Errors: {} in {} ms ({} rows/s)",
+                     definition.name(), version.getVersion(), records, version.getRowCount(), version.getErrorCount(),
+                     elapsedMillis, version.getRowCount() * 1000L / elapsedMillis);
+            return version;
+        } catch (IOException e) {
+            run.fail(e);
+            throw new UncheckedIOException("Loading dataset " + definition.name() + " failed", e);
+        } catch (RuntimeException e) {
+            run.fail(e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Replace every row of a dataset with a fresh load of its source in one transaction:
+     * the old rows go in a single bulk DELETE and the new ones are batch-inserted. Under
+     * MVCC readers keep seeing the previous rows until the commit and then all of the new
+     * ones, never an empty or partial table.
+     */
+    @Transactional
+    public <E> DatasetRefreshDTO reload(DatasetDefinition<E> definition) {
+        long removed = definition.repository().count();
+        definition.repository().deleteAllInBatch();
+        DatasetVersionEntity version = load(definition);
+        version.setInsertedCount(version.getRowCount());
+        version.setUpdatedCount(0);
+        version.setDeletedCount(removed);
+        version = versionRepository.save(version);
+        return DatasetRefreshDTO.builder()
+                .name(definition.name())
+                .status("RELOADED")
+                .version(version.getVersion())
+                .sourceModified(version.getSourceModified())
+                .recordsRead(version.getRecordCount())
+                .inserted(version.getRowCount())
+                .deleted(removed)
+                .errorCount(version.getErrorCount())
+                .elapsedMillis(version.getDurationMillis())
+                .checkedAt(version.getCheckedAt())
+                .build();
+    }
+    
+    /**
+     * Apply a new copy of a dataset's source as a diff against its table and record a new
+     * version if anything changed. Nothing is written when the file has the SHA-256 of the
+     * current version. Records without a key, or repeating one, are skipped as errors.
+     *
+     * @param file           the new source, in the dataset's format
+     * @param source         where the copy came from, recorded on the version
+     * @param sourceModified modification stamp of the source, recorded on the version
+     */
+    @Transactional
+    public <E extends SourceKeyed> DatasetRefreshDTO refresh(RefreshableDataset<E> definition, Path file,
+                                                             String source, String sourceModified) {
+        String sha256;
+        try {
+            sha256 = SourceFile.sha256(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reading refreshed source of dataset " + definition.name() + " failed", e);
+        }
+        DatasetVersionEntity version = findVersion(definition.name());
+        if (sha256.equals(version.getContentHash())) {
+            log.info("Dataset {} source is unchanged (SHA-256 {}); nothing to apply", definition.name(), sha256);
+            return markChecked(version, sourceModified);
+        }
+        
+        LoadProgress run = start(definition, "refresh");
+        log.info("Refreshing dataset {} from {} ({}, chunk size {})...", definition.name(), source, definition.format(), chunkSize);
+        try {
+            DiffWriter<E> writer = new DiffWriter<>(definition, run);
+            long records = read(definition, file, writer, run);
+            writer.finish();
+            
+            long elapsedMillis = Math.max(1, run.elapsedMillis());
+            if (writer.inserted + writer.updated + writer.deleted > 0 || version.getVersion() == 0) {
+                version.setVersion(version.getVersion() + 1);
+                version.setLoadedAt(LocalDateTime.now());
+            }
+            version.setSource(source);
+            version.setContentHash(sha256);
+            version.setSourceModified(sourceModified);
+            version.setRecordCount(records);
+            version.setRowCount(writer.inserted + writer.updated + writer.unchanged);
+            version.setErrorCount(run.errors.sum());
+            version.setDurationMillis(elapsedMillis);
+            version.setInsertedCount(writer.inserted);
+            version.setUpdatedCount(writer.updated);
+            version.setDeletedCount(writer.deleted);
+            version.setCheckedAt(LocalDateTime.now());
+            version = versionRepository.save(version);
+            run.finish(Files.size(file));
+            
+            log.info("Dataset {} v{} refreshed! Records: {}, Inserted: {}, Updated: {}, Deleted: {}, Unchanged: {}, Errors: {} in {} ms",
+                     definition.name(), version.getVersion(), records, writer.inserted, writer.updated, writer.deleted,
+                     writer.unchanged, version.getErrorCount(), elapsedMillis);
+            return DatasetRefreshDTO.builder()
+                    .name(definition.name())
+                    .status("REFRESHED")
+                    .version(version.getVersion())
+                    .sourceModified(sourceModified)
+                    .recordsRead(records)
+                    .inserted(writer.inserted)
+                    .updated(writer.updated)
+                    .deleted(writer.deleted)
+                    .unchanged(writer.unchanged)
+                    .errorCount(version.getErrorCount())
+                    .elapsedMillis(elapsedMillis)
+                    .checkedAt(version.getCheckedAt())
+                    .build();
+        } catch (IOException e) {
+            run.fail(e);
+            throw new UncheckedIOException("Refreshing dataset " + definition.name() + " failed", e);
+        } catch (RuntimeException e) {
+            run.fail(e);
+            throw e;
+        }
+    }
+    
+    /**
+     * Record that a dataset's source was checked and found unmodified
+     */
+    @Transactional
+    public DatasetRefreshDTO markChecked(String name, String sourceModified) {
+        return markChecked(findVersion(name), sourceModified);
+    }
+    
+    /**
+     * Registered dataset by name
+     *
+     * @throws IllegalArgumentException if there is no such dataset
+     */
+    public DatasetDefinition<?> getDefinition(String name) {
+        return definitions.stream()
+                .filter(definition -> definition.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown dataset: " + name));
+    }
+    
+    /**
+     * Registered dataset that supports refreshing
+     *
+     * @throws IllegalArgumentException if there is no such dataset or it has no source key
+     */
+    public RefreshableDataset<?> getRefreshable(String name) {
+        if (getDefinition(name) instanceof RefreshableDataset<?> refreshable) {
+            return refreshable;
+        }
+        throw new IllegalArgumentException("Dataset " + name + " cannot be refreshed incrementally");
+    }
+    
+    /**
+     * Live progress of every registered dataset, with its last completed version
+     */
+    public List<DatasetStatusDTO> getStatus() {
+        Map<String, DatasetVersionEntity> versions = new HashMap<>();
+        versionRepository.findAll().forEach(version -> versions.put(version.getName(), version));
+        
+        List<DatasetStatusDTO> statuses = new ArrayList<>(definitions.size());
+        for (DatasetDefinition<?> definition : definitions) {
+            LoadProgress run = progress.get(definition.name());
+            DatasetVersionEntity version = versions.get(definition.name());
+            DatasetStatusDTO.DatasetStatusDTOBuilder status = DatasetStatusDTO.builder()
+                    .name(definition.name())
+                    .format(definition.format().name())
+                    .source(definition.resource())
+                    .state(run != null ? run.state : version != null ? "LOADED" : "NOT_LOADED");
+            if (run != null) {
+                status.recordsRead(run.records.sum())
+                        .rowsWritten(run.rows.sum())
+                        .errorCount(run.errors.sum())
+                        .elapsedMillis(run.elapsedMillis())
+                        .lastError(run.lastError);
+            } else if (version != null) {
+                status.recordsRead(version.getRecordCount())
+                        .rowsWritten(version.getRowCount())
+                        .errorCount(version.getErrorCount())
+                        .elapsedMillis(version.getDurationMillis());
+            }
+            if (version != null) {
+                status.version(version.getVersion())
+                        .contentHash(version.getContentHash())
+                        .loadedAt(version.getLoadedAt())
+                        .sourceModified(version.getSourceModified())
+                        .checkedAt(version.getCheckedAt());
+            }
+            statuses.add(status.build());
+        }
+        return statuses;
+    }
+    
+    /**
+     * Track a new run of {@code operation} ("load" or "refresh") on a dataset
+     */
+    private LoadProgress start(DatasetDefinition<?> definition, String operation) {
+        LoadProgress run = new LoadProgress(meterRegistry, Tags.of("dataset", definition.name(), "operation", operation));
+        progress.put(definition.name(), run);
+        return run;
+    }
+    
+    private DatasetVersionEntity findVersion(String name) {
+        return versionRepository.findById(name)
+                .orElseGet(() -> {
+                    DatasetVersionEntity created = new DatasetVersionEntity();
+                    created.setName(name);
+                    return created;
+                });
+    }
+    
+    private DatasetRefreshDTO markChecked(DatasetVersionEntity version, String sourceModified) {
+        version.setSourceModified(sourceModified);
+        version.setCheckedAt(LocalDateTime.now());
+        version = versionRepository.save(version);
+        return DatasetRefreshDTO.builder()
+                .name(version.getName())
+                .status("UNCHANGED")
+                .version(version.getVersion())
+                .sourceModified(sourceModified)
+                .unchanged(version.getRowCount())
+                .checkedAt(version.getCheckedAt())
+                .build();
+    }
+    
+    /**
+     * Stream a source file of the dataset's format through the mapper into {@code sink}
+     *
+     * @return number of source records read
+     */
+    private <E> long read(DatasetDefinition<E> definition, Path path, EntitySink<E> sink,
+                          LoadProgress run) throws IOException {
+        return switch (definition.format()) {
+            case CSV -> readCsv(definition, path, sink, run);
+            case JSON -> readJson(definition, path, sink, run);
+            case XLSX -> readXlsx(definition, path, sink, run);
+        };
+    }
+    
+    /**
+     * Parse and map on a worker pool, in record-aligned byte ranges of a memory-mapped view;
+     * mapped entities come back in file order and are inserted on this thread, which owns
+     * the transaction
+     */
+    private <E> long readCsv(DatasetDefinition<E> definition, Path path, EntitySink<E> writer,
+                             LoadProgress run) throws IOException {
+        List<String> columns;
+        try (MappedCsvReader header = MappedCsvReader.open(path)) {
+            columns = header.headers();
+        }
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            return ParallelCsvReader.forEachChunk(path, pool, row -> {
+                List<E> entities = new ArrayList<>(1);
+                mapRecord(definition, new CsvDatasetRecord(row, columns), entities::add, run);
+                return entities;
+            }, chunk -> chunk.forEach(entities -> entities.forEach(writer::add)));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+    
+    private <E> long readJson(DatasetDefinition<E> definition, Path path, EntitySink<E> writer,
+                              LoadProgress run) throws IOException {
+        try (InputStream in = Files.newInputStream(path);
+             JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException(definition.resource() + " is not a JSON array");
+            }
+            long records = 0;
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                Map<String, Object> object = parser.readValueAs(JSON_OBJECT);
+                mapRecord(definition, new JsonDatasetRecord(object, ++records), writer::add, run);
+            }
+            return records;
+        }
+    }
+    
+    private <E> long readXlsx(DatasetDefinition<E> definition, Path path, EntitySink<E> writer,
+                              LoadProgress run) throws IOException {
+        try (XlsxSheetReader sheet = XlsxSheetReader.open(path, definition.sheet())) {
+            List<String> columns = sheet.headers();
+            Map<String, Integer> columnIndex = new HashMap<>();
+            for (int i = 0; i < columns.size(); i++) {
+                columnIndex.putIfAbsent(columns.get(i), i);
+            }
+            long records = 0;
+            String[] cells;
+            while ((cells = sheet.next()) != null) {
+                records++;
+                mapRecord(definition, new SheetDatasetRecord(columns, columnIndex, cells, sheet.rowNumber()), writer::add, run);
+            }
+            return records;
+        }
+    }
+    
+    private <E> void mapRecord(DatasetDefinition<E> definition, DatasetRecord record,
+                               Consumer<E> entities, LoadProgress run) {
+        run.recordRead();
+        try {
+            if (definition instanceof RefreshableDataset<?>) {
+                // Hashed here, on the parser threads for CSV, so refreshes can skip unchanged rows
+                String hash = record.contentHash();
+                definition.map(record, entity -> {
+                    ((SourceKeyed) entity).setContentHash(hash);
+                    entities.accept(entity);
+                });
+            } else {
+                definition.map(record, entities);
+            }
+        } catch (Exception e) {
+            run.recordError();
+            run.lastError = record.location() + ": " + e.getMessage();
+            log.error("Error loading {} record at {}: {}", definition.name(), record.location(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Receives mapped entities, in source order, on the thread that owns the transaction
+     */
+    private interface EntitySink<E> {
+        
+        void add(E entity);
+    }
+    
+    /**
+     * Collects entities and inserts them as JDBC batches, detaching each batch so the
+     * persistence context does not grow
+     */
+    private final class BatchWriter<E> implements EntitySink<E> {
+        
+        private final DatasetDefinition<E> definition;
+        private final LoadProgress run;
+        private final List<E> chunk = new ArrayList<>(chunkSize);
+        
+        BatchWriter(DatasetDefinition<E> definition, LoadProgress run) {
+            this.definition = definition;
+            this.run = run;
+        }
+        
+        @Override
+        public void add(E entity) {
+            chunk.add(entity);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+        
+        void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            definition.repository().saveAll(chunk);
+            entityManager.flush();
+            entityManager.clear();
+            run.rowsWritten(chunk.size());
+            chunk.clear();
+        }
+    }
+    
+    /**
+     * Diffs entities against the stored rows by source key and content hash. New rows are
+     * inserted and changed rows merged onto their stored id, each in JDBC batches; the rows
+     * of a merge batch are loaded with one IN query first so the merges need no selects of
+     * their own. Stored rows not matched by the end are deleted in batches.
+     */
+    private final class DiffWriter<E extends SourceKeyed> implements EntitySink<E> {
+        
+        private final RefreshableDataset<E> definition;
+        private final LoadProgress run;
+        private final Map<String, SourceRowVersion> stored = new HashMap<>();
+        // Rows that can never be matched: stored without a key or under a repeated one
+        private final List<Long> orphans = new ArrayList<>();
+        private final Set<String> seen = new HashSet<>();
+        private final List<E> inserts = new ArrayList<>(chunkSize);
+        private final List<E> updates = new ArrayList<>(chunkSize);
+        long inserted;
+        long updated;
+        long deleted;
+        long unchanged;
+        
+        DiffWriter(RefreshableDataset<E> definition, LoadProgress run) {
+            this.definition = definition;
+            this.run = run;
+            for (SourceRowVersion row : definition.storedRows()) {
+                if (row.getSourceKey() == null || stored.putIfAbsent(row.getSourceKey(), row) != null) {
+                    orphans.add(row.getId());
+                }
+            }
+        }
+        
+        @Override
+        public void add(E entity) {
+            String key = entity.getSourceKey();
+            if (key == null || !seen.add(key)) {
+                run.recordError();
+                run.lastError = key == null ? "record without a source key" : "duplicate source key " + key;
+                log.warn("Skipping {} record on refresh: {}", definition.name(), run.lastError);
+                return;
+            }
+            SourceRowVersion current = stored.remove(key);
+            if (current == null) {
+                inserts.add(entity);
+                if (inserts.size() >= chunkSize) {
+                    flushInserts();
+                }
+            } else if (!Objects.equals(current.getContentHash(), entity.getContentHash())) {
+                entity.setId(current.getId());
+                updates.add(entity);
+                if (updates.size() >= chunkSize) {
+                    flushUpdates();
+                }
+            } else {
+                unchanged++;
+            }
+        }
+        
+        /**
+         * Write what is pending, then delete every stored row the source no longer has
+         */
+        void finish() {
+            flushInserts();
+            flushUpdates();
+            List<Long> missing = new ArrayList<>(orphans);
+            stored.values().forEach(row -> missing.add(row.getId()));
+            for (int from = 0; from < missing.size(); from += chunkSize) {
+                List<Long> ids = missing.subList(from, Math.min(from + chunkSize, missing.size()));
+                definition.repository().deleteAllByIdInBatch(ids);
+                deleted += ids.size();
+                run.rowsWritten(ids.size());
+            }
+        }
+        
+        private void flushInserts() {
+            if (inserts.isEmpty()) {
+                return;
+            }
+            definition.repository().saveAll(inserts);
+            entityManager.flush();
+            entityManager.clear();
+            inserted += inserts.size();
+            run.rowsWritten(inserts.size());
+            inserts.clear();
+        }
+        
+        private void flushUpdates() {
+            if (updates.isEmpty()) {
+                return;
+            }
+            definition.repository().findAllById(updates.stream().map(SourceKeyed::getId).toList());
+            updates.forEach(entityManager::merge);
+            entityManager.flush();
+            entityManager.clear();
+            updated += updates.size();
+            run.rowsWritten(updates.size());
+            updates.clear();
+        }
+    }
+    
+    /**
+     * Counters of one load; written by the loader and parser threads, read by status requests.
+     * Also feeds the ingest meters: live record, row and error counters (rate() gives
+     * throughput while a load runs), and on completion its duration, bytes read and rows and
+     * bytes per second.
+     */
+    private static final class LoadProgress {
+        
+        final LongAdder records = new LongAdder();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final long startNanos = System.nanoTime();
+        volatile long finishNanos;
+        volatile String state = "LOADING";
+        volatile String lastError;
+        
+        private final MeterRegistry registry;
+        private final Tags tags;
+        private final Counter recordCounter;
+        private final Counter rowCounter;
+        private final Counter errorCounter;
+        
+        LoadProgress(MeterRegistry registry, Tags tags) {
+            this.registry = registry;
+            this.tags = tags;
+            this.recordCounter = Counter.builder("opendata.dataset.ingest.records")
+                    .description("Source records read").tags(tags).register(registry);
+            this.rowCounter = Counter.builder("opendata.dataset.ingest.rows")
+                    .description("Rows inserted, updated or deleted").tags(tags).register(registry);
+            this.errorCounter = Counter.builder("opendata.dataset.ingest.errors")
+                    .description("Source records that failed to map").tags(tags).register(registry);
+        }
+        
+        void recordRead() {
+            records.increment();
+            recordCounter.increment();
+        }
+        
+        void recordError() {
+            errors.increment();
+            errorCounter.increment();
+        }
+        
+        void rowsWritten(int count) {
+            rows.add(count);
+            rowCounter.increment(count);
+        }
+        
+        long elapsedMillis() {
+            long end = finishNanos != 0 ? finishNanos : System.nanoTime();
+            return (end - startNanos) / 1_000_000;
+        }
+        
+        void finish(long sourceBytes) {
+            finishNanos = System.nanoTime();
+            state = "LOADED";
+            long elapsedNanos = Math.max(1, finishNanos - startNanos);
+            record("success");
+            Counter.builder("opendata.dataset.ingest.bytes")
+                    .description("Source bytes read").baseUnit("bytes").tags(tags).register(registry)
+                    .increment(sourceBytes);
+            DistributionSummary.builder("opendata.dataset.ingest.rows.per.second")
+                    .description("Write throughput of completed runs").tags(tags).register(registry)
+                    .record(rows.sum() * 1e9 / elapsedNanos);
+            DistributionSummary.builder("opendata.dataset.ingest.bytes.per.second")
+                    .description("Read throughput of completed runs").tags(tags).register(registry)
+                    .record(sourceBytes * 1e9 / elapsedNanos);
+        }
+        
+        void fail(Exception e) {
+            finishNanos = System.nanoTime();
+            state = "FAILED";
+            lastError = e.getMessage();
+            record("failure");
+        }
+        
+        private void record(String outcome) {
+            Timer.builder("opendata.dataset.ingest")
+                    .description("Duration of dataset loads and refreshes").tags(tags).tag("outcome", outcome)
+                    .register(registry)
+                    .record(finishNanos - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    /**
+     * The source as a real file (memory mapping and zip access need one), with its SHA-256.
+     * Resources packed in the jar are copied out to a temporary file, deleted on close.
+     */
+    private record SourceFile(Path path, String sha256, boolean temporary) implements AutoCloseable {
+        
+        static SourceFile of(String resourcePath) throws IOException {
+            ClassPathResource resource = new ClassPathResource(resourcePath);
+            if (resource.isFile()) {
+                Path path = resource.getFile().toPath();
+                return new SourceFile(path, sha256(path), false);
+            }
+            MessageDigest digest = sha256Digest();
+            String name = Path.of(resourcePath).getFileName().toString();
+            Path copy = Files.createTempFile("dataset-", "-" + name.replace(' ', '_'));
+            try (InputStream in = new DigestInputStream(resource.getInputStream(), digest)) {
+                Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(copy);
+                throw e;
+            }
+            return new SourceFile(copy, HexFormat.of().formatHex(digest.digest()), true);
+        }
+        
+        static String sha256(Path path) throws IOException {
+            MessageDigest digest = sha256Digest();
+            try (InputStream in = new DigestInputStream(Files.newInputStream(path), digest)) {
+                in.transferTo(OutputStream.nullOutputStream());
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        }
+        
+        @Override
+        public void close() {
+            if (temporary) {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Could not delete temporary dataset copy {}", path);
+                }
+            }
+        }
+        
+        private static MessageDigest sha256Digest() {
+            try {
+                return MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+    }
+}
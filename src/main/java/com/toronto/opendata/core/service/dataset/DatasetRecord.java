@@ -0,0 +1,111 @@
+package com.toronto.opendata.core.service.dataset;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * One source record, whatever the file format, as text columns.
+ * Views are only valid inside {@link DatasetDefinition#map} and must not be kept.
+ */
+public interface DatasetRecord {
+    
+    /**
+     * Column names in source order (CSV/XLSX header, JSON object keys)
+     */
+    List<String> columns();
+    
+    /**
+     * Raw value of a column by position; null if the record has no such column
+     */
+    String get(int index);
+    
+    /**
+     * Raw value of a column by name; null if the record has no such column
+     */
+    String get(String column);
+    
+    /**
+     * Position of the record in the source: byte offset (CSV), 1-based element (JSON) or
+     * sheet row (XLSX)
+     */
+    long position();
+    
+    /**
+     * Where the record is in the source, for error messages
+     */
+    String location();
+    
+    /**
+     * Trimmed value of a column; null when missing, blank or "None"
+     */
+    default String value(String column) {
+        return clean(get(column));
+    }
+    
+    default Integer intValue(String column) {
+        Double number = doubleValue(column);
+        return number == null ? null : (int) Math.round(number);
+    }
+    
+    default Double doubleValue(String column) {
+        return parseDouble(value(column));
+    }
+    
+    /**
+     * True for 1, true and yes (any case); null when the value is missing
+     */
+    default Boolean booleanValue(String column) {
+        String value = value(column);
+        if (value == null) {
+            return null;
+        }
+        return value.equals("1") || value.equalsIgnoreCase("true") || value.equalsIgnoreCase("yes");
+    }
+    
+    /**
+     * SHA-256 of the raw values in column order, hex encoded; changes whenever a value does
+     */
+    default String contentHash() {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        int size = columns().size();
+        for (int i = 0; i < size; i++) {
+            String value = get(i);
+            if (value != null) {
+                digest.update(value.getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) 0x1F); // unit separator, so "a","bc" and "ab","c" differ
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+    
+    static String clean(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() || trimmed.equalsIgnoreCase("None") ? null : trimmed;
+    }
+    
+    /**
+     * Number from text, ignoring thousands separators; null when the text is not a number
+     */
+    static Double parseDouble(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            double number = Double.parseDouble(value.indexOf(',') >= 0 ? value.replace(",", "") : value);
+            return Double.isFinite(number) ? number : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
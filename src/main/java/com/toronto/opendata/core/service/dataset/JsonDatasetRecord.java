@@ -0,0 +1,50 @@
+package com.toronto.opendata.core.service.dataset;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Record view over one object of a JSON array; scalar values are returned as their JSON text
+ */
+final class JsonDatasetRecord implements DatasetRecord {
+    
+    private final Map<String, Object> object;
+    private final long index;
+    private List<String> columns;
+    
+    JsonDatasetRecord(Map<String, Object> object, long index) {
+        this.object = object;
+        this.index = index;
+    }
+    
+    @Override
+    public List<String> columns() {
+        if (columns == null) {
+            columns = new ArrayList<>(object.keySet());
+        }
+        return columns;
+    }
+    
+    @Override
+    public String get(int index) {
+        List<String> names = columns();
+        return index >= 0 && index < names.size() ? get(names.get(index)) : null;
+    }
+    
+    @Override
+    public String get(String column) {
+        Object value = object.get(column);
+        return value == null ? null : value.toString();
+    }
+    
+    @Override
+    public long position() {
+        return index;
+    }
+    
+    @Override
+    public String location() {
+        return "element " + index;
+    }
+}
@@ -0,0 +1,74 @@
+package com.toronto.opendata.core.service.dataset;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.toronto.opendata.core.entity.LibraryBranchEntity;
+import com.toronto.opendata.core.repository.LibraryBranchRepository;
+import com.toronto.opendata.core.repository.SourceRowVersion;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Toronto Public Library branches (JSON array, one object per branch)
+ */
+@Component
+@Order(3)
+@RequiredArgsConstructor
+public class LibraryBranchesDataset implements RefreshableDataset<LibraryBranchEntity> {
+    
+    private final LibraryBranchRepository repository;
+    
+    @Override
+    public String name() {
+        return "library-branches";
+    }
+    
+    @Override
+    public String resource() {
+        return "data/tpl-branch-general-information-2023.json";
+    }
+    
+    @Override
+    public DatasetFormat format() {
+        return DatasetFormat.JSON;
+    }
+    
+    @Override
+    public LibraryBranchRepository repository() {
+        return repository;
+    }
+    
+    @Override
+    public List<SourceRowVersion> storedRows() {
+        return repository.findSourceRowVersions();
+    }
+    
+    @Override
+    public void map(DatasetRecord record, Consumer<LibraryBranchEntity> entities) {
+        LibraryBranchEntity entity = new LibraryBranchEntity();
+        entity.setSourceId(record.value("_id"));
+        entity.setBranchCode(record.value("BranchCode"));
+        entity.setBranchName(record.value("BranchName"));
+        entity.setPhysicalBranch(record.booleanValue("PhysicalBranch"));
+        entity.setAddress(record.value("Address"));
+        entity.setPostalCode(record.value("PostalCode"));
+        entity.setWebsite(record.value("Website"));
+        entity.setTelephone(record.value("Telephone"));
+        entity.setSquareFootage(record.intValue("SquareFootage"));
+        entity.setPublicParking(record.value("PublicParking"));
+        entity.setWorkstations(record.intValue("Workstations"));
+        entity.setServiceTier(record.value("ServiceTier"));
+        entity.setNeighbourhoodNumber(record.intValue("NBHDNo"));
+        entity.setNeighbourhood(record.value("NBHDName"));
+        entity.setWardNumber(record.intValue("WardNo"));
+        entity.setWardName(record.value("WardName"));
+        entity.setPresentSiteYear(record.intValue("PresentSiteYear"));
+        entity.setLatitude(record.doubleValue("Lat"));
+        entity.setLongitude(record.doubleValue("Long"));
+        entities.accept(entity);
+    }
+}
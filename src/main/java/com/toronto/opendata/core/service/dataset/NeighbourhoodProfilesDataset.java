@@ -0,0 +1,69 @@
+package com.toronto.opendata.core.service.dataset;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.toronto.opendata.core.entity.NeighbourhoodProfileEntity;
+import com.toronto.opendata.core.repository.NeighbourhoodProfileRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 2021 census profile of every neighbourhood. The sheet has a row per characteristic and a
+ * column per neighbourhood; each row is unpivoted into one entity per neighbourhood.
+ */
+@Component
+@Order(5)
+@RequiredArgsConstructor
+public class NeighbourhoodProfilesDataset implements DatasetDefinition<NeighbourhoodProfileEntity> {
+    
+    private final NeighbourhoodProfileRepository repository;
+    
+    @Override
+    public String name() {
+        return "neighbourhood-profiles";
+    }
+    
+    @Override
+    public String resource() {
+        return NeighbourhoodsDataset.WORKBOOK;
+    }
+    
+    @Override
+    public DatasetFormat format() {
+        return DatasetFormat.XLSX;
+    }
+    
+    @Override
+    public String sheet() {
+        return "hd2021_census_profile";
+    }
+    
+    @Override
+    public NeighbourhoodProfileRepository repository() {
+        return repository;
+    }
+    
+    @Override
+    public void map(DatasetRecord record, Consumer<NeighbourhoodProfileEntity> entities) {
+        String characteristic = record.value(record.columns().get(0));
+        if (characteristic == null) {
+            return;
+        }
+        int rowNumber = (int) record.position();
+        List<String> neighbourhoods = record.columns();
+        for (int column = 1; column < neighbourhoods.size(); column++) {
+            String value = DatasetRecord.clean(record.get(column));
+            NeighbourhoodProfileEntity entity = new NeighbourhoodProfileEntity();
+            entity.setNeighbourhood(neighbourhoods.get(column));
+            entity.setRowNumber(rowNumber);
+            entity.setCharacteristic(characteristic);
+            entity.setValue(value);
+            entity.setNumericValue(DatasetRecord.parseDouble(value));
+            entities.accept(entity);
+        }
+    }
+}
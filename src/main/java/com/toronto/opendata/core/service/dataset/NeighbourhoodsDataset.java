@@ -0,0 +1,61 @@
+package com.toronto.opendata.core.service.dataset;
+
+import java.util.function.Consumer;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.toronto.opendata.core.entity.NeighbourhoodEntity;
+import com.toronto.opendata.core.repository.NeighbourhoodRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * The 158 neighbourhoods, from the metadata sheet of the neighbourhood profiles workbook
+ */
+@Component
+@Order(4)
+@RequiredArgsConstructor
+public class NeighbourhoodsDataset implements DatasetDefinition<NeighbourhoodEntity> {
+    
+    static final String WORKBOOK = "data/neighbourhood-profiles-2021-158-model.xlsx";
+    
+    private final NeighbourhoodRepository repository;
+    
+    @Override
+    public String name() {
+        return "neighbourhoods";
+    }
+    
+    @Override
+    public String resource() {
+        return WORKBOOK;
+    }
+    
+    @Override
+    public DatasetFormat format() {
+        return DatasetFormat.XLSX;
+    }
+    
+    @Override
+    public String sheet() {
+        return "Nbhdmetadata";
+    }
+    
+    @Override
+    public NeighbourhoodRepository repository() {
+        return repository;
+    }
+    
+    @Override
+    public void map(DatasetRecord record, Consumer<NeighbourhoodEntity> entities) {
+        NeighbourhoodEntity entity = new NeighbourhoodEntity();
+        entity.setNumber(record.intValue("HDNUM"));
+        entity.setName(record.value("HDNAME"));
+        entity.setCensusProfileName(record.value("NEIGHBOURHOOD FULL CENSUS PROFILE NAME"));
+        entity.setDesignation(record.value("TSNS DESIGNATION"));
+        if (entity.getName() != null) {
+            entities.accept(entity);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.toronto.opendata.core.service.dataset;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import com.toronto.opendata.core.entity.PlaceOfWorshipEntity;
+import com.toronto.opendata.core.repository.PlaceOfWorshipRepository;
+import com.toronto.opendata.core.repository.SourceRowVersion;
+import com.toronto.opendata.core.util.GeometryParser;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Places of worship (address points with faith organization details, WGS84 geometry)
+ */
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class PlacesOfWorshipDataset implements RefreshableDataset<PlaceOfWorshipEntity> {
+    
+    private final PlaceOfWorshipRepository repository;
+    
+    @Override
+    public String name() {
+        return "places-of-worship";
+    }
+    
+    @Override
+    public String resource() {
+        return "data/Places of Worship - 4326.csv";
+    }
+    
+    @Override
+    public DatasetFormat format() {
+        return DatasetFormat.CSV;
+    }
+    
+    @Override
+    public PlaceOfWorshipRepository repository() {
+        return repository;
+    }
+    
+    @Override
+    public List<SourceRowVersion> storedRows() {
+        return repository.findSourceRowVersions();
+    }
+    
+    @Override
+    public void map(DatasetRecord record, Consumer<PlaceOfWorshipEntity> entities) {
+        PlaceOfWorshipEntity entity = new PlaceOfWorshipEntity();
+        entity.setCsvId(record.value("_id"));
+        entity.setAddressPointId(record.value("ADDRESS_POINT_ID"));
+        entity.setAddress(record.value("ADDRESS_FULL"));
+        entity.setPostalCode(record.value("POSTAL_CODE"));
+        entity.setMunicipality(record.value("MUNICIPALITY"));
+        entity.setPlaceName(record.value("PLACE_NAME"));
+        entity.setOrganization(record.value("FTH_ORGANIZATION"));
+        entity.setFaith(record.value("FTH_FAITH"));
+        entity.setDenomination(record.value("FTH_DENOMINATION"));
+        entity.setGrouping(record.value("FTH_GROUPING"));
+        entity.setPhone(record.value("FTH_PHONE"));
+        entity.setWebsite(record.value("FTH_WEBSITE"));
+        entity.setWardName(record.value("WARD_NAME"));
+        entity.setNeighbourhood(record.value("NEIGHBOURHOOD_NAME"));
+        
+        // LATITUDE/LONGITUDE are mostly empty; the geometry always has the point
+        double[] position = new double[2];
+        String geometryJson = record.value("geometry");
+        if (geometryJson != null && GeometryParser.readFirstPosition(geometryJson, position)) {
+            entity.setLongitude(position[0]);
+            entity.setLatitude(position[1]);
+        } else {
+            entity.setLatitude(record.doubleValue("LATITUDE"));
+            entity.setLongitude(record.doubleValue("LONGITUDE"));
+        }
+        entities.accept(entity);
+    }
+}
@@ -0,0 +1,24 @@
+package com.toronto.opendata.core.service.dataset;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.toronto.opendata.core.entity.SourceKeyed;
+import com.toronto.opendata.core.repository.SourceRowVersion;
+
+/**
+ * A dataset whose records carry a stable key, so a new copy of the source can be applied as
+ * a diff: rows are matched on {@link SourceKeyed#getSourceKey()} and only inserted, updated
+ * (content hash changed) or deleted (key gone) where the source changed.
+ */
+public interface RefreshableDataset<E extends SourceKeyed> extends DatasetDefinition<E> {
+    
+    @Override
+    JpaRepository<E, Long> repository();
+    
+    /**
+     * Key and content hash of every stored row
+     */
+    List<SourceRowVersion> storedRows();
+}
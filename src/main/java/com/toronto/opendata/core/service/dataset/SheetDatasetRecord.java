@@ -0,0 +1,51 @@
+package com.toronto.opendata.core.service.dataset;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Record view over one worksheet row
+ */
+final class SheetDatasetRecord implements DatasetRecord {
+    
+    private final List<String> columns;
+    private final Map<String, Integer> columnIndex;
+    private final String[] cells;
+    private final long rowNumber;
+    
+    SheetDatasetRecord(List<String> columns, Map<String, Integer> columnIndex, String[] cells, long rowNumber) {
+        this.columns = columns;
+        this.columnIndex = columnIndex;
+        this.cells = cells;
+        this.rowNumber = rowNumber;
+    }
+    
+    @Override
+    public List<String> columns() {
+        return columns;
+    }
+    
+    @Override
+    public String get(int index) {
+        if (index < 0 || index >= columns.size()) {
+            return null;
+        }
+        return index < cells.length ? cells[index] : "";
+    }
+    
+    @Override
+    public String get(String column) {
+        Integer index = columnIndex.get(column);
+        return index == null ? null : get(index);
+    }
+    
+    @Override
+    public long position() {
+        return rowNumber;
+    }
+    
+    @Override
+    public String location() {
+        return "row " + rowNumber;
+    }
+}
@@ -0,0 +1,208 @@
+package com.toronto.opendata.core.util;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical point clustering index (a port of the Supercluster algorithm).
+ *
+ * Points are projected to Web Mercator in [0, 1] and greedily clustered zoom by zoom, from
+ * {@code maxZoom} down to {@code minZoom}: each level merges the clusters of the level above
+ * that lie within {@code radius} pixels (at tile size {@code extent}) of each other. Every
+ * level keeps its own {@link KdTree}, so a viewport query at any zoom only touches the
+ * clusters visible there and its result size is bounded by the viewport, not the dataset.
+ * Level {@code maxZoom + 1} holds the unclustered points.
+ */
+public final class ClusterIndex {
+
+    /**
+     * Receives one cluster or point of a query result.
+     *
+     * @param x     Web Mercator x in [0, 1]
+     * @param y     Web Mercator y in [0, 1]
+     * @param count number of original points represented
+     * @param ref   position of the original point when {@code count == 1},
+     *              otherwise {@code -(clusterId + 1)}
+     */
+    @FunctionalInterface
+    public interface ClusterConsumer {
+        void accept(double x, double y, int count, int ref);
+    }
+
+    private final int minZoom;
+    private final int maxZoom;
+    private final Level[] levels;
+
+    private ClusterIndex(int minZoom, int maxZoom, Level[] levels) {
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        this.levels = levels;
+    }
+
+    /**
+     * Build the index over the given points
+     *
+     * @param radius cluster radius in pixels
+     * @param extent tile size in pixels the radius is relative to
+     */
+    public static ClusterIndex build(double[] latitudes, double[] longitudes,
+                                     int minZoom, int maxZoom, int radius, int extent) {
+        int n = latitudes.length;
+        double[] xs = new double[n];
+        double[] ys = new double[n];
+        int[] counts = new int[n];
+        int[] refs = new int[n];
+        for (int i = 0; i < n; i++) {
+            xs[i] = GeoUtils.lonToTileX(longitudes[i], 0);
+            ys[i] = GeoUtils.latToTileY(latitudes[i], 0);
+            counts[i] = 1;
+            refs[i] = i;
+        }
+
+        Level[] levels = new Level[maxZoom + 2];
+        Level level = new Level(xs, ys, counts, refs);
+        levels[maxZoom + 1] = level;
+        int[] nextClusterId = {0};
+        for (int z = maxZoom; z >= minZoom; z--) {
+            level = cluster(level, radius / (extent * Math.pow(2, z)), nextClusterId);
+            levels[z] = level;
+        }
+        return new ClusterIndex(minZoom, maxZoom, levels);
+    }
+
+    public int maxZoom() {
+        return maxZoom;
+    }
+
+    /**
+     * Clusters at {@code zoom} inside the lat/lon box. Boxes crossing the antimeridian
+     * ({@code minLon > maxLon}) are split in two.
+     */
+    public void getClusters(double minLat, double maxLat, double minLon, double maxLon, int zoom,
+                            ClusterConsumer consumer) {
+        double minX = GeoUtils.lonToTileX(Math.max(-180, Math.min(180, minLon)), 0);
+        double maxX = GeoUtils.lonToTileX(Math.max(-180, Math.min(180, maxLon)), 0);
+        double minY = GeoUtils.latToTileY(maxLat, 0);
+        double maxY = GeoUtils.latToTileY(minLat, 0);
+        if (maxLon - minLon >= 360) {
+            getClustersInMercator(0, minY, 1, maxY, zoom, consumer);
+        } else if (minLon > maxLon) {
+            getClustersInMercator(minX, minY, 1, maxY, zoom, consumer);
+            getClustersInMercator(0, minY, maxX, maxY, zoom, consumer);
+        } else {
+            getClustersInMercator(minX, minY, maxX, maxY, zoom, consumer);
+        }
+    }
+
+    /**
+     * Clusters at {@code zoom} inside a Web Mercator box in [0, 1] coordinates
+     */
+    public void getClustersInMercator(double minX, double minY, double maxX, double maxY, int zoom,
+                                      ClusterConsumer consumer) {
+        Level level = levels[Math.max(minZoom, Math.min(zoom, maxZoom + 1))];
+        level.tree.range(minX, minY, maxX, maxY,
+                i -> consumer.accept(level.xs[i], level.ys[i], level.counts[i], level.refs[i]));
+    }
+
+    /**
+     * Merge the entries of {@code previous} that lie within {@code r} of each other
+     */
+    private static Level cluster(Level previous, double r, int[] nextClusterId) {
+        int n = previous.xs.length;
+        boolean[] consumed = new boolean[n];
+        Builder next = new Builder(n);
+        IntList neighbours = new IntList();
+
+        for (int i = 0; i < n; i++) {
+            if (consumed[i]) {
+                continue;
+            }
+            consumed[i] = true;
+
+            neighbours.clear();
+            previous.tree.within(previous.xs[i], previous.ys[i], r, neighbours::add);
+
+            int count = previous.counts[i];
+            double wx = previous.xs[i] * count;
+            double wy = previous.ys[i] * count;
+            int merged = count;
+            for (int k = 0; k < neighbours.size; k++) {
+                int j = neighbours.values[k];
+                if (consumed[j]) {
+                    continue;
+                }
+                consumed[j] = true;
+                int c = previous.counts[j];
+                wx += previous.xs[j] * c;
+                wy += previous.ys[j] * c;
+                merged += c;
+            }
+
+            if (merged > count) {
+                next.add(wx / merged, wy / merged, merged, -(nextClusterId[0]++ + 1));
+            } else {
+                next.add(previous.xs[i], previous.ys[i], count, previous.refs[i]);
+            }
+        }
+        return next.build();
+    }
+
+    private static final class Level {
+        final double[] xs;
+        final double[] ys;
+        final int[] counts;
+        final int[] refs;
+        final KdTree tree;
+
+        Level(double[] xs, double[] ys, int[] counts, int[] refs) {
+            this.xs = xs;
+            this.ys = ys;
+            this.counts = counts;
+            this.refs = refs;
+            this.tree = KdTree.build(xs, ys);
+        }
+    }
+
+    private static final class Builder {
+        private final double[] xs;
+        private final double[] ys;
+        private final int[] counts;
+        private final int[] refs;
+        private int size;
+
+        Builder(int capacity) {
+            xs = new double[capacity];
+            ys = new double[capacity];
+            counts = new int[capacity];
+            refs = new int[capacity];
+        }
+
+        void add(double x, double y, int count, int ref) {
+            xs[size] = x;
+            ys[size] = y;
+            counts[size] = count;
+            refs[size] = ref;
+            size++;
+        }
+
+        Level build() {
+            return new Level(Arrays.copyOf(xs, size), Arrays.copyOf(ys, size),
+                    Arrays.copyOf(counts, size), Arrays.copyOf(refs, size));
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        void clear() {
+            size = 0;
+        }
+    }
+}
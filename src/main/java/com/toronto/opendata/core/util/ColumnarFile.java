@@ -0,0 +1,254 @@
+package com.toronto.opendata.core.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, memory-mapped file of named columns, all of the same length.
+ *
+ * Layout: magic, a tag (e.g. the data version the file was written from), the row count and
+ * a directory of columns (type, name, offset, length), then each column's data. Double
+ * columns are raw 8-byte values; string columns are a null bitmap, {@code rows + 1} end
+ * offsets and one UTF-8 blob. Opening a file only maps it and reads the directory; a column
+ * is decoded in full (into a String[] or double[]) when it is asked for, with bulk reads out
+ * of the mapping.
+ *
+ * Files are written to a temporary sibling and moved into place, so a reader never sees a
+ * partial file.
+ */
+public final class ColumnarFile {
+
+    private static final byte[] MAGIC = "ODCOLv01".getBytes(StandardCharsets.US_ASCII);
+    private static final byte STRING = 1;
+    private static final byte DOUBLE = 2;
+
+    private final ByteBuffer data;
+    private final String tag;
+    private final int rowCount;
+    private final Map<String, Column> columns;
+
+    private ColumnarFile(ByteBuffer data, String tag, int rowCount, Map<String, Column> columns) {
+        this.data = data;
+        this.tag = tag;
+        this.rowCount = rowCount;
+        this.columns = columns;
+    }
+
+    /**
+     * Map a file and read its directory
+     *
+     * @throws IOException if the file is missing, truncated or not a columnar file
+     */
+    public static ColumnarFile open(Path path) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            byte[] magic = new byte[MAGIC.length];
+            buffer.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException(path + " is not a columnar file");
+            }
+            String tag = readString(buffer);
+            int rowCount = buffer.getInt();
+            int columnCount = buffer.getInt();
+            Map<String, Column> columns = new LinkedHashMap<>();
+            for (int i = 0; i < columnCount; i++) {
+                byte type = buffer.get();
+                String name = readString(buffer);
+                long offset = buffer.getLong();
+                long length = buffer.getLong();
+                if (offset < 0 || length < 0 || offset + length > buffer.capacity()) {
+                    throw new IOException(path + " is truncated (column " + name + ")");
+                }
+                columns.put(name, new Column(type, (int) offset, (int) length));
+            }
+            return new ColumnarFile(buffer, tag, rowCount, columns);
+        } catch (RuntimeException e) {
+            throw new IOException(path + " is malformed", e);
+        }
+    }
+
+    public String tag() {
+        return tag;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    /**
+     * Decode a string column
+     *
+     * @throws IllegalArgumentException if there is no string column of that name
+     */
+    public String[] strings(String name) {
+        Column column = column(name, STRING);
+        ByteBuffer view = data.slice(column.offset(), column.length());
+        byte[] nulls = new byte[(rowCount + 7) / 8];
+        view.get(nulls);
+        int[] ends = new int[rowCount + 1];
+        view.asIntBuffer().get(ends);
+        view.position(nulls.length + ends.length * Integer.BYTES);
+        byte[] blob = new byte[ends[rowCount]];
+        view.get(blob);
+
+        String[] values = new String[rowCount];
+        for (int row = 0; row < rowCount; row++) {
+            if ((nulls[row >>> 3] & (1 << (row & 7))) == 0) {
+                values[row] = new String(blob, ends[row], ends[row + 1] - ends[row], StandardCharsets.UTF_8);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Decode a double column
+     *
+     * @throws IllegalArgumentException if there is no double column of that name
+     */
+    public double[] doubles(String name) {
+        Column column = column(name, DOUBLE);
+        double[] values = new double[rowCount];
+        data.slice(column.offset(), column.length()).asDoubleBuffer().get(values);
+        return values;
+    }
+
+    private Column column(String name, byte type) {
+        Column column = columns.get(name);
+        if (column == null || column.type() != type) {
+            throw new IllegalArgumentException("No " + (type == STRING ? "string" : "double") + " column " + name);
+        }
+        return column;
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Column(byte type, int offset, int length) {
+    }
+
+    /**
+     * Collects columns in memory and writes them out in one go
+     */
+    public static final class Writer {
+
+        private final String tag;
+        private final int rowCount;
+        private final List<String> names = new ArrayList<>();
+        private final List<Byte> types = new ArrayList<>();
+        private final List<byte[]> sections = new ArrayList<>();
+
+        public Writer(String tag, int rowCount) {
+            this.tag = tag;
+            this.rowCount = rowCount;
+        }
+
+        public Writer strings(String name, String[] values) {
+            checkLength(name, values.length);
+            byte[][] encoded = new byte[rowCount][];
+            byte[] nulls = new byte[(rowCount + 7) / 8];
+            int total = 0;
+            for (int row = 0; row < rowCount; row++) {
+                if (values[row] == null) {
+                    nulls[row >>> 3] |= (byte) (1 << (row & 7));
+                    encoded[row] = new byte[0];
+                } else {
+                    encoded[row] = values[row].getBytes(StandardCharsets.UTF_8);
+                }
+                total += encoded[row].length;
+            }
+            ByteBuffer section = ByteBuffer.allocate(nulls.length + (rowCount + 1) * Integer.BYTES + total);
+            section.put(nulls);
+            int end = 0;
+            section.putInt(end);
+            for (byte[] value : encoded) {
+                end += value.length;
+                section.putInt(end);
+            }
+            for (byte[] value : encoded) {
+                section.put(value);
+            }
+            return add(name, STRING, section.array());
+        }
+
+        public Writer doubles(String name, double[] values) {
+            checkLength(name, values.length);
+            ByteBuffer section = ByteBuffer.allocate(rowCount * Double.BYTES);
+            section.asDoubleBuffer().put(values);
+            return add(name, DOUBLE, section.array());
+        }
+
+        /**
+         * Write to a temporary file next to {@code path} and move it into place
+         */
+        public void writeTo(Path path) throws IOException {
+            byte[] tagBytes = tag.getBytes(StandardCharsets.UTF_8);
+            int headerLength = MAGIC.length + Integer.BYTES + tagBytes.length + 2 * Integer.BYTES;
+            for (String name : names) {
+                headerLength += 1 + Integer.BYTES + name.getBytes(StandardCharsets.UTF_8).length + 2 * Long.BYTES;
+            }
+            ByteBuffer header = ByteBuffer.allocate(headerLength);
+            header.put(MAGIC).putInt(tagBytes.length).put(tagBytes).putInt(rowCount).putInt(names.size());
+            long offset = headerLength;
+            for (int i = 0; i < names.size(); i++) {
+                byte[] name = names.get(i).getBytes(StandardCharsets.UTF_8);
+                header.put(types.get(i)).putInt(name.length).put(name).putLong(offset).putLong(sections.get(i).length);
+                offset += sections.get(i).length;
+            }
+            header.flip();
+
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temporary = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    writeFully(channel, header);
+                    for (byte[] section : sections) {
+                        writeFully(channel, ByteBuffer.wrap(section));
+                    }
+                    channel.force(true);
+                }
+                Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(temporary);
+                throw e;
+            }
+        }
+
+        private Writer add(String name, byte type, byte[] section) {
+            names.add(name);
+            types.add(type);
+            sections.add(section);
+            return this;
+        }
+
+        private void checkLength(String name, int length) {
+            if (length != rowCount) {
+                throw new IllegalArgumentException("Column " + name + " has " + length + " values, expected " + rowCount);
+            }
+        }
+
+        private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
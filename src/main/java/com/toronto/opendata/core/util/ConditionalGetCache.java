@@ -0,0 +1,169 @@
+package com.toronto.opendata.core.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * In-memory cache of GET responses that carry an ETag or Last-Modified validator.
+ *
+ * A cached response is never served as is: the next GET of the same URI is sent with
+ * If-None-Match / If-Modified-Since and the stored body is only replayed when the server
+ * answers 304, so the server stays in charge of freshness and an unchanged response costs
+ * headers only. Responses marked no-store, without validators or larger than
+ * {@code maxEntryBytes} pass through untouched and still stream.
+ *
+ * As a {@link MeterBinder} it reports the cache under Micrometer's cache meters, where a
+ * hit is a request sent with validators, plus a counter of responses replayed on 304.
+ */
+public final class ConditionalGetCache implements ClientHttpRequestInterceptor, MeterBinder {
+
+    private final Cache<URI, Entry> entries;
+    private final int maxEntryBytes;
+    private final LongAdder replayed = new LongAdder();
+
+    public ConditionalGetCache(int maxEntries, int maxEntryBytes) {
+        this.entries = Caffeine.newBuilder().maximumSize(maxEntries).recordStats().build();
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                        ClientHttpRequestExecution execution) throws IOException {
+        if (request.getMethod() != HttpMethod.GET) {
+            return execution.execute(request, body);
+        }
+        URI uri = request.getURI();
+        Entry cached = entries.getIfPresent(uri);
+        if (cached != null) {
+            if (cached.etag() != null) {
+                request.getHeaders().setIfNoneMatch(cached.etag());
+            }
+            if (cached.lastModified() != null) {
+                request.getHeaders().set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+            }
+        }
+
+        ClientHttpResponse response = execution.execute(request, body);
+        if (cached != null && response.getStatusCode().isSameCodeAs(HttpStatus.NOT_MODIFIED)) {
+            response.close();
+            replayed.increment();
+            return cached.replay();
+        }
+
+        HttpHeaders headers = response.getHeaders();
+        String etag = headers.getETag();
+        String lastModified = headers.getFirst(HttpHeaders.LAST_MODIFIED);
+        String cacheControl = headers.getCacheControl();
+        if (!response.getStatusCode().isSameCodeAs(HttpStatus.OK) || (etag == null && lastModified == null)
+                || (cacheControl != null && cacheControl.contains("no-store"))
+                || headers.getContentLength() > maxEntryBytes) {
+            entries.invalidate(uri);
+            return response;
+        }
+
+        // The length is unknown for chunked or decompressed bodies: read one byte past the
+        // limit to find out, and stream the rest through if it is exceeded
+        InputStream in = response.getBody();
+        byte[] bytes = in.readNBytes(maxEntryBytes + 1);
+        if (bytes.length > maxEntryBytes) {
+            entries.invalidate(uri);
+            return new BufferedResponse(response.getStatusCode(), response.getStatusText(), headers,
+                                        new SequenceInputStream(new ByteArrayInputStream(bytes), in), response);
+        }
+        response.close();
+        Entry entry = new Entry(response.getStatusCode(), response.getStatusText(), copy(headers), bytes, etag, lastModified);
+        entries.put(uri, entry);
+        return entry.replay();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, entries, "ckanConditionalGet");
+        FunctionCounter.builder("opendata.ckan.not.modified", replayed, LongAdder::sum)
+                .description("Responses replayed from the cache after a 304")
+                .register(registry);
+    }
+
+    private static HttpHeaders copy(HttpHeaders headers) {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        return HttpHeaders.readOnlyHttpHeaders(copy);
+    }
+
+    private record Entry(HttpStatusCode status, String statusText, HttpHeaders headers, byte[] body,
+                         String etag, String lastModified) {
+
+        ClientHttpResponse replay() {
+            return new BufferedResponse(status, statusText, headers, new ByteArrayInputStream(body), null);
+        }
+    }
+
+    /**
+     * Response over a body that has been (partly) read already
+     */
+    private static final class BufferedResponse implements ClientHttpResponse {
+
+        private final HttpStatusCode status;
+        private final String statusText;
+        private final HttpHeaders headers;
+        private final InputStream body;
+        private final ClientHttpResponse original;
+
+        BufferedResponse(HttpStatusCode status, String statusText, HttpHeaders headers, InputStream body,
+                         ClientHttpResponse original) {
+            this.status = status;
+            this.statusText = statusText;
+            this.headers = headers;
+            this.body = body;
+            this.original = original;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() {
+            return status;
+        }
+
+        @Override
+        public String getStatusText() {
+            return statusText;
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() {
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (original != null) {
+                original.close();
+            }
+        }
+    }
+}
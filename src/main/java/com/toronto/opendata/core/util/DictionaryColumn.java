@@ -0,0 +1,88 @@
+package com.toronto.opendata.core.util;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Immutable dictionary-encoded column for low-cardinality strings: each distinct value is
+ * stored once and rows hold an int code into the dictionary (-1 for null). Filters evaluate
+ * their predicate once per distinct value and then compare codes.
+ */
+public final class DictionaryColumn {
+
+    private final String[] dictionary;
+    private final int[] codes;
+
+    private DictionaryColumn(String[] dictionary, int[] codes) {
+        this.dictionary = dictionary;
+        this.codes = codes;
+    }
+
+    public static DictionaryColumn of(String[] values) {
+        Map<String, Integer> codeOf = new HashMap<>();
+        int[] codes = new int[values.length];
+        for (int row = 0; row < values.length; row++) {
+            codes[row] = values[row] == null ? -1 : codeOf.computeIfAbsent(values[row], value -> codeOf.size());
+        }
+        String[] dictionary = new String[codeOf.size()];
+        codeOf.forEach((value, code) -> dictionary[code] = value);
+        return new DictionaryColumn(dictionary, codes);
+    }
+
+    public int size() {
+        return codes.length;
+    }
+
+    /**
+     * Number of distinct non-null values
+     */
+    public int cardinality() {
+        return dictionary.length;
+    }
+
+    public String get(int row) {
+        int code = codes[row];
+        return code < 0 ? null : dictionary[code];
+    }
+
+    public int code(int row) {
+        return codes[row];
+    }
+
+    public String value(int code) {
+        return dictionary[code];
+    }
+
+    /**
+     * Rows whose value equals {@code value}, ascending
+     */
+    public int[] rowsEqualTo(String value) {
+        return value == null ? new int[0] : rowsMatching(value::equals);
+    }
+
+    /**
+     * Rows whose (non-null) value satisfies {@code predicate}, ascending
+     */
+    public int[] rowsMatching(Predicate<String> predicate) {
+        boolean[] accepted = new boolean[dictionary.length];
+        boolean any = false;
+        for (int code = 0; code < dictionary.length; code++) {
+            accepted[code] = predicate.test(dictionary[code]);
+            any |= accepted[code];
+        }
+        if (!any) {
+            return new int[0];
+        }
+        int[] rows = new int[codes.length];
+        int count = 0;
+        for (int row = 0; row < codes.length; row++) {
+            int code = codes[row];
+            if (code >= 0 && accepted[code]) {
+                rows[count++] = row;
+            }
+        }
+        return Arrays.copyOf(rows, count);
+    }
+}
@@ -0,0 +1,154 @@
+package com.toronto.opendata.core.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.roaringbitmap.RoaringBitmap;
+
+/**
+ * Immutable inverted index from the terms of a dictionary-encoded column to the rows holding
+ * them, one compressed bitmap per term. Multi-valued cells ("Art, History") are split into
+ * their terms once per distinct value, not once per row. Terms match ignoring case; they are
+ * reported with the first spelling found.
+ */
+public final class FacetIndex {
+
+    private static final RoaringBitmap EMPTY = new RoaringBitmap();
+
+    // Terms in case-insensitive order, with their rows
+    private final String[] terms;
+    private final RoaringBitmap[] rows;
+    private final Map<String, Integer> termOf;
+
+    private FacetIndex(String[] terms, RoaringBitmap[] rows) {
+        this.terms = terms;
+        this.rows = rows;
+        this.termOf = new HashMap<>();
+        for (int i = 0; i < terms.length; i++) {
+            termOf.put(key(terms[i]), i);
+        }
+    }
+
+    /**
+     * One term per row: the column's value
+     */
+    public static FacetIndex of(DictionaryColumn column) {
+        return of(column, null);
+    }
+
+    /**
+     * Several terms per row: the column's value split on {@code separator}, each part trimmed
+     */
+    public static FacetIndex of(DictionaryColumn column, String separator) {
+        RoaringBitmap[] rowsOfCode = new RoaringBitmap[column.cardinality()];
+        for (int code = 0; code < rowsOfCode.length; code++) {
+            rowsOfCode[code] = new RoaringBitmap();
+        }
+        for (int row = 0; row < column.size(); row++) {
+            int code = column.code(row);
+            if (code >= 0) {
+                rowsOfCode[code].add(row);
+            }
+        }
+
+        Map<String, String> spelling = new HashMap<>();
+        Map<String, RoaringBitmap> rowsOfTerm = new HashMap<>();
+        for (int code = 0; code < rowsOfCode.length; code++) {
+            String value = column.value(code);
+            String[] parts = separator == null ? new String[] {value} : value.split(separator);
+            for (String part : parts) {
+                String term = part.trim();
+                if (term.isEmpty()) {
+                    continue;
+                }
+                String key = key(term);
+                spelling.merge(key, term, (first, other) -> first);
+                rowsOfTerm.computeIfAbsent(key, k -> new RoaringBitmap()).or(rowsOfCode[code]);
+            }
+        }
+
+        List<String> keys = new ArrayList<>(rowsOfTerm.keySet());
+        keys.sort(null);
+        String[] terms = new String[keys.size()];
+        RoaringBitmap[] rows = new RoaringBitmap[keys.size()];
+        for (int i = 0; i < terms.length; i++) {
+            terms[i] = spelling.get(keys.get(i));
+            rows[i] = rowsOfTerm.get(keys.get(i));
+            rows[i].runOptimize();
+        }
+        return new FacetIndex(terms, rows);
+    }
+
+    /**
+     * Number of distinct terms
+     */
+    public int cardinality() {
+        return terms.length;
+    }
+
+    /**
+     * Rows holding {@code term} (read-only; empty for an unknown term)
+     */
+    public RoaringBitmap rows(String term) {
+        Integer i = term == null ? null : termOf.get(key(term.trim()));
+        return i == null ? EMPTY : rows[i];
+    }
+
+    /**
+     * Rows holding at least one of {@code terms}
+     */
+    public RoaringBitmap rowsWithAny(Collection<String> terms) {
+        RoaringBitmap result = new RoaringBitmap();
+        for (String term : terms) {
+            result.or(rows(term));
+        }
+        return result;
+    }
+
+    /**
+     * Rows holding every one of {@code terms}
+     */
+    public RoaringBitmap rowsWithAll(Collection<String> terms) {
+        RoaringBitmap result = null;
+        for (String term : terms) {
+            if (result == null) {
+                result = rows(term).clone();
+            } else {
+                result.and(rows(term));
+            }
+            if (result.isEmpty()) {
+                break;
+            }
+        }
+        return result == null ? new RoaringBitmap() : result;
+    }
+
+    /**
+     * Rows of {@code within} per term, most frequent first; terms with none are left out
+     */
+    public Map<String, Integer> counts(RoaringBitmap within) {
+        List<int[]> counted = new ArrayList<>();
+        for (int i = 0; i < terms.length; i++) {
+            int count = RoaringBitmap.andCardinality(rows[i], within);
+            if (count > 0) {
+                counted.add(new int[] {i, count});
+            }
+        }
+        // Terms are already in order, so a stable sort keeps ties alphabetical
+        counted.sort((a, b) -> Integer.compare(b[1], a[1]));
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (int[] entry : counted) {
+            counts.put(terms[entry[0]], entry[1]);
+        }
+        return counts;
+    }
+
+    private static String key(String term) {
+        return term.toLowerCase(Locale.ROOT);
+    }
+}
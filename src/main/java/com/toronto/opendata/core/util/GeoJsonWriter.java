@@ -0,0 +1,92 @@
+package com.toronto.opendata.core.util;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import com.toronto.opendata.core.model.CulturalHotSpotModel;
+import com.toronto.opendata.core.model.HotSpotColumnStore;
+import com.toronto.opendata.core.model.MultiPointModel;
+
+/**
+ * Writes hotspots as GeoJSON straight onto a Jackson {@link JsonGenerator}, without building
+ * intermediate feature DTOs or property maps.
+ * Output matches {@link com.toronto.opendata.core.dto.GeoJsonFeatureCollectionDTO}.
+ */
+public final class GeoJsonWriter {
+
+    private GeoJsonWriter() {
+    }
+
+    /**
+     * Write a complete FeatureCollection. Spots must have a location.
+     */
+    public static void writeFeatureCollection(JsonGenerator gen, Iterable<CulturalHotSpotModel> spots) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "FeatureCollection");
+        gen.writeArrayFieldStart("features");
+        for (CulturalHotSpotModel spot : spots) {
+            writeFeature(gen, spot);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /**
+     * Write a complete FeatureCollection of the given rows, which must have a location
+     */
+    public static void writeFeatureCollection(JsonGenerator gen, HotSpotColumnStore store, int[] rows) throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "FeatureCollection");
+        gen.writeArrayFieldStart("features");
+        for (int row : rows) {
+            writeFeature(gen, store, row);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /**
+     * Write a single Point feature for a located spot
+     */
+    public static void writeFeature(JsonGenerator gen, CulturalHotSpotModel spot) throws IOException {
+        MultiPointModel location = spot.getLocation();
+        writeFeature(gen, location.getX(), location.getY(), spot.getId(), spot.getName(), spot.getDescription(),
+                spot.getAddress(), spot.getType(), spot.getPictureURL());
+    }
+
+    /**
+     * Write a single Point feature for a located row of the store
+     */
+    public static void writeFeature(JsonGenerator gen, HotSpotColumnStore store, int row) throws IOException {
+        writeFeature(gen, store.longitude(row), store.latitude(row), store.id(row), store.name(row),
+                store.description(row), store.address(row), store.type(row), store.pictureUrl(row));
+    }
+
+    private static void writeFeature(JsonGenerator gen, double lon, double lat, String id, String name,
+                                     String description, String address, String type, String imageUrl)
+            throws IOException {
+        gen.writeStartObject();
+        gen.writeStringField("type", "Feature");
+
+        // GeoJSON coordinates are [longitude, latitude] (x, y)
+        gen.writeObjectFieldStart("geometry");
+        gen.writeStringField("type", "Point");
+        gen.writeArrayFieldStart("coordinates");
+        gen.writeNumber(lon);
+        gen.writeNumber(lat);
+        gen.writeEndArray();
+        gen.writeEndObject();
+
+        gen.writeObjectFieldStart("properties");
+        gen.writeStringField("id", id);
+        gen.writeStringField("name", name);
+        gen.writeStringField("description", description);
+        gen.writeStringField("address", address);
+        gen.writeStringField("type", type);
+        gen.writeStringField("imageUrl", imageUrl);
+        gen.writeEndObject();
+
+        gen.writeEndObject();
+    }
+}
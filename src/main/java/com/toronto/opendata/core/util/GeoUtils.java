@@ -0,0 +1,101 @@
+package com.toronto.opendata.core.util;
+
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Point;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+
+/**
+ * Geodesic helpers shared by the map and index code.
+ */
+public final class GeoUtils {
+
+    public static final double EARTH_RADIUS_KM = 6371;
+
+    /** Latitude limit of the Web Mercator projection */
+    public static final double MAX_MERCATOR_LAT = 85.05112878;
+
+    /** Length of one degree of latitude in kilometres */
+    public static final double KM_PER_DEGREE_LAT = Math.PI * EARTH_RADIUS_KM / 180.0;
+
+    /** Spatial reference id of WGS84 longitude/latitude */
+    public static final int SRID_WGS84 = 4326;
+
+    private static final GeometryFactory WGS84 = new GeometryFactory(new PrecisionModel(), SRID_WGS84);
+
+    private GeoUtils() {
+    }
+
+    /**
+     * WGS84 point geometry (x = longitude, y = latitude)
+     */
+    public static Point point(double lat, double lon) {
+        return WGS84.createPoint(new Coordinate(lon, lat));
+    }
+
+    /**
+     * WGS84 rectangle geometry covering the given bounds
+     */
+    public static Polygon envelope(double minLat, double maxLat, double minLon, double maxLon) {
+        return WGS84.createPolygon(new Coordinate[] {
+                new Coordinate(minLon, minLat), new Coordinate(maxLon, minLat), new Coordinate(maxLon, maxLat),
+                new Coordinate(minLon, maxLat), new Coordinate(minLon, minLat)
+        });
+    }
+
+    /**
+     * Calculate distance between two points using Haversine formula
+     * Returns distance in kilometers
+     */
+    public static double haversineKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+
+        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+
+        return EARTH_RADIUS_KM * c;
+    }
+
+    /**
+     * Half-width in degrees of longitude of a box enclosing a circle of the given radius.
+     * Returns 180 when the circle reaches a pole, i.e. every longitude is a candidate.
+     */
+    public static double lonDeltaDegrees(double lat, double radiusKm) {
+        double angularRadius = radiusKm / EARTH_RADIUS_KM;
+        if (Math.abs(lat) + Math.toDegrees(angularRadius) >= 90.0 || angularRadius >= Math.PI / 2) {
+            return 180.0;
+        }
+        return Math.toDegrees(Math.asin(Math.sin(angularRadius) / Math.cos(Math.toRadians(lat))));
+    }
+
+    /**
+     * Web Mercator x in tile units at the given zoom (0..2^zoom, fractional)
+     */
+    public static double lonToTileX(double lon, int zoom) {
+        return (lon + 180.0) / 360.0 * (1 << zoom);
+    }
+
+    /**
+     * Web Mercator y in tile units at the given zoom (0 at the north edge, fractional)
+     */
+    public static double latToTileY(double lat, int zoom) {
+        double clamped = Math.max(-MAX_MERCATOR_LAT, Math.min(MAX_MERCATOR_LAT, lat));
+        double sin = Math.sin(Math.toRadians(clamped));
+        double y = 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+        return y * (1 << zoom);
+    }
+
+    public static double tileXToLon(double tileX, int zoom) {
+        return tileX / (1 << zoom) * 360.0 - 180.0;
+    }
+
+    public static double tileYToLat(double tileY, int zoom) {
+        double n = Math.PI * (1 - 2 * tileY / (1 << zoom));
+        return Math.toDegrees(Math.atan(Math.sinh(n)));
+    }
+}
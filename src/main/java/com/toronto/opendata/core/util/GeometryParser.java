@@ -2,68 +2,397 @@ package com.toronto.opendata.core.util;
 
 import org.springframework.stereotype.Component;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
-
 import com.toronto.opendata.core.model.MultiPointModel;
 
 /**
  * Utility class for parsing geometry data from various formats.
+ *
+ * GeoJSON geometries are read by a hand-written scanner over the character sequence: no
+ * JsonNode tree, token objects or number strings are created, and coordinates are decoded
+ * straight into doubles. Point, MultiPoint, LineString, Polygon and their Multi* forms are
+ * supported; positions are reported in document order.
  */
 @Component
 public class GeometryParser {
-    
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-    
+
+    /**
+     * Receives the positions of a geometry in document order.
+     * Return false to stop scanning coordinates (the type is still read).
+     */
+    @FunctionalInterface
+    public interface PositionConsumer {
+        boolean accept(double x, double y);
+    }
+
+    private static final String[] KNOWN_TYPES = {
+            "Point", "MultiPoint", "LineString", "MultiLineString", "Polygon", "MultiPolygon"};
+
+    // Significant digits accumulated in a long mantissa without overflow
+    private static final int MAX_EXACT_DIGITS = 18;
+
+    // Powers of ten that are exact doubles; mantissa * or / these is correctly rounded
+    private static final double[] EXACT_POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
     /**
      * Parses a GeoJSON geometry string into a MultiPointModel.
      * Expected format: {"coordinates": [[-79.48576, 43.685]], "type": "MultiPoint"}
-     * 
+     *
      * @param geometryJson The JSON string containing geometry data
-     * @return MultiPointModel with x (longitude), y (latitude), and type
+     * @return MultiPointModel with x (longitude), y (latitude) of the first position, and type
      */
     public static MultiPointModel parseGeometrySafe(String geometryJson) {
-        if (geometryJson == null || geometryJson.trim().isEmpty()) {
-            return MultiPointModel.builder()
-                    .x(0.0)
-                    .y(0.0)
-                    .type("Unknown")
-                    .build();
-        }
-        
+        if (geometryJson == null || geometryJson.isBlank()) {
+            return unknown();
+        }
+        double[] position = {Double.NaN, Double.NaN};
+        String type = scan(geometryJson, (x, y) -> {
+            position[0] = x;
+            position[1] = y;
+            return false;
+        });
+        if (type == null || Double.isNaN(position[0])) {
+            return unknown();
+        }
+        return MultiPointModel.builder()
+                .x(position[0])
+                .y(position[1])
+                .type(type)
+                .build();
+    }
+
+    /**
+     * Reads the first position of a geometry into {@code xy} (x = longitude, y = latitude).
+     *
+     * @return false if the geometry is malformed or has no position; {@code xy} is then unchanged
+     */
+    public static boolean readFirstPosition(CharSequence geometryJson, double[] xy) {
+        double[] position = {Double.NaN, Double.NaN};
+        String type = scan(geometryJson, (x, y) -> {
+            position[0] = x;
+            position[1] = y;
+            return false;
+        });
+        if (type == null || Double.isNaN(position[0])) {
+            return false;
+        }
+        xy[0] = position[0];
+        xy[1] = position[1];
+        return true;
+    }
+
+    /**
+     * Scans a GeoJSON geometry object, passing each position to {@code consumer}.
+     *
+     * @return the geometry type ("Unknown" when absent), or null if the input is not a
+     *         well-formed geometry object
+     */
+    public static String scan(CharSequence geometryJson, PositionConsumer consumer) {
+        if (geometryJson == null) {
+            return null;
+        }
         try {
-            JsonNode root = objectMapper.readTree(geometryJson);
-            
-            // Extract type
-            String type = root.has("type") ? root.get("type").asText() : "Unknown";
-            
-            // Extract coordinates (first point if MultiPoint has multiple)
-            JsonNode coordinates = root.get("coordinates");
-            if (coordinates != null && coordinates.isArray() && coordinates.size() > 0) {
-                JsonNode firstPoint = coordinates.get(0);
-                if (firstPoint.isArray() && firstPoint.size() >= 2) {
-                    double x = firstPoint.get(0).asDouble(); // longitude
-                    double y = firstPoint.get(1).asDouble(); // latitude
-                    
-                    return MultiPointModel.builder()
-                            .x(x)
-                            .y(y)
-                            .type(type)
-                            .build();
+            return new Scanner(geometryJson, consumer).geometry();
+        } catch (MalformedGeometryException e) {
+            return null;
+        }
+    }
+
+    private static MultiPointModel unknown() {
+        return MultiPointModel.builder()
+                .x(0.0)
+                .y(0.0)
+                .type("Unknown")
+                .build();
+    }
+
+    /**
+     * Single-use cursor over one geometry string
+     */
+    private static final class Scanner {
+
+        private final CharSequence in;
+        private final int length;
+        private final PositionConsumer consumer;
+        private int pos;
+        private boolean wantPositions = true;
+
+        Scanner(CharSequence in, PositionConsumer consumer) {
+            this.in = in;
+            this.length = in.length();
+            this.consumer = consumer;
+        }
+
+        String geometry() {
+            String type = "Unknown";
+            expect('{');
+            if (peek() == '}') {
+                pos++;
+            } else {
+                do {
+                    int keyStart = stringStart();
+                    int keyEnd = stringEnd();
+                    expect(':');
+                    if (matches(keyStart, keyEnd, "type")) {
+                        type = typeValue();
+                    } else if (matches(keyStart, keyEnd, "coordinates")) {
+                        coordinates();
+                    } else {
+                        skipValue();
+                    }
+                } while (next(',', '}'));
+            }
+            if (peek() != -1) {
+                throw MalformedGeometryException.INSTANCE;
+            }
+            return type;
+        }
+
+        /**
+         * A position ([x, y, ...]) or any nesting of arrays of positions
+         */
+        private void coordinates() {
+            expect('[');
+            int c = peek();
+            if (c == ']') {
+                pos++;
+                return;
+            }
+            if (c == '[') {
+                do {
+                    coordinates();
+                } while (next(',', ']'));
+                return;
+            }
+            double x = number();
+            expect(',');
+            double y = number();
+            while (next(',', ']')) {
+                number(); // altitude and beyond are ignored
+            }
+            if (wantPositions) {
+                wantPositions = consumer.accept(x, y);
+            }
+        }
+
+        private String typeValue() {
+            int start = stringStart();
+            int end = stringEnd();
+            for (String known : KNOWN_TYPES) {
+                if (matches(start, end, known)) {
+                    return known;
+                }
+            }
+            return in.subSequence(start, end).toString();
+        }
+
+        private void skipValue() {
+            int c = peek();
+            if (c == '"') {
+                stringStart();
+                stringEnd();
+            } else if (c == '{' || c == '[') {
+                char close = c == '{' ? '}' : ']';
+                pos++;
+                if (peek() == close) {
+                    pos++;
+                    return;
+                }
+                do {
+                    if (close == '}') {
+                        stringStart();
+                        stringEnd();
+                        expect(':');
+                    }
+                    skipValue();
+                } while (next(',', close));
+            } else if (c == '-' || (c >= '0' && c <= '9')) {
+                number();
+            } else if (!literal("null") && !literal("true") && !literal("false")) {
+                throw MalformedGeometryException.INSTANCE;
+            }
+        }
+
+        /**
+         * JSON number. Up to 18 significant digits with a small decimal exponent are decoded
+         * exactly from a long mantissa; anything else falls back to Double.parseDouble.
+         */
+        private double number() {
+            skipWhitespace();
+            int start = pos;
+            boolean negative = false;
+            if (pos < length && in.charAt(pos) == '-') {
+                negative = true;
+                pos++;
+            }
+            long mantissa = 0;
+            int digits = 0;
+            int exponent = 0;
+            boolean exact = true;
+            int intStart = pos;
+            while (pos < length && isDigit(in.charAt(pos))) {
+                if (digits < MAX_EXACT_DIGITS) {
+                    mantissa = mantissa * 10 + (in.charAt(pos) - '0');
+                    if (mantissa != 0) {
+                        digits++;
+                    }
+                } else {
+                    exponent++;
+                    exact = false;
+                }
+                pos++;
+            }
+            if (pos == intStart) {
+                throw MalformedGeometryException.INSTANCE;
+            }
+            if (pos < length && in.charAt(pos) == '.') {
+                pos++;
+                int fractionStart = pos;
+                while (pos < length && isDigit(in.charAt(pos))) {
+                    if (digits < MAX_EXACT_DIGITS) {
+                        mantissa = mantissa * 10 + (in.charAt(pos) - '0');
+                        if (mantissa != 0) {
+                            digits++;
+                        }
+                        exponent--;
+                    } else {
+                        exact = false;
+                    }
+                    pos++;
+                }
+                if (pos == fractionStart) {
+                    throw MalformedGeometryException.INSTANCE;
+                }
+            }
+            if (pos < length && (in.charAt(pos) == 'e' || in.charAt(pos) == 'E')) {
+                pos++;
+                boolean negativeExponent = false;
+                if (pos < length && (in.charAt(pos) == '+' || in.charAt(pos) == '-')) {
+                    negativeExponent = in.charAt(pos) == '-';
+                    pos++;
+                }
+                int exponentStart = pos;
+                int explicit = 0;
+                while (pos < length && isDigit(in.charAt(pos))) {
+                    explicit = Math.min(explicit * 10 + (in.charAt(pos) - '0'), 10_000);
+                    pos++;
+                }
+                if (pos == exponentStart) {
+                    throw MalformedGeometryException.INSTANCE;
+                }
+                exponent += negativeExponent ? -explicit : explicit;
+            }
+
+            if (exact && mantissa < (1L << 53) && Math.abs(exponent) < EXACT_POWERS_OF_TEN.length) {
+                double value = exponent >= 0
+                        ? mantissa * EXACT_POWERS_OF_TEN[exponent]
+                        : mantissa / EXACT_POWERS_OF_TEN[-exponent];
+                return negative ? -value : value;
+            }
+            return Double.parseDouble(in.subSequence(start, pos).toString());
+        }
+
+        /**
+         * Consumes the opening quote of a string and returns the index of its first character
+         */
+        private int stringStart() {
+            expect('"');
+            return pos;
+        }
+
+        /**
+         * Consumes the rest of a string and returns the index of its closing quote.
+         * Escapes are skipped over, not decoded.
+         */
+        private int stringEnd() {
+            while (pos < length) {
+                char c = in.charAt(pos);
+                if (c == '\\') {
+                    pos += 2;
+                } else if (c == '"') {
+                    return pos++;
+                } else {
+                    pos++;
+                }
+            }
+            throw MalformedGeometryException.INSTANCE;
+        }
+
+        private boolean matches(int start, int end, String expected) {
+            if (end - start != expected.length()) {
+                return false;
+            }
+            for (int i = 0; i < expected.length(); i++) {
+                if (in.charAt(start + i) != expected.charAt(i)) {
+                    return false;
                 }
             }
-            
-            return MultiPointModel.builder()
-                    .x(0.0)
-                    .y(0.0)
-                    .type("Unknown")
-                    .build();
-        } catch (Exception e) {
-            return MultiPointModel.builder()
-                    .x(0.0)
-                    .y(0.0)
-                    .type("Unknown")
-                    .build();
+            return true;
+        }
+
+        private boolean literal(String word) {
+            if (pos + word.length() <= length && matches(pos, pos + word.length(), word)) {
+                pos += word.length();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Consumes a separator or the closing bracket; true if another element follows
+         */
+        private boolean next(char separator, char close) {
+            int c = peek();
+            pos++;
+            if (c == separator) {
+                return true;
+            }
+            if (c == close) {
+                return false;
+            }
+            throw MalformedGeometryException.INSTANCE;
+        }
+
+        private void expect(char expected) {
+            if (peek() != expected) {
+                throw MalformedGeometryException.INSTANCE;
+            }
+            pos++;
+        }
+
+        /**
+         * Next non-whitespace character without consuming it, or -1 at the end
+         */
+        private int peek() {
+            skipWhitespace();
+            return pos < length ? in.charAt(pos) : -1;
+        }
+
+        private void skipWhitespace() {
+            while (pos < length) {
+                char c = in.charAt(pos);
+                if (c != ' ' && c != '\t' && c != '\n' && c != '\r') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private static boolean isDigit(char c) {
+            return c >= '0' && c <= '9';
+        }
+    }
+
+    /**
+     * Shared, stackless signal for malformed input; it never escapes {@link #scan}
+     */
+    private static final class MalformedGeometryException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        static final MalformedGeometryException INSTANCE = new MalformedGeometryException();
+
+        private MalformedGeometryException() {
+            super(null, null, false, false);
         }
     }
 }
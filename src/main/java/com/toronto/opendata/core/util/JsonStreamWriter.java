@@ -0,0 +1,117 @@
+package com.toronto.opendata.core.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Writes a sequence of values to an output stream one at a time, either as a JSON array or as
+ * newline-delimited JSON, so responses never need the whole result in memory.
+ */
+public final class JsonStreamWriter implements Closeable {
+
+    public static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    public enum Format {
+        JSON,
+        NDJSON;
+
+        /**
+         * Parse a {@code ?format=} value; anything other than "ndjson" means a JSON array
+         */
+        public static Format of(String value) {
+            return "ndjson".equalsIgnoreCase(value) ? NDJSON : JSON;
+        }
+
+        public MediaType mediaType() {
+            return this == NDJSON ? APPLICATION_NDJSON : MediaType.APPLICATION_JSON;
+        }
+    }
+
+    private final ObjectWriter objectWriter;
+    private final JsonGenerator generator;
+    private final Format format;
+
+    private JsonStreamWriter(ObjectWriter objectWriter, JsonGenerator generator, Format format) {
+        this.objectWriter = objectWriter;
+        this.generator = generator;
+        this.format = format;
+    }
+
+    /**
+     * Start a stream on {@code out}. The output stream is flushed but not closed by {@link #close()}.
+     */
+    public static JsonStreamWriter open(ObjectMapper objectMapper, OutputStream out, Format format) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        if (format == Format.JSON) {
+            generator.writeStartArray();
+        }
+        // Let the generator's buffer decide when to hit the socket instead of flushing per value
+        ObjectWriter objectWriter = objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        return new JsonStreamWriter(objectWriter, generator, format);
+    }
+
+    /**
+     * Response body that streams the values written by {@code values} and records the time
+     * spent serializing and writing them (until the last byte is handed to the container)
+     * on {@code timer}
+     */
+    public static StreamingResponseBody body(ObjectMapper objectMapper, Format format, Timer timer, Values values) {
+        return out -> {
+            Timer.Sample sample = Timer.start();
+            try (JsonStreamWriter writer = open(objectMapper, out, format)) {
+                values.writeTo(writer);
+            } finally {
+                sample.stop(timer);
+            }
+        };
+    }
+
+    /**
+     * Generator positioned for the next value, for callers that write tokens themselves.
+     * Call {@link #endValue()} after each value written this way.
+     */
+    public JsonGenerator generator() {
+        return generator;
+    }
+
+    public void write(Object value) throws IOException {
+        objectWriter.writeValue(generator, value);
+        endValue();
+    }
+
+    public void endValue() throws IOException {
+        if (format == Format.NDJSON) {
+            generator.writeRaw('\n');
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (format == Format.JSON) {
+            generator.writeEndArray();
+        }
+        generator.close();
+    }
+
+    /**
+     * Writes the values of one response
+     */
+    @FunctionalInterface
+    public interface Values {
+
+        void writeTo(JsonStreamWriter writer) throws IOException;
+    }
+}
@@ -0,0 +1,461 @@
+package com.toronto.opendata.core.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.function.IntConsumer;
+
+/**
+ * Static 2D KD-tree over primitive coordinate arrays (a port of the KDBush layout).
+ *
+ * The tree is implicit: points are reordered in place so that each subarray's median splits
+ * it on alternating axes, and leaves hold up to {@code nodeSize} points that are scanned
+ * linearly. Queries report the positions of points in the arrays the tree was built from.
+ * {@link #nearest} treats x as longitude and y as latitude, in degrees.
+ */
+public final class KdTree {
+
+    private static final int DEFAULT_NODE_SIZE = 64;
+
+    private final int nodeSize;
+    private final int[] ids;
+    // Interleaved x, y pairs in tree order
+    private final double[] coords;
+
+    private KdTree(int nodeSize, int[] ids, double[] coords) {
+        this.nodeSize = nodeSize;
+        this.ids = ids;
+        this.coords = coords;
+    }
+
+    public static KdTree build(double[] xs, double[] ys) {
+        return build(xs, ys, DEFAULT_NODE_SIZE);
+    }
+
+    public static KdTree build(double[] xs, double[] ys, int nodeSize) {
+        if (xs.length != ys.length) {
+            throw new IllegalArgumentException("coordinate arrays must have the same length");
+        }
+        int n = xs.length;
+        int[] ids = new int[n];
+        double[] coords = new double[2 * n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = i;
+            coords[2 * i] = xs[i];
+            coords[2 * i + 1] = ys[i];
+        }
+        sort(ids, coords, nodeSize, 0, n - 1, 0);
+        return new KdTree(nodeSize, ids, coords);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    /**
+     * Report every point inside the axis-aligned box (inclusive)
+     */
+    public void range(double minX, double minY, double maxX, double maxY, IntConsumer consumer) {
+        if (ids.length == 0) {
+            return;
+        }
+        int[] stack = new int[3 * 64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = ids.length - 1;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int axis = stack[--top];
+            int right = stack[--top];
+            int left = stack[--top];
+
+            if (right - left <= nodeSize) {
+                for (int i = left; i <= right; i++) {
+                    double x = coords[2 * i];
+                    double y = coords[2 * i + 1];
+                    if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                        consumer.accept(ids[i]);
+                    }
+                }
+                continue;
+            }
+
+            int m = (left + right) >>> 1;
+            double x = coords[2 * m];
+            double y = coords[2 * m + 1];
+            if (x >= minX && x <= maxX && y >= minY && y <= maxY) {
+                consumer.accept(ids[m]);
+            }
+
+            if (top + 6 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            if (axis == 0 ? minX <= x : minY <= y) {
+                stack[top++] = left;
+                stack[top++] = m - 1;
+                stack[top++] = 1 - axis;
+            }
+            if (axis == 0 ? maxX >= x : maxY >= y) {
+                stack[top++] = m + 1;
+                stack[top++] = right;
+                stack[top++] = 1 - axis;
+            }
+        }
+    }
+
+    /**
+     * Report every point within Euclidean distance {@code radius} of (qx, qy)
+     */
+    public void within(double qx, double qy, double radius, IntConsumer consumer) {
+        if (ids.length == 0) {
+            return;
+        }
+        double r2 = radius * radius;
+        int[] stack = new int[3 * 64];
+        int top = 0;
+        stack[top++] = 0;
+        stack[top++] = ids.length - 1;
+        stack[top++] = 0;
+
+        while (top > 0) {
+            int axis = stack[--top];
+            int right = stack[--top];
+            int left = stack[--top];
+
+            if (right - left <= nodeSize) {
+                for (int i = left; i <= right; i++) {
+                    if (squaredDistance(coords[2 * i], coords[2 * i + 1], qx, qy) <= r2) {
+                        consumer.accept(ids[i]);
+                    }
+                }
+                continue;
+            }
+
+            int m = (left + right) >>> 1;
+            double x = coords[2 * m];
+            double y = coords[2 * m + 1];
+            if (squaredDistance(x, y, qx, qy) <= r2) {
+                consumer.accept(ids[m]);
+            }
+
+            if (top + 6 > stack.length) {
+                stack = Arrays.copyOf(stack, stack.length * 2);
+            }
+            if (axis == 0 ? qx - radius <= x : qy - radius <= y) {
+                stack[top++] = left;
+                stack[top++] = m - 1;
+                stack[top++] = 1 - axis;
+            }
+            if (axis == 0 ? qx + radius >= x : qy + radius >= y) {
+                stack[top++] = m + 1;
+                stack[top++] = right;
+                stack[top++] = 1 - axis;
+            }
+        }
+    }
+
+    /**
+     * Report up to {@code k} points closest to (lon, lat) by great-circle distance, nearest first,
+     * skipping points farther than {@code maxDistanceKm}.
+     *
+     * Best-first branch and bound (after geokdbush): subtrees are expanded in order of a lower
+     * bound on the distance to their bounding box, the k best points so far are kept in a
+     * bounded max-heap, and the search stops once the next subtree cannot beat the k-th best.
+     * Equidistant points are ranked by position, also for the k-th place, so results do not
+     * depend on the tree layout.
+     */
+    public void nearest(double lon, double lat, int k, double maxDistanceKm, NeighbourConsumer consumer) {
+        if (ids.length == 0 || k <= 0) {
+            return;
+        }
+        double maxHav = maxDistanceKm / GeoUtils.EARTH_RADIUS_KM >= Math.PI
+                ? 1 : hav(maxDistanceKm / GeoUtils.EARTH_RADIUS_KM);
+        double cosLat = Math.cos(Math.toRadians(lat));
+        BoundedMaxHeap best = new BoundedMaxHeap(Math.min(k, ids.length), ids);
+        PriorityQueue<Node> queue = new PriorityQueue<>(Comparator.comparingDouble(Node::bound));
+        queue.add(new Node(0, ids.length - 1, 0, -180, -90, 180, 90, 0));
+
+        while (!queue.isEmpty()) {
+            Node node = queue.poll();
+            // A subtree at exactly the k-th distance may still hold a tie with a lower position
+            if (best.isFull() ? node.bound() > best.max() : node.bound() > maxHav) {
+                break;
+            }
+            int left = node.left();
+            int right = node.right();
+
+            if (right - left <= nodeSize) {
+                for (int i = left; i <= right; i++) {
+                    offer(best, i, havDistance(lon, lat, cosLat, coords[2 * i], coords[2 * i + 1]), maxHav);
+                }
+                continue;
+            }
+
+            int m = (left + right) >>> 1;
+            double x = coords[2 * m];
+            double y = coords[2 * m + 1];
+            offer(best, m, havDistance(lon, lat, cosLat, x, y), maxHav);
+
+            int axis = node.axis();
+            if (left <= m - 1) {
+                double maxX = axis == 0 ? x : node.maxX();
+                double maxY = axis == 1 ? y : node.maxY();
+                queue.add(new Node(left, m - 1, 1 - axis, node.minX(), node.minY(), maxX, maxY,
+                        boxHavDistance(lon, lat, cosLat, node.minX(), node.minY(), maxX, maxY)));
+            }
+            if (m + 1 <= right) {
+                double minX = axis == 0 ? x : node.minX();
+                double minY = axis == 1 ? y : node.minY();
+                queue.add(new Node(m + 1, right, 1 - axis, minX, minY, node.maxX(), node.maxY(),
+                        boxHavDistance(lon, lat, cosLat, minX, minY, node.maxX(), node.maxY())));
+            }
+        }
+
+        int count = best.size();
+        int[] order = new int[count];
+        double[] havs = new double[count];
+        for (int i = count - 1; i >= 0; i--) {
+            havs[i] = best.max();
+            order[i] = best.pollMax();
+        }
+        for (int i = 0; i < count; i++) {
+            consumer.accept(ids[order[i]], 2 * GeoUtils.EARTH_RADIUS_KM * Math.asin(Math.sqrt(Math.min(1, havs[i]))));
+        }
+    }
+
+    /**
+     * Receives the results of {@link #nearest}
+     */
+    @FunctionalInterface
+    public interface NeighbourConsumer {
+        void accept(int position, double distanceKm);
+    }
+
+    private static void offer(BoundedMaxHeap best, int index, double hav, double maxHav) {
+        if (hav <= maxHav) {
+            best.offer(index, hav);
+        }
+    }
+
+    /** Haversine of an angle: sin^2(theta / 2) */
+    private static double hav(double theta) {
+        double s = Math.sin(theta / 2);
+        return s * s;
+    }
+
+    /** Haversine of the central angle between two points, given the cosine of the first latitude */
+    private static double havDistance(double lon1, double lat1, double cosLat1, double lon2, double lat2) {
+        return havDistance(hav(Math.toRadians(lon1 - lon2)), cosLat1, lat1, lat2);
+    }
+
+    private static double havDistance(double havDLon, double cosLat1, double lat1, double lat2) {
+        return cosLat1 * Math.cos(Math.toRadians(lat2)) * havDLon + hav(Math.toRadians(lat1 - lat2));
+    }
+
+    /**
+     * Lower bound (as a haversine) of the great-circle distance from a point to a lon/lat box
+     */
+    private static double boxHavDistance(double lon, double lat, double cosLat,
+                                         double minLon, double minLat, double maxLon, double maxLat) {
+        if (lon >= minLon && lon <= maxLon) {
+            if (lat < minLat) {
+                return hav(Math.toRadians(lat - minLat));
+            }
+            if (lat > maxLat) {
+                return hav(Math.toRadians(lat - maxLat));
+            }
+            return 0;
+        }
+        // West or east of the box: the closest point of the nearer meridian edge is where the
+        // great circle through the query point peaks, unless that lies beyond a corner
+        double havDLon = Math.min(hav(Math.toRadians(lon - minLon)), hav(Math.toRadians(lon - maxLon)));
+        double extremumLat = vertexLat(lat, havDLon);
+        if (extremumLat > minLat && extremumLat < maxLat) {
+            return havDistance(havDLon, cosLat, lat, extremumLat);
+        }
+        return Math.min(havDistance(havDLon, cosLat, lat, minLat), havDistance(havDLon, cosLat, lat, maxLat));
+    }
+
+    private static double vertexLat(double lat, double havDLon) {
+        double cosDLon = 1 - 2 * havDLon;
+        if (cosDLon <= 0) {
+            return lat > 0 ? 90 : -90;
+        }
+        return Math.toDegrees(Math.atan(Math.tan(Math.toRadians(lat)) / cosDLon));
+    }
+
+    /** Subtree [left, right] split on {@code axis}, with its bounding box and distance bound */
+    private record Node(int left, int right, int axis, double minX, double minY, double maxX, double maxY,
+                        double bound) {
+    }
+
+    /**
+     * Fixed-capacity max-heap of (index, distance) over primitive arrays, ordered by distance
+     * and then by the point's position, so which of several equidistant points is kept is fixed
+     */
+    private static final class BoundedMaxHeap {
+
+        private final int[] indexes;
+        private final double[] distances;
+        // Position of each tree index, the tie-breaker
+        private final int[] positions;
+        private int size;
+
+        BoundedMaxHeap(int capacity, int[] positions) {
+            indexes = new int[capacity];
+            distances = new double[capacity];
+            this.positions = positions;
+        }
+
+        int size() {
+            return size;
+        }
+
+        boolean isFull() {
+            return size == indexes.length;
+        }
+
+        double max() {
+            return distances[0];
+        }
+
+        /** Add an entry, or replace the farthest one when full and this is closer */
+        void offer(int index, double distance) {
+            if (!isFull()) {
+                int i = size++;
+                while (i > 0) {
+                    int parent = (i - 1) >>> 1;
+                    if (!farther(index, distance, indexes[parent], distances[parent])) {
+                        break;
+                    }
+                    indexes[i] = indexes[parent];
+                    distances[i] = distances[parent];
+                    i = parent;
+                }
+                indexes[i] = index;
+                distances[i] = distance;
+            } else if (farther(indexes[0], distances[0], index, distance)) {
+                siftDown(index, distance);
+            }
+        }
+
+        /** Remove the farthest entry and return its index */
+        int pollMax() {
+            int max = indexes[0];
+            size--;
+            if (size > 0) {
+                siftDown(indexes[size], distances[size]);
+            }
+            return max;
+        }
+
+        private void siftDown(int index, double distance) {
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && farther(indexes[child + 1], distances[child + 1], indexes[child], distances[child])) {
+                    child++;
+                }
+                if (!farther(indexes[child], distances[child], index, distance)) {
+                    break;
+                }
+                indexes[i] = indexes[child];
+                distances[i] = distances[child];
+                i = child;
+            }
+            indexes[i] = index;
+            distances[i] = distance;
+        }
+
+        /** Whether entry a ranks after entry b */
+        private boolean farther(int a, double distanceA, int b, double distanceB) {
+            return distanceA > distanceB || (distanceA == distanceB && positions[a] > positions[b]);
+        }
+    }
+
+    private static double squaredDistance(double ax, double ay, double bx, double by) {
+        double dx = ax - bx;
+        double dy = ay - by;
+        return dx * dx + dy * dy;
+    }
+
+    private static void sort(int[] ids, double[] coords, int nodeSize, int left, int right, int axis) {
+        if (right - left <= nodeSize) {
+            return;
+        }
+        int m = (left + right) >>> 1;
+        select(ids, coords, m, left, right, axis);
+        sort(ids, coords, nodeSize, left, m - 1, 1 - axis);
+        sort(ids, coords, nodeSize, m + 1, right, 1 - axis);
+    }
+
+    /**
+     * Floyd-Rivest selection: rearranges [left, right] so that the k-th element on the axis is in
+     * place, with smaller elements before it and larger after
+     */
+    private static void select(int[] ids, double[] coords, int k, int left, int right, int axis) {
+        while (right > left) {
+            if (right - left > 600) {
+                int n = right - left + 1;
+                int m = k - left + 1;
+                double z = Math.log(n);
+                double s = 0.5 * Math.exp(2 * z / 3);
+                double sd = 0.5 * Math.sqrt(z * s * (n - s) / n) * (m - n / 2.0 < 0 ? -1 : 1);
+                int newLeft = (int) Math.max(left, Math.floor(k - m * s / n + sd));
+                int newRight = (int) Math.min(right, Math.floor(k + (n - m) * s / n + sd));
+                select(ids, coords, k, newLeft, newRight, axis);
+            }
+
+            double t = coords[2 * k + axis];
+            int i = left;
+            int j = right;
+
+            swap(ids, coords, left, k);
+            if (coords[2 * right + axis] > t) {
+                swap(ids, coords, left, right);
+            }
+
+            while (i < j) {
+                swap(ids, coords, i, j);
+                i++;
+                j--;
+                while (coords[2 * i + axis] < t) {
+                    i++;
+                }
+                while (coords[2 * j + axis] > t) {
+                    j--;
+                }
+            }
+
+            if (coords[2 * left + axis] == t) {
+                swap(ids, coords, left, j);
+            } else {
+                j++;
+                swap(ids, coords, j, right);
+            }
+
+            if (j <= k) {
+                left = j + 1;
+            }
+            if (k <= j) {
+                right = j - 1;
+            }
+        }
+    }
+
+    private static void swap(int[] ids, double[] coords, int i, int j) {
+        int id = ids[i];
+        ids[i] = ids[j];
+        ids[j] = id;
+        double x = coords[2 * i];
+        double y = coords[2 * i + 1];
+        coords[2 * i] = coords[2 * j];
+        coords[2 * i + 1] = coords[2 * j + 1];
+        coords[2 * j] = x;
+        coords[2 * j + 1] = y;
+    }
+}
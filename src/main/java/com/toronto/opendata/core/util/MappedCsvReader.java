@@ -0,0 +1,450 @@
+package com.toronto.opendata.core.util;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forward-only RFC 4180 CSV reader over a memory-mapped file.
+ *
+ * The file is mapped in windows (64 MB by default) and field boundaries are found on the raw
+ * bytes; a window is remapped from the start of the record that crosses its end. Records are
+ * exposed through a single reused {@link Row} flyweight holding only field offsets, so
+ * nothing is allocated per record unless a field is decoded to a String. Memory use is
+ * bounded by the window size, not the file size.
+ *
+ * Quoted fields may contain delimiters, line breaks and doubled quotes. Empty lines are
+ * skipped, a UTF-8 byte order mark is ignored and the first record is the header.
+ *
+ * A reader can be {@link #slice sliced} into readers over byte ranges that start on record
+ * boundaries; each slice shares the header and can be read on its own thread.
+ */
+public final class MappedCsvReader implements AutoCloseable {
+
+    public static final int DEFAULT_WINDOW_SIZE = 64 << 20;
+
+    private static final byte COMMA = ',';
+    private static final byte QUOTE = '"';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+    private static final byte[] NO_BYTES = {};
+    private static final byte[] LF_ONLY = {LF};
+    private static final int MAX_WINDOW_SIZE = Integer.MAX_VALUE - 8;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final long fileSize;
+    // Records starting at or after this offset belong to the next slice
+    private final long rangeEnd;
+    private int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int windowLength;
+    // Absolute file offset of the next record
+    private long position;
+
+    private final List<String> headers;
+    private final Map<String, Integer> headerIndex;
+    private final byte[] rawHeader;
+    // Appended to a last record that has none: the header's, so the output's endings agree
+    private byte[] terminator = LF_ONLY;
+    private final Row row = new Row();
+    private long recordNumber;
+    private byte[] scratch = new byte[256];
+
+    private MappedCsvReader(Path path, FileChannel channel, int windowSize) throws IOException {
+        this.path = path;
+        this.channel = channel;
+        this.fileSize = channel.size();
+        this.rangeEnd = fileSize;
+        this.windowSize = windowSize;
+        map(0);
+        if (hasBom()) {
+            position = 3;
+        }
+
+        if (readRecord()) {
+            List<String> names = new ArrayList<>(row.size);
+            Map<String, Integer> index = new HashMap<>();
+            for (int i = 0; i < row.size; i++) {
+                String name = row.get(i);
+                names.add(name);
+                index.putIfAbsent(name, i);
+            }
+            headers = Collections.unmodifiableList(names);
+            headerIndex = index;
+            ByteArrayOutputStream raw = new ByteArrayOutputStream(row.rawLength());
+            row.writeTo(raw);
+            rawHeader = raw.toByteArray();
+            if (rawHeader.length > 1 && rawHeader[rawHeader.length - 2] == CR) {
+                terminator = new byte[] {CR, LF};
+            }
+            recordNumber = 0;
+        } else {
+            headers = List.of();
+            headerIndex = Map.of();
+            rawHeader = new byte[0];
+        }
+    }
+
+    private MappedCsvReader(MappedCsvReader parent, FileChannel channel, long start, long end) throws IOException {
+        this.path = parent.path;
+        this.channel = channel;
+        this.fileSize = parent.fileSize;
+        this.rangeEnd = Math.min(end, fileSize);
+        this.windowSize = (int) Math.max(16, Math.min(parent.windowSize, rangeEnd - start));
+        this.headers = parent.headers;
+        this.headerIndex = parent.headerIndex;
+        this.rawHeader = parent.rawHeader;
+        this.terminator = parent.terminator;
+        this.position = start;
+        if (start < fileSize) {
+            map(start);
+        }
+    }
+
+    public static MappedCsvReader open(Path path) throws IOException {
+        return open(path, DEFAULT_WINDOW_SIZE);
+    }
+
+    public static MappedCsvReader open(Path path, int windowSize) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedCsvReader(path, channel, Math.max(windowSize, 16));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public List<String> headers() {
+        return headers;
+    }
+
+    /**
+     * Raw bytes of the header record as in the file (without the byte order mark), including
+     * its line terminator, like {@link Row#writeTo}
+     */
+    public byte[] rawHeader() {
+        return rawHeader.clone();
+    }
+
+    Path path() {
+        return path;
+    }
+
+    public long fileSize() {
+        return fileSize;
+    }
+
+    /**
+     * File offset of the next record; right after the header for a freshly opened reader
+     */
+    public long position() {
+        return position;
+    }
+
+    /**
+     * Open an independent reader, with this reader's header, over the records that start in
+     * [start, end). {@code start} must be a record boundary. The last record may run past
+     * {@code end}; {@link #position()} then ends up beyond it, which tells the caller that
+     * {@code end} was not a record boundary.
+     */
+    public MappedCsvReader slice(long start, long end) throws IOException {
+        FileChannel sliceChannel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new MappedCsvReader(this, sliceChannel, start, end);
+        } catch (IOException | RuntimeException e) {
+            sliceChannel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Advance to the next record.
+     *
+     * @return the shared row view, valid until the next call; null at the end of the file
+     */
+    public Row next() throws IOException {
+        return readRecord() ? row : null;
+    }
+
+    /**
+     * Mapped windows are released by the garbage collector; closing only closes the channel
+     */
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    private boolean hasBom() {
+        return windowLength >= 3 && (window.get(0) & 0xFF) == 0xEF
+                && (window.get(1) & 0xFF) == 0xBB && (window.get(2) & 0xFF) == 0xBF;
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        windowLength = (int) Math.min(windowSize, fileSize - start);
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, windowLength);
+    }
+
+    /**
+     * Parse the record at {@link #position} into {@link #row}, remapping the window when the
+     * record runs past its end
+     */
+    private boolean readRecord() throws IOException {
+        while (true) {
+            if (position >= rangeEnd) {
+                return false;
+            }
+            if (position < windowStart || position >= windowStart + windowLength) {
+                map(position);
+            }
+            int end = parseRecord((int) (position - windowStart));
+            if (end >= 0) {
+                position = windowStart + end;
+                if (row.size > 0) {
+                    row.recordNumber = ++recordNumber;
+                    return true;
+                }
+                continue; // empty line
+            }
+            // Record crosses the window end: remap from its start, growing the window if the
+            // record alone is larger than it
+            if (position == windowStart) {
+                if (windowSize == MAX_WINDOW_SIZE) {
+                    throw new IOException("CSV record at offset " + position + " exceeds " + MAX_WINDOW_SIZE + " bytes");
+                }
+                windowSize = (int) Math.min(2L * windowSize, MAX_WINDOW_SIZE);
+            }
+            map(position);
+        }
+    }
+
+    /**
+     * @return window offset just past the record, or -1 if the window ends before the record does
+     */
+    private int parseRecord(int start) {
+        boolean atEof = windowStart + windowLength == fileSize;
+        int limit = windowLength;
+        int p = start;
+        row.clear(start);
+
+        if (p < limit && (window.get(p) == LF || (window.get(p) == CR && p + 1 < limit && window.get(p + 1) == LF))) {
+            row.recordEnd = p + (window.get(p) == LF ? 1 : 2);
+            return row.recordEnd;
+        }
+
+        while (true) {
+            int fieldStart;
+            int fieldEnd;
+            boolean quoted = p < limit && window.get(p) == QUOTE;
+            if (quoted) {
+                p++;
+                fieldStart = p;
+                while (true) {
+                    if (p >= limit) {
+                        if (!atEof) {
+                            return -1;
+                        }
+                        fieldEnd = p; // unterminated quote runs to the end of the file
+                        break;
+                    }
+                    if (window.get(p) == QUOTE) {
+                        if (p + 1 < limit && window.get(p + 1) == QUOTE) {
+                            p += 2;
+                            continue;
+                        }
+                        if (p + 1 >= limit && !atEof) {
+                            return -1;
+                        }
+                        fieldEnd = p;
+                        p++;
+                        break;
+                    }
+                    p++;
+                }
+                // Tolerate stray characters between the closing quote and the delimiter
+                while (p < limit && window.get(p) != COMMA && window.get(p) != LF) {
+                    p++;
+                }
+            } else {
+                fieldStart = p;
+                while (p < limit && window.get(p) != COMMA && window.get(p) != LF) {
+                    p++;
+                }
+                fieldEnd = p;
+                if (fieldEnd > fieldStart && (p < limit || atEof) && window.get(fieldEnd - 1) == CR) {
+                    fieldEnd--;
+                }
+            }
+
+            if (p >= limit && !atEof) {
+                return -1;
+            }
+            row.add(fieldStart, fieldEnd, quoted);
+
+            if (p >= limit) {
+                row.recordEnd = p;
+                return p;
+            }
+            if (window.get(p) == LF) {
+                row.recordEnd = p + 1;
+                return p + 1;
+            }
+            p++; // comma
+            if (p >= limit && atEof) {
+                row.add(p, p, false); // trailing empty field
+                row.recordEnd = p;
+                return p;
+            }
+        }
+    }
+
+    private byte[] scratch(int length) {
+        if (scratch.length < length) {
+            scratch = new byte[Math.max(length, scratch.length * 2)];
+        }
+        return scratch;
+    }
+
+    /**
+     * Flyweight view of the current record. Fields are decoded only when asked for; the view
+     * is overwritten by the next call to {@link MappedCsvReader#next()}.
+     */
+    public final class Row {
+
+        private int[] starts = new int[32];
+        private int[] ends = new int[32];
+        private boolean[] quoted = new boolean[32];
+        private int size;
+        private int recordStart;
+        private int recordEnd;
+        private long recordNumber;
+
+        private Row() {
+        }
+
+        void clear(int start) {
+            size = 0;
+            recordStart = start;
+            recordEnd = start;
+        }
+
+        void add(int start, int end, boolean isQuoted) {
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+                quoted = Arrays.copyOf(quoted, size * 2);
+            }
+            starts[size] = start;
+            ends[size] = end;
+            quoted[size] = isQuoted;
+            size++;
+        }
+
+        /**
+         * File offset of the first byte of this record
+         */
+        public long offset() {
+            return windowStart + recordStart;
+        }
+
+        /**
+         * Number of fields in this record
+         */
+        public int size() {
+            return size;
+        }
+
+        /**
+         * 1-based data record number (the header is not counted); counted from the start of
+         * the slice for {@link #slice sliced} readers
+         */
+        public long recordNumber() {
+            return recordNumber;
+        }
+
+        /**
+         * Length in bytes of a field as stored (quotes and escapes included for quoted fields)
+         */
+        public int length(int index) {
+            return index < size ? ends[index] - starts[index] : 0;
+        }
+
+        /**
+         * Decode a field; null if the record has fewer fields
+         */
+        public String get(int index) {
+            if (index < 0 || index >= size) {
+                return null;
+            }
+            int start = starts[index];
+            int length = ends[index] - start;
+            byte[] bytes = scratch(length);
+            window.get(start, bytes, 0, length);
+            if (quoted[index]) {
+                length = unescapeQuotes(bytes, length);
+            }
+            return new String(bytes, 0, length, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * Decode the field under a header name; null if there is no such column
+         */
+        public String get(String header) {
+            Integer index = headerIndex.get(header);
+            return index == null ? null : get(index);
+        }
+
+        /**
+         * Number of bytes {@link #writeTo} writes for this record
+         */
+        public int rawLength() {
+            int length = recordEnd - recordStart;
+            return length + missingTerminator(length > 0 ? window.get(recordEnd - 1) : LF).length;
+        }
+
+        /**
+         * Copy the raw bytes of the whole record, including its line terminator
+         */
+        public void writeTo(OutputStream out) throws IOException {
+            int length = recordEnd - recordStart;
+            byte[] bytes = scratch(length);
+            window.get(recordStart, bytes, 0, length);
+            out.write(bytes, 0, length);
+            out.write(missingTerminator(length > 0 ? bytes[length - 1] : LF));
+        }
+
+        private byte[] missingTerminator(byte last) {
+            if (last == LF) {
+                return NO_BYTES;
+            }
+            return last == CR ? LF_ONLY : terminator;
+        }
+
+        private int unescapeQuotes(byte[] bytes, int length) {
+            int out = 0;
+            for (int i = 0; i < length; i++) {
+                bytes[out++] = bytes[i];
+                if (bytes[i] == QUOTE && i + 1 < length && bytes[i + 1] == QUOTE) {
+                    i++;
+                }
+            }
+            return out;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.toronto.opendata.core.util;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Minimal Mapbox Vector Tile (v2.1) encoder for a single layer of point features.
+ *
+ * Writes the protobuf wire format directly, so no protobuf runtime or generated classes are
+ * needed. Coordinates are tile-local integers in {@code [0, extent)}; points slightly outside
+ * (tile buffer) are allowed by the spec.
+ *
+ * @see <a href="https://github.com/mapbox/vector-tile-spec/tree/master/2.1">vector-tile-spec 2.1</a>
+ */
+public final class MvtEncoder {
+
+    public static final int DEFAULT_EXTENT = 4096;
+
+    // Tile / Layer / Feature / Value field numbers from vector_tile.proto
+    private static final int TILE_LAYERS = 3;
+    private static final int LAYER_NAME = 1;
+    private static final int LAYER_FEATURES = 2;
+    private static final int LAYER_KEYS = 3;
+    private static final int LAYER_VALUES = 4;
+    private static final int LAYER_EXTENT = 5;
+    private static final int LAYER_VERSION = 15;
+    private static final int FEATURE_ID = 1;
+    private static final int FEATURE_TAGS = 2;
+    private static final int FEATURE_TYPE = 3;
+    private static final int FEATURE_GEOMETRY = 4;
+    private static final int VALUE_STRING = 1;
+    private static final int VALUE_DOUBLE = 3;
+    private static final int VALUE_UINT = 5;
+    private static final int VALUE_SINT = 6;
+    private static final int VALUE_BOOL = 7;
+
+    private static final int GEOM_TYPE_POINT = 1;
+    private static final int COMMAND_MOVE_TO_ONE = (1 & 0x7) | (1 << 3);
+
+    private static final int WIRE_VARINT = 0;
+    private static final int WIRE_LENGTH_DELIMITED = 2;
+
+    private final String layerName;
+    private final int extent;
+    private final Map<String, Integer> keyIndex = new HashMap<>();
+    private final Map<Object, Integer> valueIndex = new HashMap<>();
+    private final List<String> keys = new ArrayList<>();
+    private final List<Object> values = new ArrayList<>();
+    private final Buffer features = new Buffer();
+    private int featureCount;
+
+    public MvtEncoder(String layerName, int extent) {
+        this.layerName = layerName;
+        this.extent = extent;
+    }
+
+    public int featureCount() {
+        return featureCount;
+    }
+
+    /**
+     * Add a point feature.
+     *
+     * @param id         feature id, or a negative value for none
+     * @param x          tile-local x
+     * @param y          tile-local y (down)
+     * @param properties alternating key (String) / value (String, Number, Boolean) pairs; null values are skipped
+     */
+    public void addPoint(long id, int x, int y, Object... properties) {
+        Buffer feature = new Buffer();
+        if (id >= 0) {
+            feature.tag(FEATURE_ID, WIRE_VARINT).varint(id);
+        }
+
+        Buffer tags = new Buffer();
+        for (int i = 0; i + 1 < properties.length; i += 2) {
+            Object value = properties[i + 1];
+            if (value == null) {
+                continue;
+            }
+            tags.varint(keyIndex.computeIfAbsent((String) properties[i], key -> {
+                keys.add(key);
+                return keys.size() - 1;
+            }));
+            tags.varint(valueIndex.computeIfAbsent(normalize(value), v -> {
+                values.add(v);
+                return values.size() - 1;
+            }));
+        }
+        if (tags.size() > 0) {
+            feature.tag(FEATURE_TAGS, WIRE_LENGTH_DELIMITED).bytes(tags);
+        }
+
+        feature.tag(FEATURE_TYPE, WIRE_VARINT).varint(GEOM_TYPE_POINT);
+
+        Buffer geometry = new Buffer();
+        geometry.varint(COMMAND_MOVE_TO_ONE).varint(zigZag(x)).varint(zigZag(y));
+        feature.tag(FEATURE_GEOMETRY, WIRE_LENGTH_DELIMITED).bytes(geometry);
+
+        features.tag(LAYER_FEATURES, WIRE_LENGTH_DELIMITED).bytes(feature);
+        featureCount++;
+    }
+
+    /**
+     * Encode the tile. A tile without features encodes to an empty byte array.
+     */
+    public byte[] encode() {
+        if (featureCount == 0) {
+            return new byte[0];
+        }
+        Buffer layer = new Buffer();
+        layer.tag(LAYER_VERSION, WIRE_VARINT).varint(2);
+        layer.tag(LAYER_NAME, WIRE_LENGTH_DELIMITED).string(layerName);
+        layer.raw(features);
+        for (String key : keys) {
+            layer.tag(LAYER_KEYS, WIRE_LENGTH_DELIMITED).string(key);
+        }
+        for (Object value : values) {
+            layer.tag(LAYER_VALUES, WIRE_LENGTH_DELIMITED).bytes(encodeValue(value));
+        }
+        layer.tag(LAYER_EXTENT, WIRE_VARINT).varint(extent);
+
+        Buffer tile = new Buffer();
+        tile.tag(TILE_LAYERS, WIRE_LENGTH_DELIMITED).bytes(layer);
+        return tile.toByteArray();
+    }
+
+    private static Object normalize(Object value) {
+        if (value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof Float) {
+            return ((Float) value).doubleValue();
+        }
+        if (value instanceof String || value instanceof Long || value instanceof Double || value instanceof Boolean) {
+            return value;
+        }
+        return value.toString();
+    }
+
+    private static Buffer encodeValue(Object value) {
+        Buffer buffer = new Buffer();
+        if (value instanceof String s) {
+            buffer.tag(VALUE_STRING, WIRE_LENGTH_DELIMITED).string(s);
+        } else if (value instanceof Long l) {
+            if (l >= 0) {
+                buffer.tag(VALUE_UINT, WIRE_VARINT).varint(l);
+            } else {
+                buffer.tag(VALUE_SINT, WIRE_VARINT).varint((l << 1) ^ (l >> 63));
+            }
+        } else if (value instanceof Double d) {
+            buffer.tag(VALUE_DOUBLE, 1).fixed64(Double.doubleToLongBits(d));
+        } else if (value instanceof Boolean b) {
+            buffer.tag(VALUE_BOOL, WIRE_VARINT).varint(b ? 1 : 0);
+        }
+        return buffer;
+    }
+
+    private static int zigZag(int n) {
+        return (n << 1) ^ (n >> 31);
+    }
+
+    /**
+     * Growable byte buffer with the protobuf primitives needed above
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+
+        Buffer tag(int field, int wireType) {
+            return varint(((long) field << 3) | wireType);
+        }
+
+        Buffer varint(long value) {
+            while ((value & ~0x7FL) != 0) {
+                write((int) ((value & 0x7F) | 0x80));
+                value >>>= 7;
+            }
+            write((int) value);
+            return this;
+        }
+
+        Buffer varint(int value) {
+            return varint(value & 0xFFFFFFFFL);
+        }
+
+        Buffer fixed64(long value) {
+            for (int i = 0; i < 8; i++) {
+                write((int) (value >>> (8 * i)) & 0xFF);
+            }
+            return this;
+        }
+
+        Buffer string(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            write(bytes, 0, bytes.length);
+            return this;
+        }
+
+        Buffer bytes(Buffer nested) {
+            varint(nested.size());
+            raw(nested);
+            return this;
+        }
+
+        Buffer raw(Buffer other) {
+            write(other.buf, 0, other.count);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.toronto.opendata.core.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Immutable column of nullable strings packed into one UTF-8 blob with an end offset per
+ * value, instead of one String object (header, array, hash) per value. Values are decoded
+ * when they are read.
+ */
+public final class PackedStrings {
+
+    private final byte[] blob;
+    // ends[i] is the exclusive end of value i in the blob; value i starts at ends[i - 1]
+    private final int[] ends;
+    private final long[] nulls;
+
+    private PackedStrings(byte[] blob, int[] ends, long[] nulls) {
+        this.blob = blob;
+        this.ends = ends;
+        this.nulls = nulls;
+    }
+
+    public static PackedStrings of(String[] values) {
+        byte[][] encoded = new byte[values.length][];
+        long[] nulls = new long[(values.length + 63) >>> 6];
+        long total = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] == null) {
+                nulls[i >>> 6] |= 1L << i;
+                encoded[i] = new byte[0];
+            } else {
+                encoded[i] = values[i].getBytes(StandardCharsets.UTF_8);
+            }
+            total += encoded[i].length;
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Column too large to pack: " + total + " bytes");
+        }
+        byte[] blob = new byte[(int) total];
+        int[] ends = new int[values.length];
+        int end = 0;
+        for (int i = 0; i < values.length; i++) {
+            System.arraycopy(encoded[i], 0, blob, end, encoded[i].length);
+            end += encoded[i].length;
+            ends[i] = end;
+        }
+        return new PackedStrings(blob, ends, nulls);
+    }
+
+    public int size() {
+        return ends.length;
+    }
+
+    public boolean isNull(int index) {
+        return (nulls[index >>> 6] & (1L << index)) != 0;
+    }
+
+    public String get(int index) {
+        if (isNull(index)) {
+            return null;
+        }
+        int start = index == 0 ? 0 : ends[index - 1];
+        return new String(blob, start, ends[index] - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compare value {@code index} with {@code value} by their UTF-8 bytes (nulls first)
+     */
+    public int compare(int index, byte[] value) {
+        if (isNull(index)) {
+            return value == null ? 0 : -1;
+        }
+        if (value == null) {
+            return 1;
+        }
+        int start = index == 0 ? 0 : ends[index - 1];
+        return Arrays.compareUnsigned(blob, start, ends[index], value, 0, value.length);
+    }
+}
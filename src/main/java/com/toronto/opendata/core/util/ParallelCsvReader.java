@@ -0,0 +1,277 @@
+package com.toronto.opendata.core.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Parallel, ordered parsing of large CSV files.
+ *
+ * The data section is cut into byte ranges of roughly equal size whose boundaries are moved
+ * forward to the next line break outside quotes. Whether a range starts inside a quoted field
+ * follows from the parity of the quotes before it (doubled quotes do not change it), counted
+ * per range in a first parallel pass, so quoted line breaks never split a record. Ranges are
+ * then parsed and mapped concurrently, each through its own {@link MappedCsvReader} slice,
+ * and the mapped chunks are handed to the sink one at a time, in file order, on the calling
+ * thread. At most two chunks per worker are in flight, so memory stays bounded.
+ *
+ * The parity rule holds for RFC 4180 input. A stray quote inside an unquoted field can
+ * misplace a boundary; the range before it then ends past the boundary, and the rest of the
+ * file is read sequentially from the last boundary known to be good.
+ */
+public final class ParallelCsvReader {
+
+    public static final int MIN_CHUNK_SIZE = 64 << 10;
+    public static final int MAX_CHUNK_SIZE = 8 << 20;
+
+    private static final byte QUOTE = '"';
+    private static final byte LF = '\n';
+    // Chunks per worker, so that one slow chunk does not leave the others idle
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final int SCAN_BUFFER_SIZE = 64 << 10;
+    private static final int BOUNDARY_BUFFER_SIZE = 4 << 10;
+
+    private ParallelCsvReader() {
+    }
+
+    /**
+     * Parse {@code path} on {@code pool}, sizing chunks so each worker gets several.
+     *
+     * @param mapper called concurrently, once per data record; the row must not be kept and
+     *               null results are dropped
+     * @param sink   receives the mapped records of each chunk, in file order, on the calling
+     *               thread
+     * @return number of data records read
+     */
+    public static <T> long forEachChunk(Path path, ForkJoinPool pool, Function<MappedCsvReader.Row, T> mapper,
+                                        Consumer<List<T>> sink) throws IOException {
+        try (MappedCsvReader reader = MappedCsvReader.open(path)) {
+            long dataLength = reader.fileSize() - reader.position();
+            long perChunk = dataLength / ((long) pool.getParallelism() * CHUNKS_PER_WORKER);
+            int chunkSize = (int) Math.max(MIN_CHUNK_SIZE, Math.min(perChunk, MAX_CHUNK_SIZE));
+            return forEachChunk(reader, pool, chunkSize, mapper, sink);
+        }
+    }
+
+    /**
+     * As {@link #forEachChunk(Path, ForkJoinPool, Function, Consumer)} with an explicit
+     * nominal chunk size in bytes
+     */
+    public static <T> long forEachChunk(Path path, ForkJoinPool pool, int chunkSize,
+                                        Function<MappedCsvReader.Row, T> mapper, Consumer<List<T>> sink) throws IOException {
+        try (MappedCsvReader reader = MappedCsvReader.open(path)) {
+            return forEachChunk(reader, pool, Math.max(chunkSize, 16), mapper, sink);
+        }
+    }
+
+    private static <T> long forEachChunk(MappedCsvReader reader, ForkJoinPool pool, int chunkSize,
+                                         Function<MappedCsvReader.Row, T> mapper, Consumer<List<T>> sink) throws IOException {
+        long[] boundaries = splitOnRecords(reader, pool, chunkSize);
+        int chunks = boundaries.length - 1;
+        int maxInFlight = Math.max(2, pool.getParallelism() * 2);
+        Deque<ForkJoinTask<Chunk<T>>> inFlight = new ArrayDeque<>();
+        int submitted = 0;
+        long records = 0;
+        try {
+            for (int i = 0; i < chunks; i++) {
+                while (submitted < chunks && inFlight.size() < maxInFlight) {
+                    long start = boundaries[submitted];
+                    long end = boundaries[submitted + 1];
+                    inFlight.add(pool.submit(() -> parseChunk(reader, start, end, mapper)));
+                    submitted++;
+                }
+                Chunk<T> chunk = await(inFlight.poll());
+                if (chunk.end() != boundaries[i + 1]) {
+                    // boundaries[i + 1] fell inside a record
+                    cancel(inFlight);
+                    return records + readSequentially(reader, boundaries[i], chunkSize, mapper, sink);
+                }
+                records += chunk.records();
+                sink.accept(chunk.items());
+            }
+            return records;
+        } finally {
+            cancel(inFlight);
+        }
+    }
+
+    /**
+     * Record-aligned chunk boundaries, from the first data record to the end of the file
+     */
+    private static long[] splitOnRecords(MappedCsvReader reader, ForkJoinPool pool, int chunkSize) throws IOException {
+        long dataStart = reader.position();
+        long fileSize = reader.fileSize();
+        int ranges = (int) Math.max(1, (fileSize - dataStart + chunkSize - 1) / chunkSize);
+        if (dataStart >= fileSize || ranges == 1) {
+            return dataStart >= fileSize ? new long[] {dataStart} : new long[] {dataStart, fileSize};
+        }
+
+        try (FileChannel channel = FileChannel.open(reader.path(), StandardOpenOption.READ)) {
+            // Pass 1: quote parity of each nominal range, in parallel
+            List<ForkJoinTask<Boolean>> parities = new ArrayList<>(ranges);
+            for (int r = 0; r < ranges; r++) {
+                long start = dataStart + (long) r * chunkSize;
+                long end = Math.min(start + chunkSize, fileSize);
+                parities.add(pool.submit(() -> hasOddQuotes(channel, start, end)));
+            }
+
+            // Pass 2: move each nominal boundary to the next line break outside quotes
+            List<Long> boundaries = new ArrayList<>(ranges + 1);
+            boundaries.add(dataStart);
+            boolean inQuotes = false;
+            try {
+                for (int r = 1; r < ranges; r++) {
+                    inQuotes ^= await(parities.get(r - 1));
+                    long boundary = nextRecordStart(channel, dataStart + (long) r * chunkSize, fileSize, inQuotes);
+                    if (boundary > boundaries.get(boundaries.size() - 1) && boundary < fileSize) {
+                        boundaries.add(boundary);
+                    }
+                }
+            } finally {
+                cancel(parities);
+            }
+            boundaries.add(fileSize);
+            return boundaries.stream().mapToLong(Long::longValue).toArray();
+        }
+    }
+
+    private static boolean hasOddQuotes(FileChannel channel, long start, long end) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(SCAN_BUFFER_SIZE, end - start));
+        boolean odd = false;
+        for (long position = start; position < end; ) {
+            int length = read(channel, buffer, position, end);
+            for (int i = 0; i < length; i++) {
+                if (buffer.get(i) == QUOTE) {
+                    odd = !odd;
+                }
+            }
+            position += length;
+        }
+        return odd;
+    }
+
+    /**
+     * Offset just past the first line break at or after {@code from} that is outside quotes
+     */
+    private static long nextRecordStart(FileChannel channel, long from, long fileSize, boolean inQuotes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_BUFFER_SIZE);
+        for (long position = from; position < fileSize; ) {
+            int length = read(channel, buffer, position, fileSize);
+            for (int i = 0; i < length; i++) {
+                byte b = buffer.get(i);
+                if (b == QUOTE) {
+                    inQuotes = !inQuotes;
+                } else if (b == LF && !inQuotes) {
+                    return position + i + 1;
+                }
+            }
+            position += length;
+        }
+        return fileSize;
+    }
+
+    /**
+     * Positional read of up to a buffer's worth of [position, end); the channel position is
+     * untouched, so concurrent reads on one channel are safe
+     */
+    private static int read(FileChannel channel, ByteBuffer buffer, long position, long end) throws IOException {
+        buffer.clear();
+        buffer.limit((int) Math.min(buffer.capacity(), end - position));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("CSV file truncated while reading");
+            }
+        }
+        return buffer.limit();
+    }
+
+    private static <T> Chunk<T> parseChunk(MappedCsvReader reader, long start, long end,
+                                           Function<MappedCsvReader.Row, T> mapper) throws IOException {
+        try (MappedCsvReader slice = reader.slice(start, end)) {
+            List<T> items = new ArrayList<>();
+            long records = 0;
+            MappedCsvReader.Row row;
+            while ((row = slice.next()) != null) {
+                records++;
+                T item = mapper.apply(row);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
+            return new Chunk<>(items, records, slice.position());
+        }
+    }
+
+    private static <T> long readSequentially(MappedCsvReader reader, long start, int chunkSize,
+                                             Function<MappedCsvReader.Row, T> mapper, Consumer<List<T>> sink) throws IOException {
+        try (MappedCsvReader slice = reader.slice(start, reader.fileSize())) {
+            List<T> items = new ArrayList<>();
+            long batchStart = start;
+            long records = 0;
+            MappedCsvReader.Row row;
+            while ((row = slice.next()) != null) {
+                records++;
+                T item = mapper.apply(row);
+                if (item != null) {
+                    items.add(item);
+                }
+                if (slice.position() - batchStart >= chunkSize) {
+                    sink.accept(items);
+                    items = new ArrayList<>();
+                    batchStart = slice.position();
+                }
+            }
+            if (!items.isEmpty()) {
+                sink.accept(items);
+            }
+            return records;
+        }
+    }
+
+    private static <V> V await(ForkJoinTask<V> task) throws IOException {
+        try {
+            return task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while parsing CSV");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof UncheckedIOException unchecked) {
+                throw unchecked.getCause();
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static void cancel(Iterable<? extends ForkJoinTask<?>> tasks) {
+        for (ForkJoinTask<?> task : tasks) {
+            task.cancel(false);
+        }
+    }
+
+    private record Chunk<T>(List<T> items, long records, long end) {
+    }
+}
@@ -0,0 +1,230 @@
+package com.toronto.opendata.core.util;
+
+import java.util.Arrays;
+
+/**
+ * Immutable uniform-grid spatial index over primitive latitude/longitude arrays.
+ *
+ * Points are bucketed into equally sized cells covering their bounding box and stored
+ * cell by cell (CSR layout), so a query only visits the cells overlapping its box and
+ * reads coordinates sequentially. Query results are the positions of the points in the
+ * arrays the index was built from, in ascending order.
+ */
+public final class SpatialGridIndex {
+
+    /** Average number of points per cell the grid is sized for */
+    private static final int TARGET_POINTS_PER_CELL = 8;
+
+    private static final int MAX_CELLS_PER_AXIS = 1024;
+
+    private final int size;
+    private final double minLat;
+    private final double minLon;
+    private final double cellHeight;
+    private final double cellWidth;
+    private final int rows;
+    private final int cols;
+
+    // cellStart[c]..cellStart[c + 1] is the slice of ids/lats/lons belonging to cell c
+    private final int[] cellStart;
+    private final int[] ids;
+    private final double[] lats;
+    private final double[] lons;
+
+    private SpatialGridIndex(int size, double minLat, double minLon, double cellHeight, double cellWidth,
+                             int rows, int cols, int[] cellStart, int[] ids, double[] lats, double[] lons) {
+        this.size = size;
+        this.minLat = minLat;
+        this.minLon = minLon;
+        this.cellHeight = cellHeight;
+        this.cellWidth = cellWidth;
+        this.rows = rows;
+        this.cols = cols;
+        this.cellStart = cellStart;
+        this.ids = ids;
+        this.lats = lats;
+        this.lons = lons;
+    }
+
+    /**
+     * Build an index over the given coordinates. Both arrays must have the same length;
+     * they are not retained.
+     */
+    public static SpatialGridIndex build(double[] latitudes, double[] longitudes) {
+        if (latitudes.length != longitudes.length) {
+            throw new IllegalArgumentException("latitude and longitude arrays must have the same length");
+        }
+        int n = latitudes.length;
+        if (n == 0) {
+            return new SpatialGridIndex(0, 0, 0, 1, 1, 1, 1, new int[2], new int[0], new double[0], new double[0]);
+        }
+
+        double minLat = Double.POSITIVE_INFINITY, maxLat = Double.NEGATIVE_INFINITY;
+        double minLon = Double.POSITIVE_INFINITY, maxLon = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            minLat = Math.min(minLat, latitudes[i]);
+            maxLat = Math.max(maxLat, latitudes[i]);
+            minLon = Math.min(minLon, longitudes[i]);
+            maxLon = Math.max(maxLon, longitudes[i]);
+        }
+
+        // Square-ish cells sized so that on average TARGET_POINTS_PER_CELL points share a cell
+        double height = Math.max(maxLat - minLat, 1e-9);
+        double width = Math.max(maxLon - minLon, 1e-9);
+        double cellCount = Math.max(1.0, (double) n / TARGET_POINTS_PER_CELL);
+        double side = Math.sqrt(height * width / cellCount);
+        int rows = clamp((int) Math.ceil(height / side), 1, MAX_CELLS_PER_AXIS);
+        int cols = clamp((int) Math.ceil(width / side), 1, MAX_CELLS_PER_AXIS);
+        double cellHeight = height / rows;
+        double cellWidth = width / cols;
+
+        // Counting sort of the points by cell
+        int[] cellOf = new int[n];
+        int[] cellStart = new int[rows * cols + 1];
+        for (int i = 0; i < n; i++) {
+            int row = clamp((int) ((latitudes[i] - minLat) / cellHeight), 0, rows - 1);
+            int col = clamp((int) ((longitudes[i] - minLon) / cellWidth), 0, cols - 1);
+            cellOf[i] = row * cols + col;
+            cellStart[cellOf[i] + 1]++;
+        }
+        for (int c = 0; c < rows * cols; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+
+        int[] cursor = Arrays.copyOf(cellStart, rows * cols);
+        int[] ids = new int[n];
+        double[] lats = new double[n];
+        double[] lons = new double[n];
+        for (int i = 0; i < n; i++) {
+            int slot = cursor[cellOf[i]]++;
+            ids[slot] = i;
+            lats[slot] = latitudes[i];
+            lons[slot] = longitudes[i];
+        }
+
+        return new SpatialGridIndex(n, minLat, minLon, cellHeight, cellWidth, rows, cols, cellStart, ids, lats, lons);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Positions of all points inside the box (inclusive on every edge).
+     */
+    public int[] queryBounds(double qMinLat, double qMaxLat, double qMinLon, double qMaxLon) {
+        IntBuffer out = new IntBuffer();
+        collectBounds(qMinLat, qMaxLat, qMinLon, qMaxLon, out);
+        return out.toSortedArray();
+    }
+
+    /**
+     * Positions of all points within {@code radiusKm} (Haversine) of the centre. Candidates are
+     * taken from the cells overlapping the circle's bounding box and pre-filtered against that
+     * box before the distance is computed.
+     */
+    public int[] queryRadius(double centerLat, double centerLon, double radiusKm) {
+        IntBuffer candidates = new IntBuffer(true);
+        double latDelta = radiusKm / GeoUtils.KM_PER_DEGREE_LAT;
+        double lonDelta = GeoUtils.lonDeltaDegrees(centerLat, radiusKm);
+        double qMinLat = centerLat - latDelta;
+        double qMaxLat = centerLat + latDelta;
+
+        if (lonDelta >= 180.0) {
+            collectBounds(qMinLat, qMaxLat, -180.0, 180.0, candidates);
+        } else {
+            double qMinLon = centerLon - lonDelta;
+            double qMaxLon = centerLon + lonDelta;
+            collectBounds(qMinLat, qMaxLat, Math.max(qMinLon, -180.0), Math.min(qMaxLon, 180.0), candidates);
+            // Circles crossing the antimeridian wrap around to the other side
+            if (qMinLon < -180.0) {
+                collectBounds(qMinLat, qMaxLat, qMinLon + 360.0, 180.0, candidates);
+            } else if (qMaxLon > 180.0) {
+                collectBounds(qMinLat, qMaxLat, -180.0, qMaxLon - 360.0, candidates);
+            }
+        }
+
+        IntBuffer out = new IntBuffer();
+        for (int k = 0; k < candidates.size; k++) {
+            int slot = candidates.values[k];
+            if (GeoUtils.haversineKm(centerLat, centerLon, lats[slot], lons[slot]) <= radiusKm) {
+                out.add(ids[slot]);
+            }
+        }
+        return out.toSortedArray();
+    }
+
+    /**
+     * Collects the ids (bounds query) or slots (radius candidates) of points inside the box.
+     * Points in cells fully covered by the box are taken without a per-point test.
+     */
+    private void collectBounds(double qMinLat, double qMaxLat, double qMinLon, double qMaxLon, IntBuffer out) {
+        if (size == 0 || qMinLat > qMaxLat || qMinLon > qMaxLon) {
+            return;
+        }
+        int rowFrom = (int) Math.floor((qMinLat - minLat) / cellHeight);
+        int rowTo = (int) Math.floor((qMaxLat - minLat) / cellHeight);
+        int colFrom = (int) Math.floor((qMinLon - minLon) / cellWidth);
+        int colTo = (int) Math.floor((qMaxLon - minLon) / cellWidth);
+        // Points on the max edge are clamped into the last row/col, so a box starting exactly
+        // one cell past the grid can still match them
+        if (rowTo < 0 || colTo < 0 || rowFrom > rows || colFrom > cols) {
+            return;
+        }
+        rowFrom = clamp(rowFrom, 0, rows - 1);
+        colFrom = clamp(colFrom, 0, cols - 1);
+        rowTo = Math.min(rowTo, rows - 1);
+        colTo = Math.min(colTo, cols - 1);
+
+        boolean emitSlots = out.slots;
+        for (int row = rowFrom; row <= rowTo; row++) {
+            // Interior rows/cols are fully covered; only the outer ring needs per-point checks.
+            // The last row/col also holds points clamped onto the max edge, so it is never "interior".
+            boolean rowInside = row > rowFrom && row < rowTo;
+            for (int col = colFrom; col <= colTo; col++) {
+                boolean inside = rowInside && col > colFrom && col < colTo;
+                int cell = row * cols + col;
+                for (int slot = cellStart[cell]; slot < cellStart[cell + 1]; slot++) {
+                    if (inside || (lats[slot] >= qMinLat && lats[slot] <= qMaxLat
+                            && lons[slot] >= qMinLon && lons[slot] <= qMaxLon)) {
+                        out.add(emitSlots ? slot : ids[slot]);
+                    }
+                }
+            }
+        }
+    }
+
+    private static int clamp(int value, int min, int max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    /**
+     * Minimal growable int list to avoid boxing query results.
+     */
+    private static final class IntBuffer {
+        private int[] values = new int[16];
+        private int size;
+        private final boolean slots;
+
+        IntBuffer() {
+            this(false);
+        }
+
+        IntBuffer(boolean slots) {
+            this.slots = slots;
+        }
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toSortedArray() {
+            int[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
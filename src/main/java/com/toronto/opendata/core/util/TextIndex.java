@@ -0,0 +1,349 @@
+package com.toronto.opendata.core.util;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable in-memory inverted index with BM25F ranking.
+ *
+ * Documents are added field by field to a {@link Builder}; each field has a weight that scales
+ * its term frequencies and length. The term dictionary is a sorted array, so prefix lookups
+ * are two binary searches, and postings are stored per term in document order (CSR layout)
+ * with their BM25 term weight precomputed. A query therefore only merges the postings of its
+ * terms and sums {@code idf * weight}; nothing is recomputed per document at query time.
+ * Document ids are the positions in which documents were added.
+ */
+public final class TextIndex {
+
+    /** BM25 term-frequency saturation */
+    private static final float K1 = 1.2f;
+    /** BM25 length normalization */
+    private static final float B = 0.75f;
+    /** Prefix terms expanded per query term, most frequent first */
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it",
+            "of", "on", "or", "that", "the", "this", "to", "was", "with");
+
+    /**
+     * One ranked result
+     */
+    public record Hit(int doc, float score) {
+    }
+
+    private final int documentCount;
+    private final String[] terms;
+    // postingStart[t]..postingStart[t + 1] is the slice of postingDocs/postingWeights of term t
+    private final int[] postingStart;
+    private final int[] postingDocs;
+    private final float[] postingWeights;
+    private final float[] idf;
+
+    private TextIndex(int documentCount, String[] terms, int[] postingStart, int[] postingDocs, float[] postingWeights) {
+        this.documentCount = documentCount;
+        this.terms = terms;
+        this.postingStart = postingStart;
+        this.postingDocs = postingDocs;
+        this.postingWeights = postingWeights;
+        this.idf = new float[terms.length];
+        for (int t = 0; t < terms.length; t++) {
+            int df = postingStart[t + 1] - postingStart[t];
+            idf[t] = (float) Math.log(1 + (documentCount - df + 0.5) / (df + 0.5));
+        }
+    }
+
+    public static Builder builder(float... fieldWeights) {
+        return new Builder(fieldWeights);
+    }
+
+    public int documentCount() {
+        return documentCount;
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    /**
+     * Lower-cased, accent-folded alphanumeric tokens of {@code text}, without stop words
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String folded = isAscii(text) ? text
+                : DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        int start = -1;
+        for (int i = 0; i <= folded.length(); i++) {
+            boolean wordChar = i < folded.length() && Character.isLetterOrDigit(folded.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String token = folded.substring(start, i).toLowerCase();
+                if (!STOP_WORDS.contains(token)) {
+                    tokens.add(token);
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static boolean isAscii(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Rank documents against a free-text query. Every query term is optional (OR semantics);
+     * documents matching more and rarer terms score higher.
+     *
+     * @param prefixLastTerm expand the last query term to every indexed term it prefixes
+     *                       (search-as-you-type)
+     * @param filter         documents to consider, or null for all
+     * @param limit          maximum number of hits
+     * @return hits by descending score
+     */
+    public List<Hit> search(String query, boolean prefixLastTerm, IntPredicate filter, int limit) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        // One cursor per matched dictionary term; cursors of the same query term form a group and
+        // a document scores the best of its group (a prefix is one term, however many it expands to)
+        List<String> distinct = tokens.stream().distinct().toList();
+        String lastToken = tokens.get(tokens.size() - 1);
+        List<Integer> matchedTerms = new ArrayList<>();
+        List<Integer> matchedGroups = new ArrayList<>();
+        for (int g = 0; g < distinct.size(); g++) {
+            String token = distinct.get(g);
+            boolean prefix = prefixLastTerm && token.equals(lastToken);
+            for (int t : prefix ? expandPrefix(token, MAX_PREFIX_EXPANSIONS) : exactTerm(token)) {
+                matchedTerms.add(t);
+                matchedGroups.add(g);
+            }
+        }
+        if (matchedTerms.isEmpty()) {
+            return List.of();
+        }
+
+        int cursorCount = matchedTerms.size();
+        int[] termOf = new int[cursorCount];
+        int[] groupOf = new int[cursorCount];
+        int[] position = new int[cursorCount];
+        for (int c = 0; c < cursorCount; c++) {
+            termOf[c] = matchedTerms.get(c);
+            groupOf[c] = matchedGroups.get(c);
+            position[c] = postingStart[termOf[c]];
+        }
+
+        float[] groupScore = new float[distinct.size()];
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, TextIndex::compareHits);
+        while (true) {
+            // Document-at-a-time merge: next smallest document among all cursors
+            int doc = Integer.MAX_VALUE;
+            for (int c = 0; c < cursorCount; c++) {
+                if (position[c] < postingStart[termOf[c] + 1]) {
+                    doc = Math.min(doc, postingDocs[position[c]]);
+                }
+            }
+            if (doc == Integer.MAX_VALUE) {
+                break;
+            }
+
+            Arrays.fill(groupScore, 0f);
+            for (int c = 0; c < cursorCount; c++) {
+                int p = position[c];
+                if (p < postingStart[termOf[c] + 1] && postingDocs[p] == doc) {
+                    float score = idf[termOf[c]] * postingWeights[p];
+                    groupScore[groupOf[c]] = Math.max(groupScore[groupOf[c]], score);
+                    position[c] = p + 1;
+                }
+            }
+            if (filter != null && !filter.test(doc)) {
+                continue;
+            }
+
+            float score = 0f;
+            for (float s : groupScore) {
+                score += s;
+            }
+            if (top.size() < limit) {
+                top.add(new Hit(doc, score));
+            } else if (compareHits(new Hit(doc, score), top.peek()) > 0) {
+                top.poll();
+                top.add(new Hit(doc, score));
+            }
+        }
+
+        Hit[] hits = top.toArray(new Hit[0]);
+        Arrays.sort(hits, (a, b) -> compareHits(b, a));
+        return Arrays.asList(hits);
+    }
+
+    /**
+     * Indexed terms starting with {@code prefix}, most frequent first
+     */
+    public List<String> completions(String prefix, int limit) {
+        List<String> tokens = tokenize(prefix);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        List<String> result = new ArrayList<>();
+        for (int t : expandPrefix(tokens.get(tokens.size() - 1), limit)) {
+            result.add(terms[t]);
+        }
+        return result;
+    }
+
+    /**
+     * Ascending by score, ties broken in favour of the lower document id
+     */
+    private static int compareHits(Hit a, Hit b) {
+        int byScore = Float.compare(a.score(), b.score());
+        return byScore != 0 ? byScore : Integer.compare(b.doc(), a.doc());
+    }
+
+    private int[] exactTerm(String token) {
+        int t = Arrays.binarySearch(terms, token);
+        return t >= 0 ? new int[] {t} : new int[0];
+    }
+
+    /**
+     * Up to {@code limit} terms starting with {@code prefix}, by descending document frequency
+     */
+    private int[] expandPrefix(String prefix, int limit) {
+        int from = lowerBound(prefix);
+        int to = from;
+        while (to < terms.length && terms[to].startsWith(prefix)) {
+            to++;
+        }
+        Integer[] matched = new Integer[to - from];
+        for (int t = from; t < to; t++) {
+            matched[t - from] = t;
+        }
+        Arrays.sort(matched, (a, b) -> Integer.compare(
+                postingStart[b + 1] - postingStart[b], postingStart[a + 1] - postingStart[a]));
+        int n = Math.min(limit, matched.length);
+        int[] result = new int[n];
+        for (int i = 0; i < n; i++) {
+            result[i] = matched[i];
+        }
+        return result;
+    }
+
+    private int lowerBound(String key) {
+        int lo = 0;
+        int hi = terms.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Accumulates documents one at a time; memory is proportional to the postings, and
+     * {@link #build()} only sorts the dictionary and lays the postings out.
+     */
+    public static final class Builder {
+
+        private final float[] fieldWeights;
+        private final Map<String, Postings> postings = new HashMap<>();
+        private final List<Float> documentLengths = new ArrayList<>();
+
+        private Builder(float[] fieldWeights) {
+            this.fieldWeights = fieldWeights.clone();
+        }
+
+        /**
+         * Add a document; {@code fields} line up with the field weights and may contain nulls.
+         *
+         * @return the document id
+         */
+        public int add(String... fields) {
+            int doc = documentLengths.size();
+            Map<String, Float> frequencies = new HashMap<>();
+            float length = 0;
+            for (int f = 0; f < fields.length && f < fieldWeights.length; f++) {
+                for (String token : tokenize(fields[f])) {
+                    frequencies.merge(token, fieldWeights[f], Float::sum);
+                    length += fieldWeights[f];
+                }
+            }
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, key -> new Postings()).add(doc, frequency));
+            documentLengths.add(length);
+            return doc;
+        }
+
+        public TextIndex build() {
+            int documentCount = documentLengths.size();
+            float averageLength = 0;
+            for (float length : documentLengths) {
+                averageLength += length;
+            }
+            averageLength = documentCount == 0 ? 1 : Math.max(averageLength / documentCount, 1e-6f);
+
+            String[] terms = postings.keySet().toArray(new String[0]);
+            Arrays.sort(terms);
+            int[] postingStart = new int[terms.length + 1];
+            for (int t = 0; t < terms.length; t++) {
+                postingStart[t + 1] = postingStart[t] + postings.get(terms[t]).size;
+            }
+
+            int[] postingDocs = new int[postingStart[terms.length]];
+            float[] postingWeights = new float[postingDocs.length];
+            for (int t = 0; t < terms.length; t++) {
+                Postings list = postings.get(terms[t]);
+                for (int i = 0; i < list.size; i++) {
+                    int doc = list.docs[i];
+                    float tf = list.frequencies[i];
+                    float norm = K1 * (1 - B + B * documentLengths.get(doc) / averageLength);
+                    postingDocs[postingStart[t] + i] = doc;
+                    postingWeights[postingStart[t] + i] = tf * (K1 + 1) / (tf + norm);
+                }
+            }
+            return new TextIndex(documentCount, terms, postingStart, postingDocs, postingWeights);
+        }
+    }
+
+    /**
+     * Growable postings list; documents arrive in ascending order
+     */
+    private static final class Postings {
+        int[] docs = new int[4];
+        float[] frequencies = new float[4];
+        int size;
+
+        void add(int doc, float frequency) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docs[size] = doc;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+}
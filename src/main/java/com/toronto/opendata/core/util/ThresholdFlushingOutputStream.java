@@ -0,0 +1,71 @@
+package com.toronto.opendata.core.util;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Duration;
+
+/**
+ * Buffering stream for long-running responses. Bytes are held until {@code flushBytes} are
+ * pending or {@code maxDelay} has passed since the last flush, whichever comes first; only
+ * then are they written and the underlying stream flushed. A fast producer therefore sends
+ * large chunks, while a slow one still gets bytes to the client at a steady pace.
+ *
+ * The time threshold is checked on write, so it bounds latency only while data is produced.
+ */
+public final class ThresholdFlushingOutputStream extends FilterOutputStream {
+
+    private final byte[] buffer;
+    private final long maxDelayNanos;
+    private int count;
+    private long lastFlush = System.nanoTime();
+
+    public ThresholdFlushingOutputStream(OutputStream out, int flushBytes, Duration maxDelay) {
+        super(out);
+        if (flushBytes <= 0) {
+            throw new IllegalArgumentException("flushBytes must be positive");
+        }
+        this.buffer = new byte[flushBytes];
+        this.maxDelayNanos = maxDelay.toNanos();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (count == buffer.length) {
+            flush();
+        }
+        buffer[count++] = (byte) b;
+        flushIfDue();
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == buffer.length) {
+                flush();
+            }
+            int n = Math.min(len, buffer.length - count);
+            System.arraycopy(b, off, buffer, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+        flushIfDue();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+        out.flush();
+        lastFlush = System.nanoTime();
+    }
+
+    private void flushIfDue() throws IOException {
+        if (count == buffer.length || System.nanoTime() - lastFlush >= maxDelayNanos) {
+            flush();
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.toronto.opendata.core.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Forward-only reader of one worksheet of an .xlsx workbook.
+ *
+ * The sheet XML is pulled row by row with StAX straight out of the zip entry, so memory is the
+ * shared string table plus one row, however long the sheet is. Cells are returned as text:
+ * shared and inline strings resolved, numbers as written in the file (no number formats
+ * applied), booleans as TRUE/FALSE and formulas as their cached value. Missing cells are
+ * empty strings. The first row is the header.
+ */
+public final class XlsxSheetReader implements AutoCloseable {
+
+    private static final String RELATIONSHIP_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private static final XMLInputFactory XML = createFactory();
+
+    private final ZipFile zip;
+    private final InputStream sheetStream;
+    private final XMLStreamReader sheet;
+    private final String[] sharedStrings;
+    private final List<String> headers;
+    private long rowNumber;
+
+    private XlsxSheetReader(ZipFile zip, String sheetPath) throws IOException, XMLStreamException {
+        this.zip = zip;
+        this.sharedStrings = readSharedStrings(zip);
+        this.sheetStream = zip.getInputStream(entry(zip, sheetPath));
+        this.sheet = XML.createXMLStreamReader(sheetStream);
+        String[] first = readRow();
+        this.headers = first == null ? List.of() : Collections.unmodifiableList(Arrays.asList(first));
+    }
+
+    /**
+     * Open a sheet by name, or the first sheet when {@code sheetName} is null
+     */
+    public static XlsxSheetReader open(Path path, String sheetName) throws IOException {
+        ZipFile zip = new ZipFile(path.toFile());
+        try {
+            return new XlsxSheetReader(zip, sheetPath(zip, sheetName));
+        } catch (XMLStreamException e) {
+            zip.close();
+            throw new IOException("Malformed workbook " + path, e);
+        } catch (IOException | RuntimeException e) {
+            zip.close();
+            throw e;
+        }
+    }
+
+    public List<String> headers() {
+        return headers;
+    }
+
+    /**
+     * 1-based sheet row of the row last returned by {@link #next()}
+     */
+    public long rowNumber() {
+        return rowNumber;
+    }
+
+    /**
+     * Next data row, as wide as its last non-empty cell; null at the end of the sheet
+     */
+    public String[] next() throws IOException {
+        try {
+            return readRow();
+        } catch (XMLStreamException e) {
+            throw new IOException("Malformed worksheet", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            sheet.close();
+        } catch (XMLStreamException e) {
+            // the zip is closed below either way
+        } finally {
+            sheetStream.close();
+            zip.close();
+        }
+    }
+
+    private String[] readRow() throws XMLStreamException {
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.START_ELEMENT && sheet.getLocalName().equals("row")) {
+                String r = sheet.getAttributeValue(null, "r");
+                rowNumber = r != null ? Long.parseLong(r) : rowNumber + 1;
+                return readCells();
+            }
+        }
+        return null;
+    }
+
+    private String[] readCells() throws XMLStreamException {
+        List<String> cells = new ArrayList<>();
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.END_ELEMENT && sheet.getLocalName().equals("row")) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT || !sheet.getLocalName().equals("c")) {
+                continue;
+            }
+            String reference = sheet.getAttributeValue(null, "r");
+            String type = sheet.getAttributeValue(null, "t");
+            int column = reference != null ? columnIndex(reference) : cells.size();
+            String value = readCellValue(type);
+            if (column < cells.size()) {
+                cells.set(column, value);
+                continue;
+            }
+            while (cells.size() < column) {
+                cells.add("");
+            }
+            cells.add(value);
+        }
+        return cells.toArray(new String[0]);
+    }
+
+    /**
+     * Text of the current {@code <c>} element; leaves the reader on its end tag
+     */
+    private String readCellValue(String type) throws XMLStreamException {
+        String raw = null;
+        StringBuilder inline = null;
+        while (sheet.hasNext()) {
+            int event = sheet.next();
+            if (event == XMLStreamConstants.END_ELEMENT && sheet.getLocalName().equals("c")) {
+                break;
+            }
+            if (event != XMLStreamConstants.START_ELEMENT) {
+                continue;
+            }
+            String name = sheet.getLocalName();
+            if (name.equals("v")) {
+                raw = sheet.getElementText();
+            } else if (name.equals("t")) {
+                // <is><t>..</t></is> inline strings, possibly in several runs
+                if (inline == null) {
+                    inline = new StringBuilder();
+                }
+                inline.append(sheet.getElementText());
+            }
+        }
+        if (inline != null) {
+            return inline.toString();
+        }
+        if (raw == null) {
+            return "";
+        }
+        if ("s".equals(type)) {
+            int index = Integer.parseInt(raw.trim());
+            return index >= 0 && index < sharedStrings.length ? sharedStrings[index] : "";
+        }
+        if ("b".equals(type)) {
+            return "1".equals(raw) ? "TRUE" : "FALSE";
+        }
+        return raw;
+    }
+
+    /**
+     * Zero-based column of a cell reference such as "AB12"
+     */
+    static int columnIndex(String reference) {
+        int column = 0;
+        for (int i = 0; i < reference.length(); i++) {
+            char c = reference.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                break;
+            }
+            column = column * 26 + (c - 'A' + 1);
+        }
+        return column - 1;
+    }
+
+    private static String[] readSharedStrings(ZipFile zip) throws IOException, XMLStreamException {
+        ZipEntry entry = zip.getEntry("xl/sharedStrings.xml");
+        if (entry == null) {
+            return new String[0];
+        }
+        List<String> strings = new ArrayList<>();
+        try (InputStream in = zip.getInputStream(entry)) {
+            XMLStreamReader reader = XML.createXMLStreamReader(in);
+            StringBuilder text = null;
+            int phoneticDepth = 0;
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.START_ELEMENT) {
+                    switch (reader.getLocalName()) {
+                        case "si" -> text = new StringBuilder();
+                        case "rPh" -> phoneticDepth++;
+                        case "t" -> {
+                            String value = reader.getElementText();
+                            if (text != null && phoneticDepth == 0) {
+                                text.append(value);
+                            }
+                        }
+                        default -> {
+                        }
+                    }
+                } else if (event == XMLStreamConstants.END_ELEMENT) {
+                    if (reader.getLocalName().equals("si") && text != null) {
+                        strings.add(text.toString());
+                        text = null;
+                    } else if (reader.getLocalName().equals("rPh")) {
+                        phoneticDepth--;
+                    }
+                }
+            }
+            reader.close();
+        }
+        return strings.toArray(new String[0]);
+    }
+
+    /**
+     * Zip path of a sheet, resolved through the workbook and its relationships
+     */
+    private static String sheetPath(ZipFile zip, String sheetName) throws IOException, XMLStreamException {
+        String relationshipId = null;
+        List<String> names = new ArrayList<>();
+        try (InputStream in = zip.getInputStream(entry(zip, "xl/workbook.xml"))) {
+            XMLStreamReader reader = XML.createXMLStreamReader(in);
+            while (reader.hasNext() && relationshipId == null) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("sheet")) {
+                    String name = reader.getAttributeValue(null, "name");
+                    names.add(name);
+                    if (sheetName == null || sheetName.equals(name)) {
+                        relationshipId = reader.getAttributeValue(RELATIONSHIP_NS, "id");
+                    }
+                }
+            }
+            reader.close();
+        }
+        if (relationshipId == null) {
+            throw new IOException("Sheet '" + sheetName + "' not found; workbook has " + names);
+        }
+
+        Map<String, String> targets = new HashMap<>();
+        try (InputStream in = zip.getInputStream(entry(zip, "xl/_rels/workbook.xml.rels"))) {
+            XMLStreamReader reader = XML.createXMLStreamReader(in);
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && reader.getLocalName().equals("Relationship")) {
+                    targets.put(reader.getAttributeValue(null, "Id"), reader.getAttributeValue(null, "Target"));
+                }
+            }
+            reader.close();
+        }
+        String target = targets.get(relationshipId);
+        if (target == null) {
+            throw new IOException("Sheet relationship " + relationshipId + " not found");
+        }
+        return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+    }
+
+    private static ZipEntry entry(ZipFile zip, String name) throws IOException {
+        ZipEntry entry = zip.getEntry(name);
+        if (entry == null) {
+            throw new IOException("Workbook entry " + name + " is missing");
+        }
+        return entry;
+    }
+
+    private static XMLInputFactory createFactory() {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        return factory;
+    }
+}
@@ -0,0 +1,2 @@
+-- Spatial index on hotspot locations for in-memory H2 (PostGIS: db/postgis/cultural_hotspots_location.sql)
+CREATE SPATIAL INDEX IF NOT EXISTS idx_cultural_hotspots_location ON cultural_hotspots(location);
@@ -0,0 +1,21 @@
+-- Location column and spatial indexes for cultural_hotspots on PostgreSQL/PostGIS.
+-- Apply before deploying a build that maps the column (ddl-auto=validate); safe to re-run.
+
+CREATE EXTENSION IF NOT EXISTS postgis;
+
+ALTER TABLE cultural_hotspots ADD COLUMN IF NOT EXISTS location geometry(Point, 4326);
+
+-- Rows loaded before the column existed; new and refreshed rows get it at ingest
+UPDATE cultural_hotspots
+   SET location = ST_SetSRID(ST_MakePoint(longitude, latitude), 4326)
+ WHERE location IS NULL AND latitude IS NOT NULL AND longitude IS NOT NULL;
+
+-- Bounding-box queries (location && envelope)
+CREATE INDEX IF NOT EXISTS idx_cultural_hotspots_location
+    ON cultural_hotspots USING GIST (location);
+
+-- Radius (ST_DWithin) and nearest-neighbour (<->) queries, which run on geography
+CREATE INDEX IF NOT EXISTS idx_cultural_hotspots_location_geography
+    ON cultural_hotspots USING GIST ((location::geography));
+
+ANALYZE cultural_hotspots;
@@ -0,0 +1,62 @@
+-- cultural_hotspots on PostgreSQL: sequence ids (batched inserts) and the refresh content hash.
+-- Apply before deploying a build with ddl-auto=validate; safe to re-run. The location column is
+-- added by db/postgis/cultural_hotspots_location.sql (apply that one afterwards).
+
+CREATE TABLE IF NOT EXISTS cultural_hotspots (
+    id                         bigint NOT NULL PRIMARY KEY,
+    csv_id                     varchar(255),
+    loops_guide                varchar(255),
+    loop                       varchar(255),
+    tour_num                   varchar(255),
+    order_num                  varchar(255),
+    loop_tour_name             varchar(255),
+    loop_tour_url              varchar(500),
+    tour_label                 varchar(255),
+    site_name                  varchar(255),
+    neighbourhood              varchar(255),
+    tour_type                  varchar(255),
+    duration                   varchar(255),
+    entry_type                 varchar(255),
+    interests                  varchar(255),
+    directions_transit         varchar(1000),
+    directions_car             varchar(1000),
+    description                varchar(5000),
+    address                    varchar(255),
+    external_link              varchar(500),
+    image_credit               varchar(255),
+    image_credit_external_link varchar(500),
+    image_alt_text             varchar(1000),
+    image_url                  varchar(500),
+    thumb_url                  varchar(500),
+    image_orientation          varchar(255),
+    test1                      varchar(255),
+    test2                      varchar(255),
+    test3                      varchar(255),
+    object_id                  varchar(255),
+    geometry                   text,
+    latitude                   double precision,
+    longitude                  double precision,
+    created_at                 timestamp(6),
+    updated_at                 timestamp(6)
+);
+
+-- SHA-256 of the source record, compared by refreshes; rows loaded before it existed get it on
+-- the next refresh or reload
+ALTER TABLE cultural_hotspots ADD COLUMN IF NOT EXISTS content_hash varchar(64);
+ALTER TABLE cultural_hotspots ADD COLUMN IF NOT EXISTS created_at timestamp(6);
+
+-- Ids now come from cultural_hotspots_seq (allocationSize 50) instead of an identity column
+ALTER TABLE cultural_hotspots ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE cultural_hotspots ALTER COLUMN id DROP DEFAULT;
+
+-- Hibernate's pooled optimizer hands out the 50 ids up to each value it draws, so the first
+-- value must be at least max(id) + 50. Only set when the sequence is created, so a re-run never
+-- moves it back under ids already handed out.
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_class WHERE relkind = 'S' AND relname = 'cultural_hotspots_seq') THEN
+        EXECUTE format('CREATE SEQUENCE cultural_hotspots_seq START WITH %s INCREMENT BY 50',
+                       (SELECT COALESCE(MAX(id), 0) + 50 FROM cultural_hotspots));
+    END IF;
+END
+$$;
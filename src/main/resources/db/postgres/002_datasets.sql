@@ -0,0 +1,88 @@
+-- Dataset load history and the additional datasets (library branches, places of worship,
+-- neighbourhoods, neighbourhood profiles) on PostgreSQL.
+-- Apply before deploying a build with ddl-auto=validate; safe to re-run. The tables are new, so
+-- their sequences start at the beginning.
+
+CREATE TABLE IF NOT EXISTS dataset_versions (
+    name            varchar(255) NOT NULL PRIMARY KEY,
+    version         bigint,
+    source          varchar(500),
+    content_hash    varchar(64),
+    record_count    bigint,
+    row_count       bigint,
+    error_count     bigint,
+    duration_millis bigint,
+    loaded_at       timestamp(6),
+    source_modified varchar(255),
+    inserted_count  bigint,
+    updated_count   bigint,
+    deleted_count   bigint,
+    checked_at      timestamp(6)
+);
+
+CREATE SEQUENCE IF NOT EXISTS library_branches_seq START WITH 1 INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS library_branches (
+    id                   bigint NOT NULL PRIMARY KEY,
+    source_id            varchar(255),
+    branch_code          varchar(255),
+    branch_name          varchar(255),
+    physical_branch      boolean,
+    address              varchar(255),
+    postal_code          varchar(255),
+    website              varchar(500),
+    telephone            varchar(255),
+    square_footage       integer,
+    public_parking       varchar(255),
+    workstations         integer,
+    service_tier         varchar(255),
+    neighbourhood_number integer,
+    neighbourhood        varchar(255),
+    ward_number          integer,
+    ward_name            varchar(255),
+    present_site_year    integer,
+    latitude             double precision,
+    longitude            double precision,
+    content_hash         varchar(64)
+);
+
+CREATE SEQUENCE IF NOT EXISTS places_of_worship_seq START WITH 1 INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS places_of_worship (
+    id               bigint NOT NULL PRIMARY KEY,
+    csv_id           varchar(255),
+    address_point_id varchar(255),
+    address          varchar(255),
+    postal_code      varchar(255),
+    municipality     varchar(255),
+    place_name       varchar(255),
+    organization     varchar(255),
+    faith            varchar(255),
+    denomination     varchar(255),
+    faith_grouping   varchar(255),
+    phone            varchar(255),
+    website          varchar(500),
+    ward_name        varchar(255),
+    neighbourhood    varchar(255),
+    latitude         double precision,
+    longitude        double precision,
+    content_hash     varchar(64)
+);
+
+CREATE SEQUENCE IF NOT EXISTS neighbourhoods_seq START WITH 1 INCREMENT BY 50;
+CREATE TABLE IF NOT EXISTS neighbourhoods (
+    id                   bigint NOT NULL PRIMARY KEY,
+    neighbourhood_number integer,
+    name                 varchar(255),
+    census_profile_name  varchar(500),
+    designation          varchar(255)
+);
+
+CREATE SEQUENCE IF NOT EXISTS neighbourhood_profiles_seq START WITH 1 INCREMENT BY 500;
+CREATE TABLE IF NOT EXISTS neighbourhood_profiles (
+    id                   bigint NOT NULL PRIMARY KEY,
+    neighbourhood        varchar(255),
+    sheet_row            integer,
+    characteristic       varchar(500),
+    characteristic_value varchar(255),
+    numeric_value        double precision
+);
+CREATE INDEX IF NOT EXISTS idx_neighbourhood_profiles_neighbourhood ON neighbourhood_profiles (neighbourhood);
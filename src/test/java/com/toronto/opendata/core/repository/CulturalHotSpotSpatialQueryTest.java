@@ -0,0 +1,126 @@
+package com.toronto.opendata.core.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.toronto.opendata.core.entity.CulturalHotSpotEntity;
+import com.toronto.opendata.core.util.GeoUtils;
+
+/**
+ * The database spatial backend on the embedded H2 (spatial index plus haversine refinement),
+ * checked against a brute-force scan of the same points
+ */
+@DataJpaTest
+class CulturalHotSpotSpatialQueryTest {
+
+    @Autowired
+    private CulturalHotSpotRepository repository;
+
+    private List<CulturalHotSpotEntity> located;
+
+    @BeforeEach
+    void seed() {
+        Random random = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            CulturalHotSpotEntity entity = new CulturalHotSpotEntity();
+            entity.setCsvId(Integer.toString(i));
+            if (i % 50 != 0) {
+                double lat = 43.58 + random.nextDouble() * 0.27;
+                double lon = -79.64 + random.nextDouble() * 0.52;
+                entity.setLatitude(lat);
+                entity.setLongitude(lon);
+                entity.setLocation(GeoUtils.point(lat, lon));
+            }
+            repository.save(entity);
+        }
+        repository.flush();
+        located = repository.findAll().stream().filter(entity -> entity.getLocation() != null).toList();
+    }
+
+    @Test
+    void boundsMatchAScan() {
+        Set<String> expected = ids(located.stream()
+                .filter(entity -> entity.getLatitude() >= 43.60 && entity.getLatitude() <= 43.70
+                        && entity.getLongitude() >= -79.50 && entity.getLongitude() <= -79.35)
+                .toList());
+
+        assertThat(expected).isNotEmpty();
+        assertThat(ids(repository.findLocatedInBounds(43.60, 43.70, -79.50, -79.35))).isEqualTo(expected);
+    }
+
+    @Test
+    void radiusMatchesAHaversineScan() {
+        Set<String> expected = ids(located.stream()
+                .filter(entity -> distanceKm(entity, 43.65, -79.38) <= 5)
+                .toList());
+
+        assertThat(expected).isNotEmpty();
+        assertThat(ids(repository.findLocatedWithinRadius(43.65, -79.38, 5))).isEqualTo(expected);
+    }
+
+    @Test
+    void nearestMatchesAHaversineScan() {
+        assertThat(csvIds(repository.findNearestLocated(43.65, -79.38, 10)))
+                .isEqualTo(csvIds(nearestByScan(located, 43.65, -79.38, 10)));
+    }
+
+    @Test
+    void nearestAndRadiusReachAcrossTheAntimeridian() {
+        save("east", -17.80, 179.95);
+        save("west", -17.80, -179.95);
+        save("far", -17.80, 170.00);
+
+        assertThat(csvIds(repository.findNearestLocated(-17.80, 179.99, 2))).containsExactly("east", "west");
+        assertThat(ids(repository.findLocatedWithinRadius(-17.80, 179.99, 20))).containsExactlyInAnyOrder("east", "west");
+        assertThat(ids(repository.findLocatedWithinRadius(-17.80, -179.99, 20))).containsExactlyInAnyOrder("east", "west");
+    }
+
+    @Test
+    void nearestIsExactNearThePole() {
+        // "across" is 1.7 km away over the pole but 3.5 km by scaled degrees; "along" is 1.8 km
+        save("across", 89.995, 180.00);
+        save("along", 89.974, 0.00);
+
+        assertThat(csvIds(repository.findNearestLocated(89.99, 0.00, 1))).containsExactly("across");
+    }
+
+    private CulturalHotSpotEntity save(String csvId, double lat, double lon) {
+        CulturalHotSpotEntity entity = new CulturalHotSpotEntity();
+        entity.setCsvId(csvId);
+        entity.setLatitude(lat);
+        entity.setLongitude(lon);
+        entity.setLocation(GeoUtils.point(lat, lon));
+        return repository.saveAndFlush(entity);
+    }
+
+    private static List<CulturalHotSpotEntity> nearestByScan(List<CulturalHotSpotEntity> entities,
+            double lat, double lon, int k) {
+        return entities.stream()
+                .sorted(Comparator.<CulturalHotSpotEntity>comparingDouble(entity -> distanceKm(entity, lat, lon))
+                        .thenComparing(CulturalHotSpotEntity::getId))
+                .limit(k)
+                .toList();
+    }
+
+    private static List<String> csvIds(List<CulturalHotSpotEntity> entities) {
+        return entities.stream().map(CulturalHotSpotEntity::getCsvId).toList();
+    }
+
+    private static Set<String> ids(List<CulturalHotSpotEntity> entities) {
+        return entities.stream().map(CulturalHotSpotEntity::getCsvId).collect(Collectors.toSet());
+    }
+
+    private static double distanceKm(CulturalHotSpotEntity entity, double lat, double lon) {
+        return GeoUtils.haversineKm(lat, lon, entity.getLatitude(), entity.getLongitude());
+    }
+}
@@ -0,0 +1,120 @@
+package com.toronto.opendata.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.web.client.RestTemplateBuilder;
+import org.springframework.web.client.HttpServerErrorException;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.toronto.opendata.core.config.CkanClientProperties;
+import com.toronto.opendata.core.config.RestTemplateConfig;
+import com.toronto.opendata.core.model.CkanPackageResponse;
+import com.toronto.opendata.core.util.ConditionalGetCache;
+
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+
+/**
+ * CkanService over the real client stack (pooled HttpClient, conditional-GET cache, retry and
+ * circuit breaker) against a stub CKAN on a local port
+ */
+class CkanServiceTest {
+
+    private static final String PACKAGE = "{\"success\":true,\"result\":{\"id\":\"p1\",\"name\":\"hotspots\",\"resources\":[]}}";
+
+    private HttpServer server;
+    // Status the stub answers each request with, in order; the last one repeats
+    private final List<Integer> statuses = new CopyOnWriteArrayList<>();
+    private final List<String> ifNoneMatch = new CopyOnWriteArrayList<>();
+    private final List<Integer> answered = new CopyOnWriteArrayList<>();
+    private CloseableHttpClient httpClient;
+    private CkanService ckan;
+
+    @BeforeEach
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/3/action/package_show", this::answer);
+        server.start();
+
+        CkanClientProperties properties = new CkanClientProperties();
+        properties.setBaseUrl("http://127.0.0.1:" + server.getAddress().getPort());
+        properties.getRetry().setMaxAttempts(2);
+        properties.getRetry().setInitialBackoff(Duration.ofMillis(10));
+        properties.getCircuitBreaker().setSlidingWindowSize(4);
+        properties.getCircuitBreaker().setMinimumCalls(4);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMinutes(1));
+
+        RestTemplateConfig config = new RestTemplateConfig();
+        httpClient = config.httpClient(properties);
+        ConditionalGetCache cache = config.conditionalGetCache(properties);
+        ckan = new CkanService(config.restTemplate(new RestTemplateBuilder(), httpClient, cache), properties);
+    }
+
+    @AfterEach
+    void stop() throws IOException {
+        httpClient.close();
+        server.stop(0);
+    }
+
+    @Test
+    void notModifiedReplaysTheCachedBody() {
+        statuses.addAll(List.of(200, 304));
+
+        CkanPackageResponse first = ckan.getPackageInfo("p1");
+        CkanPackageResponse second = ckan.getPackageInfo("p1");
+
+        assertThat(answered).containsExactly(200, 304);
+        assertThat(ifNoneMatch).containsExactly(null, "\"v1\"");
+        assertThat(second).isEqualTo(first);
+        assertThat(second.getResult().getName()).isEqualTo("hotspots");
+    }
+
+    @Test
+    void serverErrorIsRetriedOnce() {
+        statuses.addAll(List.of(503, 200));
+
+        assertThat(ckan.getPackageInfo("p1").getResult().getId()).isEqualTo("p1");
+        assertThat(answered).containsExactly(503, 200);
+    }
+
+    @Test
+    void circuitBreakerOpensAndFailsFast() {
+        statuses.add(500);
+
+        // Two calls of two attempts each fill the window with failures
+        assertThatThrownBy(() -> ckan.getPackageInfo("p1")).isInstanceOf(HttpServerErrorException.class);
+        assertThatThrownBy(() -> ckan.getPackageInfo("p1")).isInstanceOf(HttpServerErrorException.class);
+        assertThat(answered).hasSize(4);
+
+        assertThatThrownBy(() -> ckan.getPackageInfo("p1")).isInstanceOf(CallNotPermittedException.class);
+        assertThat(answered).hasSize(4);
+    }
+
+    private void answer(HttpExchange exchange) throws IOException {
+        int status = statuses.size() > answered.size() ? statuses.get(answered.size()) : statuses.get(statuses.size() - 1);
+        answered.add(status);
+        ifNoneMatch.add(exchange.getRequestHeaders().getFirst("If-None-Match"));
+        exchange.getResponseHeaders().set("ETag", "\"v1\"");
+        if (status == 304) {
+            exchange.sendResponseHeaders(status, -1);
+        } else {
+            byte[] body = (status == 200 ? PACKAGE : "{\"success\":false}").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+        }
+        exchange.close();
+    }
+}
@@ -0,0 +1,103 @@
+package com.toronto.opendata.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+
+import com.toronto.opendata.core.dto.ApiResponse;
+import com.toronto.opendata.core.dto.FacetedHotSpotsDTO;
+import com.toronto.opendata.core.entity.CulturalHotSpotEntity;
+import com.toronto.opendata.core.entity.DatasetVersionEntity;
+import com.toronto.opendata.core.event.HotSpotDataChangedEvent;
+import com.toronto.opendata.core.model.CulturalHotSpotModel;
+import com.toronto.opendata.core.repository.CulturalHotSpotRepository;
+import com.toronto.opendata.core.repository.DatasetVersionRepository;
+import com.toronto.opendata.core.service.dataset.CulturalHotSpotDataset;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Facet cursors across instances: each new service stands for a restart or another replica,
+ * whose in-process data version starts over while the data in the database stays the same
+ */
+@DataJpaTest
+class CulturalHotSpotServiceTest {
+
+    @Autowired
+    private CulturalHotSpotRepository repository;
+
+    @Autowired
+    private DatasetVersionRepository versionRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @BeforeEach
+    void seed() {
+        for (int i = 1; i <= 5; i++) {
+            save(Integer.toString(i));
+        }
+        saveVersion(1, "first");
+    }
+
+    @Test
+    void cursorOutlivesTheInstanceThatIssuedIt() {
+        String cursor = filter(startInstance(), null).getMetadata().getNextCursor();
+
+        assertThat(ids(filter(startInstance(), cursor))).containsExactly("3", "4");
+    }
+
+    @Test
+    void cursorIsRejectedOnceTheDataChanged() {
+        CulturalHotSpotService issuer = startInstance();
+        String cursor = filter(issuer, null).getMetadata().getNextCursor();
+
+        save("6");
+        saveVersion(2, "second");
+        issuer.onHotSpotDataChanged(new HotSpotDataChangedEvent(1));
+
+        for (CulturalHotSpotService service : List.of(issuer, startInstance())) {
+            assertThatThrownBy(() -> filter(service, cursor))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("has since changed");
+        }
+        assertThat(ids(filter(startInstance(), null))).containsExactly("1", "2");
+    }
+
+    private CulturalHotSpotService startInstance() {
+        CulturalHotSpotService service = new CulturalHotSpotService(repository, versionRepository, entityManager);
+        service.initCaches();
+        return service;
+    }
+
+    private static ApiResponse<FacetedHotSpotsDTO> filter(CulturalHotSpotService service, String cursor) {
+        return service.filterByFacets(Map.of(), null, cursor, 2);
+    }
+
+    private static List<String> ids(ApiResponse<FacetedHotSpotsDTO> page) {
+        return page.getData().getHotSpots().stream().map(CulturalHotSpotModel::getId).toList();
+    }
+
+    private void save(String csvId) {
+        CulturalHotSpotEntity entity = new CulturalHotSpotEntity();
+        entity.setCsvId(csvId);
+        entity.setInterests("Art");
+        repository.saveAndFlush(entity);
+    }
+
+    private void saveVersion(long version, String contentHash) {
+        DatasetVersionEntity entity = versionRepository.findById(CulturalHotSpotDataset.NAME)
+                .orElseGet(DatasetVersionEntity::new);
+        entity.setName(CulturalHotSpotDataset.NAME);
+        entity.setVersion(version);
+        entity.setContentHash(contentHash);
+        versionRepository.saveAndFlush(entity);
+    }
+}
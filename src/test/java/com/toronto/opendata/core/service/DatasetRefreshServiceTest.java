@@ -0,0 +1,271 @@
+package com.toronto.opendata.core.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import com.toronto.opendata.core.config.DatasetRefreshProperties;
+import com.toronto.opendata.core.dto.DatasetRefreshDTO;
+import com.toronto.opendata.core.entity.LibraryBranchEntity;
+import com.toronto.opendata.core.entity.PlaceOfWorshipEntity;
+import com.toronto.opendata.core.model.CkanPackageResponse;
+import com.toronto.opendata.core.model.CkanResourceResponse;
+import com.toronto.opendata.core.repository.DatasetVersionRepository;
+import com.toronto.opendata.core.repository.LibraryBranchRepository;
+import com.toronto.opendata.core.repository.PlaceOfWorshipRepository;
+import com.toronto.opendata.core.repository.SourceRowVersion;
+import com.toronto.opendata.core.service.dataset.DatasetFormat;
+import com.toronto.opendata.core.service.dataset.DatasetIngestionService;
+import com.toronto.opendata.core.service.dataset.DatasetRecord;
+import com.toronto.opendata.core.service.dataset.LibraryBranchesDataset;
+import com.toronto.opendata.core.service.dataset.PlacesOfWorshipDataset;
+import com.toronto.opendata.core.service.dataset.RefreshableDataset;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Refreshes of a CSV, a JSON and an XLSX dataset from a stubbed CKAN: a first refresh fills
+ * the table, a second applies one insert, one update and one delete, and a third with the
+ * same last_modified downloads nothing
+ */
+@DataJpaTest
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@Import({DatasetIngestionService.class, PlacesOfWorshipDataset.class, LibraryBranchesDataset.class,
+        DatasetRefreshServiceTest.Datasets.class})
+class DatasetRefreshServiceTest {
+
+    private static final String SHEET_DATASET = "library-branches-sheet";
+
+    @Autowired
+    private DatasetIngestionService ingestionService;
+
+    @Autowired
+    private DatasetVersionRepository versionRepository;
+
+    @Autowired
+    private PlaceOfWorshipRepository placesOfWorship;
+
+    @Autowired
+    private LibraryBranchRepository libraryBranches;
+
+    private final CkanService ckan = mock(CkanService.class);
+    // Contents and last_modified of the resource the stub CKAN currently serves
+    private final Map<String, byte[]> contents = new HashMap<>();
+    private final Map<String, String> modified = new HashMap<>();
+    private DatasetRefreshService refreshService;
+
+    @BeforeEach
+    void stubCkan() throws IOException {
+        DatasetRefreshProperties properties = new DatasetRefreshProperties();
+        for (String name : List.of("places-of-worship", "library-branches", SHEET_DATASET)) {
+            DatasetRefreshProperties.CkanSource source = new DatasetRefreshProperties.CkanSource();
+            source.setResourceId(name);
+            properties.getSources().put(name, source);
+        }
+        when(ckan.getResourceInfo(anyString())).thenAnswer(call -> {
+            String id = call.getArgument(0);
+            CkanPackageResponse.CkanResource resource = new CkanPackageResponse.CkanResource();
+            resource.setId(id);
+            resource.setUrl("https://ckan.example/" + id);
+            resource.setLastModified(modified.get(id));
+            CkanResourceResponse response = new CkanResourceResponse();
+            response.setSuccess(true);
+            response.setResult(resource);
+            return response;
+        });
+        // The refresh deletes what it downloads, so every download is a fresh file
+        when(ckan.downloadResource(anyString())).thenAnswer(call -> {
+            String url = call.getArgument(0);
+            Path file = Files.createTempFile("ckan-", ".download");
+            return Files.write(file, contents.get(url.substring(url.lastIndexOf('/') + 1)));
+        });
+        refreshService = new DatasetRefreshService(ckan, ingestionService, versionRepository,
+                mock(DataMigrationService.class), properties, Runnable::run);
+    }
+
+    @Test
+    void csvRefreshAppliesTheDiff() throws IOException {
+        assertRefreshCycle("places-of-worship", rows -> csv(rows).getBytes(StandardCharsets.UTF_8),
+                () -> placesOfWorship.findAll().stream()
+                        .collect(Collectors.toMap(PlaceOfWorshipEntity::getCsvId, PlaceOfWorshipEntity::getPlaceName)));
+    }
+
+    @Test
+    void jsonRefreshAppliesTheDiff() throws IOException {
+        assertRefreshCycle("library-branches", rows -> json(rows).getBytes(StandardCharsets.UTF_8),
+                this::branchNames);
+    }
+
+    @Test
+    void xlsxRefreshAppliesTheDiff() throws IOException {
+        assertRefreshCycle(SHEET_DATASET, DatasetRefreshServiceTest::xlsx, this::branchNames);
+    }
+
+    private void assertRefreshCycle(String name, Function<List<String[]>, byte[]> render,
+                                    Supplier<Map<String, String>> stored) throws IOException {
+        publish(name, render.apply(List.of(row("1", "Alpha"), row("2", "Beta"), row("3", "Gamma"))), "2026-01-01T00:00:00");
+        DatasetRefreshDTO first = refreshService.refresh(name);
+        assertThat(first.getStatus()).isEqualTo("REFRESHED");
+        assertThat(counts(first)).containsExactly(3L, 0L, 0L, 0L);
+        assertThat(stored.get()).isEqualTo(Map.of("1", "Alpha", "2", "Beta", "3", "Gamma"));
+
+        publish(name, render.apply(List.of(row("1", "Alpha"), row("2", "Beta renamed"), row("4", "Delta"))), "2026-02-01T00:00:00");
+        DatasetRefreshDTO second = refreshService.refresh(name);
+        assertThat(second.getVersion()).isEqualTo(first.getVersion() + 1);
+        assertThat(counts(second)).containsExactly(1L, 1L, 1L, 1L);
+        assertThat(stored.get()).isEqualTo(Map.of("1", "Alpha", "2", "Beta renamed", "4", "Delta"));
+
+        DatasetRefreshDTO third = refreshService.refresh(name);
+        assertThat(third.getStatus()).isEqualTo("UNCHANGED");
+        assertThat(third.getVersion()).isEqualTo(second.getVersion());
+        verify(ckan, times(2)).downloadResource(anyString());
+    }
+
+    private void publish(String name, byte[] content, String lastModified) {
+        contents.put(name, content);
+        modified.put(name, lastModified);
+    }
+
+    private Map<String, String> branchNames() {
+        return libraryBranches.findAll().stream()
+                .collect(Collectors.toMap(LibraryBranchEntity::getSourceId, LibraryBranchEntity::getBranchName));
+    }
+
+    private static List<Long> counts(DatasetRefreshDTO result) {
+        return List.of(result.getInserted(), result.getUpdated(), result.getDeleted(), result.getUnchanged());
+    }
+
+    private static String[] row(String id, String name) {
+        return new String[] {id, name};
+    }
+
+    private static String csv(List<String[]> rows) {
+        StringBuilder csv = new StringBuilder("_id,PLACE_NAME,FTH_FAITH\r\n");
+        rows.forEach(row -> csv.append(row[0]).append(",\"").append(row[1]).append("\",Christian\r\n"));
+        return csv.toString();
+    }
+
+    private static String json(List<String[]> rows) {
+        return rows.stream()
+                .map(row -> "{\"_id\":" + row[0] + ",\"BranchName\":\"" + row[1] + "\",\"PhysicalBranch\":1}")
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    /**
+     * Minimal workbook: one sheet of inline strings, no shared string table
+     */
+    private static byte[] xlsx(List<String[]> rows) {
+        StringBuilder sheet = new StringBuilder("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+        sheet.append(sheetRow(1, new String[] {"_id", "BranchName"}));
+        for (int i = 0; i < rows.size(); i++) {
+            sheet.append(sheetRow(i + 2, rows.get(i)));
+        }
+        sheet.append("</sheetData></worksheet>");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            entry(zip, "xl/workbook.xml", "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+                    + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                    + "<sheets><sheet name=\"Branches\" sheetId=\"1\" r:id=\"rId1\"/></sheets></workbook>");
+            entry(zip, "xl/_rels/workbook.xml.rels", "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Target=\"worksheets/sheet1.xml\""
+                    + " Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\"/></Relationships>");
+            entry(zip, "xl/worksheets/sheet1.xml", sheet.toString());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static String sheetRow(int number, String[] cells) {
+        StringBuilder row = new StringBuilder("<row r=\"" + number + "\">");
+        for (int i = 0; i < cells.length; i++) {
+            row.append("<c r=\"").append((char) ('A' + i)).append(number).append("\" t=\"inlineStr\"><is><t>")
+                    .append(cells[i]).append("</t></is></c>");
+        }
+        return row.append("</row>").toString();
+    }
+
+    private static void entry(ZipOutputStream zip, String name, String xml) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(xml.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    @TestConfiguration
+    static class Datasets {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        /**
+         * The library branches read from a worksheet instead of JSON; no production dataset
+         * is both refreshable and XLSX
+         */
+        @Bean
+        RefreshableDataset<LibraryBranchEntity> libraryBranchesSheet(LibraryBranchesDataset branches) {
+            return new RefreshableDataset<>() {
+
+                @Override
+                public String name() {
+                    return SHEET_DATASET;
+                }
+
+                @Override
+                public String resource() {
+                    return "data/library-branches.xlsx";
+                }
+
+                @Override
+                public DatasetFormat format() {
+                    return DatasetFormat.XLSX;
+                }
+
+                @Override
+                public LibraryBranchRepository repository() {
+                    return branches.repository();
+                }
+
+                @Override
+                public List<SourceRowVersion> storedRows() {
+                    return branches.storedRows();
+                }
+
+                @Override
+                public void map(DatasetRecord record, Consumer<LibraryBranchEntity> entities) {
+                    branches.map(record, entities);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.toronto.opendata.core.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Nearest-neighbour results of the KD-tree against a brute-force ranking by distance and then
+ * position, on points with many exact ties
+ */
+class KdTreeTest {
+
+    @Test
+    void nearestBreaksTiesByPositionWhateverTheLayout() {
+        // A coarse grid with every point repeated, so many points share the k-th distance
+        Random random = new Random(7);
+        int n = 2000;
+        double[] lons = new double[n];
+        double[] lats = new double[n];
+        for (int i = 0; i < n; i++) {
+            lons[i] = -79.6 + 0.01 * random.nextInt(40);
+            lats[i] = 43.6 + 0.01 * random.nextInt(25);
+        }
+
+        for (int nodeSize : new int[] {2, 16, 64}) {
+            KdTree tree = KdTree.build(lons, lats, nodeSize);
+            for (int query = 0; query < 50; query++) {
+                double lon = lons[random.nextInt(n)];
+                double lat = lats[random.nextInt(n)];
+                int k = 1 + random.nextInt(40);
+
+                List<Integer> found = new ArrayList<>();
+                tree.nearest(lon, lat, k, Double.MAX_VALUE, (position, distanceKm) -> found.add(position));
+
+                assertThat(found).isEqualTo(IntStream.range(0, n).boxed()
+                        .sorted(Comparator.<Integer>comparingDouble(i -> GeoUtils.haversineKm(lat, lon, lats[i], lons[i]))
+                                .thenComparing(i -> i))
+                        .limit(k)
+                        .toList());
+            }
+        }
+    }
+}